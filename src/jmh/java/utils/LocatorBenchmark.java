@@ -0,0 +1,64 @@
+package utils;
+
+import org.openqa.selenium.By;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Locator resolution: the original per-call parse (readObjectPropertyFile + returnByClass)
+ * against the compiled LocatorRepository, single-threaded and with 8 contending threads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LocatorBenchmark {
+
+    @Setup
+    public void setUp() {
+        // load properties + compile the repository outside the measurement
+        CommonUtils.getLocator("loginPageHeader");
+    }
+
+    @Benchmark
+    public By parsePerCall() {
+        String[] data = CommonUtils.readObjectPropertyFile("MenuBarLines");
+        return CommonUtils.returnByClass(data[0], data[1]);
+    }
+
+    @Benchmark
+    public By compiledRepository() {
+        return CommonUtils.getLocator("MenuBarLines");
+    }
+
+    @Benchmark
+    public By returnByClass() {
+        return CommonUtils.returnByClass("Xpath", "//button[@id='react-burger-menu-btn']");
+    }
+
+    @Benchmark
+    @Threads(8)
+    public By parsePerCallContended() {
+        String[] data = CommonUtils.readObjectPropertyFile("MenuBarLines");
+        return CommonUtils.returnByClass(data[0], data[1]);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public By compiledRepositoryContended() {
+        return CommonUtils.getLocator("MenuBarLines");
+    }
+}
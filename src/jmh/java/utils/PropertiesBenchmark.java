@@ -0,0 +1,61 @@
+package utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Property lookups through the PROPS_CACHE (cache hits), single-threaded and contended.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PropertiesBenchmark {
+
+    @Setup
+    public void setUp() throws IOException {
+        CommonUtils.loadPropertiesFileFromClasspath("config/global.properties");
+    }
+
+    @Benchmark
+    public Properties loadPropertiesCached() throws IOException {
+        return CommonUtils.loadPropertiesFileFromClasspath("config/global.properties");
+    }
+
+    @Benchmark
+    public String readPropertyFromFile() {
+        return CommonUtils.readPropertyFromFile("global", "screenshotStorePath");
+    }
+
+    @Benchmark
+    public String getGlobalProperty() {
+        return CommonUtils.getGlobalProperty("driverPoolSize", "4");
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Properties loadPropertiesCachedContended() throws IOException {
+        return CommonUtils.loadPropertiesFileFromClasspath("config/global.properties");
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String readPropertyFromFileContended() {
+        return CommonUtils.readPropertyFromFile("global", "screenshotStorePath");
+    }
+}
@@ -0,0 +1,75 @@
+package utils;
+
+import com.aventstack.extentreports.Status;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reporting helpers that run on every logger() call: timestamps/report names, status mapping
+ * and screenshot capture against {@link FakeWebDriver} (no browser, no disk).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReportingBenchmark {
+
+    private final FakeWebDriver driver = new FakeWebDriver();
+
+    @Benchmark
+    public String reportNameWithTimestamp() {
+        return CommonUtils.getReportNameWithCurrentDateTimeStamp();
+    }
+
+    @Benchmark
+    public String currentDateTimeStamp() {
+        return CommonUtils.getCurrentDateTimeStamp();
+    }
+
+    /** What ScreenshotUtils did before: a new SimpleDateFormat per call. */
+    @Benchmark
+    public String screenshotTimestampSimpleDateFormat() {
+        return new SimpleDateFormat("dd_MMM_yyyy_HH_mm_ss").format(new Date());
+    }
+
+    @Benchmark
+    public String screenshotTimestamp() {
+        return ScreenshotUtils.timestamp();
+    }
+
+    @Benchmark
+    public Status statusLog() {
+        return TestReportingUtils.getStatusLog("Warning");
+    }
+
+    @Benchmark
+    public byte[] captureScreenshotBytes() {
+        return ScreenshotUtils.captureWebDriverBytes(driver);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String reportNameWithTimestampContended() {
+        return CommonUtils.getReportNameWithCurrentDateTimeStamp();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String screenshotTimestampContended() {
+        return ScreenshotUtils.timestamp();
+    }
+}
@@ -0,0 +1,159 @@
+package utils;
+
+import com.aventstack.extentreports.ExtentReports;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The two scenario execution models, driving the in-process StubWebDriver (no browser) through
+ * the framework's own per-scenario path: BaseTest.initDriver / releaseDriver (DriverPool borrow,
+ * reset, ThreadLocal) and a ReportMgr test node completed into a live ExtentReports.
+ *
+ *   testng   TestRunner: a fixed data-provider pool of {@code slots} platform threads; each thread
+ *            runs scenarios back to back, the DriverPool (driverPoolSize = slots) caps browsers
+ *   virtual  VirtualThreadTestRunner: one virtual thread per scenario, waiting for one of
+ *            {@code slots} browser slots and named browser-slot-N while it holds it
+ *
+ * One operation runs {@code scenarios} scenarios; each opens the Sauce Demo login page (served
+ * from fixtures/saucedemo by the stub) and makes {@code commands} element look-ups, every stub
+ * command taking {@code latencyMillis}. Browsers are pooled across operations (driverMaxUses is
+ * lifted), so session start-up is not part of the measurement. On a JVM older than 21 the virtual
+ * model runs on platform threads (see VirtualThreads).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScenarioExecutionBenchmark {
+
+    private static final String LOGIN_PAGE = "https://www.saucedemo.com/";
+
+    @Param({"testng", "virtual"})
+    public String mode;
+
+    @Param({"4", "32"})
+    public int slots;
+
+    @Param({"64"})
+    public int scenarios;
+
+    @Param({"10"})
+    public int commands;
+
+    @Param({"5"})
+    public int latencyMillis;
+
+    // one fork per parameter set, so the JVM-wide pool and report start fresh for each
+    @Setup(Level.Trial)
+    public void startStub() {
+        System.setProperty("stubWebDriver", "true");
+        System.setProperty("stubWebDriverLatencyMillis", Integer.toString(latencyMillis));
+        System.setProperty("driverPoolSize", Integer.toString(slots));
+        System.setProperty("driverMaxUses", Integer.toString(Integer.MAX_VALUE));
+        StubWebDriver.startIfEnabled();
+        ReportMgr.init(new ExtentReports());
+    }
+
+    @TearDown(Level.Trial)
+    public void flushReport() {
+        ReportMgr.flush();
+    }
+
+    @Benchmark
+    public int runScenarios() throws Exception {
+        return "virtual".equals(mode) ? runVirtual() : runTestNg();
+    }
+
+    // TestRunner: TestNG hands each scenario to the next free data-provider thread
+    private int runTestNg() throws Exception {
+        ExecutorService pool = VirtualThreads.newPlatformExecutor("scenario-", slots);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>(scenarios);
+            for (int i = 0; i < scenarios; i++) {
+                int n = i;
+                futures.add(pool.submit(() -> scenario(n)));
+            }
+            return sum(futures);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // VirtualThreadTestRunner.runWave: every scenario started at once, each waiting for a slot
+    private int runVirtual() throws Exception {
+        BlockingQueue<Integer> freeSlots = new ArrayBlockingQueue<>(slots, true);
+        for (int i = 1; i <= slots; i++) freeSlots.add(i);
+        ExecutorService executor = VirtualThreads.newScenarioExecutor("scenario-", slots);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>(scenarios);
+            for (int i = 0; i < scenarios; i++) {
+                int n = i;
+                futures.add(executor.submit(() -> {
+                    Integer slot = freeSlots.take();
+                    Thread thread = Thread.currentThread();
+                    String name = thread.getName();
+                    thread.setName("browser-slot-" + slot);
+                    try {
+                        return scenario(n);
+                    } finally {
+                        thread.setName(name);
+                        freeSlots.add(slot);
+                    }
+                }));
+            }
+            return sum(futures);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    // what Hooks does around a scenario, minus screenshots: borrow, report node, steps, release
+    private int scenario(int n) {
+        BaseTest.initDriver();
+        BufferedExtentTest test = ReportMgr.createTest("Scenario " + n);
+        ReportMgr.setTest(test);
+        try {
+            WebDriver driver = BaseTest.getDriver();
+            driver.get(LOGIN_PAGE);
+            int found = 0;
+            for (int i = 0; i < commands; i++) {
+                found += driver.findElements(By.id("user-name")).size();
+            }
+            test.pass("Found the login form " + found + " times");
+            return found;
+        } finally {
+            BaseTest.releaseDriver();
+            ReportMgr.completeTest(test);
+            ReportMgr.removeTest();
+        }
+    }
+
+    private static int sum(List<Future<Integer>> futures) throws Exception {
+        int total = 0;
+        for (Future<Integer> f : futures) total += f.get();
+        return total;
+    }
+}
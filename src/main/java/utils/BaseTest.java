@@ -1,56 +1,220 @@
 package utils;
 
-import io.github.bonigarcia.wdm.WebDriverManager;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.io.File;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
 
 /**
  * Minimal thread-safe BaseTest: keeps driver in a ThreadLocal so it is safe for parallel runs
  * but usable in single-thread runs as well.
  *
+ * Drivers come from a bounded {@link DriverPool} so browsers are reused across scenarios.
+ * Pool settings (global.properties or -D system properties):
+ *   driverPoolSize             max concurrent sessions (default 4)
+ *   driverMaxUses              scenarios per session before it is retired (default 20)
+ *   driverBorrowTimeoutSeconds max wait for a free session (default 300)
+ *   driverProfile              browser launch profile, see DriverProfile (default "default")
+ *   chromeDriverPath           pinned chromedriver binary for offline agents, see DriverBinaryResolver
+ *   webDriverRemoteUrl         W3C remote end (Grid, or the in-process stub set up with stubWebDriver=true);
+ *                              empty = launch a local ChromeDriver (default empty)
+ *   driverInstrumentation      time every WebDriver command into Metrics (default true)
+ *   resourceBlockPatterns / resourceBlockTypes / resourceStubs / navigationTiming
+ *                              network resource policy, see ResourcePolicy
+ *   sessionCache*              reuse of logged-in state across scenarios, see SessionStateCache
+ *
  * Usage:
- *   BaseTest.initDriver();   // in @Before hook
+ *   BaseTest.initDriver();      // in @Before hook - borrows a session
+ *   BaseTest.initFreshDriver(); // same, but always a newly launched browser
  *   WebDriver driver = BaseTest.getDriver();
- *   BaseTest.quitDriver();   // in @After hook
+ *   BaseTest.releaseDriver();   // in @After hook - returns the session to the pool
+ *   BaseTest.quitDriver();      // quits the session instead of returning it
  */
 public class BaseTest {
 
-    // ThreadLocal driver so each test thread gets its own WebDriver instance
-    private static final ThreadLocal<WebDriver> driverThreadLocal = new ThreadLocal<>();
+    // ThreadLocal session so each test thread gets its own WebDriver instance
+    private static final ThreadLocal<DriverPool.PooledSession> sessionThreadLocal = new ThreadLocal<>();
+
+    private static volatile DriverPool pool;
+
+    // Lazily create the pool once per JVM; idle browsers are quit on JVM exit
+    private static DriverPool getPool() {
+        DriverPool p = pool;
+        if (p == null) {
+            synchronized (BaseTest.class) {
+                p = pool;
+                if (p == null) {
+                    p = new DriverPool(
+                            BaseTest::createDriver,
+                            CommonUtils.getGlobalIntProperty("driverPoolSize", 4),
+                            CommonUtils.getGlobalIntProperty("driverMaxUses", 20),
+                            CommonUtils.getGlobalIntProperty("driverBorrowTimeoutSeconds", 300));
+                    Runtime.getRuntime().addShutdownHook(new Thread(p::close, "driver-pool-shutdown"));
+                    pool = p;
+                }
+            }
+        }
+        return p;
+    }
+
+    // Launch a brand-new browser session (used by the pool only) with the configured driverProfile
+    private static WebDriver createDriver() {
+        String remoteUrl = CommonUtils.getGlobalProperty("webDriverRemoteUrl", "").trim();
+        if (remoteUrl.isEmpty()) {
+            DriverBinaryResolver.ensureResolved();   // once per JVM, cached
+        }
+        DriverProfile profile = DriverProfile.active();
+        ChromeOptions options = profile.toChromeOptions();
+
+        // a remote node's user-data-dir is not on this machine
+        File userDataDir = remoteUrl.isEmpty() ? profile.sessionUserDataDir(options) : null;
+
+        long start = System.nanoTime();
+        WebDriver driver = null;
+        try {
+            driver = remoteUrl.isEmpty() ? new ChromeDriver(options) : new RemoteWebDriver(toUrl(remoteUrl), options);
+            if (profile.isMaximize()) {
+                driver.manage().window().maximize();
+            }
+            DriverProfileStats.recordStartup((System.nanoTime() - start) / 1_000_000L);
+
+            // CDP blocking/stubbing needs the raw driver, so apply before decorating
+            ResourcePolicy policy = ResourcePolicy.active();
+            policy.applyTo(driver);
+
+            List<WebDriverListener> listeners = new ArrayList<>();
+            if (CommonUtils.getGlobalBooleanProperty("driverInstrumentation", true)) {
+                listeners.add(new CommandMetricsListener());
+            }
+            if (policy.isNavigationTiming()) {
+                listeners.add(policy.navigationListener());
+            }
+            if (userDataDir != null) {
+                listeners.add(new WebDriverListener() {
+                    @Override
+                    public void afterQuit(WebDriver quit) {
+                        DriverProfile.deleteUserDataDir(userDataDir);
+                    }
+                });
+            }
+            if (!listeners.isEmpty()) {
+                driver = new EventFiringDecorator<>(listeners.toArray(new WebDriverListener[0])).decorate(driver);
+            }
+            return driver;
+        } catch (RuntimeException e) {
+            // the pool never sees this browser, so nobody else would quit it
+            if (driver != null) {
+                try {
+                    driver.quit();
+                } catch (Exception quitFailure) {
+                    e.addSuppressed(quitFailure);
+                }
+            }
+            DriverProfile.deleteUserDataDir(userDataDir);
+            throw e;
+        }
+    }
+
+    private static URL toUrl(String remoteUrl) {
+        try {
+            return new URL(remoteUrl);
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException("Invalid webDriverRemoteUrl: " + remoteUrl, e);
+        }
+    }
 
-    // Initialize driver for current thread (idempotent)
+    // Borrow a driver for current thread (idempotent)
     public static void initDriver() {
-        if (driverThreadLocal.get() == null) {
-            WebDriverManager.chromedriver().setup();
-            WebDriver driver = new ChromeDriver();
-            driver.manage().window().maximize();
-            driverThreadLocal.set(driver);
+        if (sessionThreadLocal.get() == null) {
+            sessionThreadLocal.set(getPool().borrow());
+        }
+    }
+
+    // Borrow a newly launched driver for current thread, never a reused one (reruns of failed scenarios)
+    public static void initFreshDriver() {
+        if (sessionThreadLocal.get() == null) {
+            sessionThreadLocal.set(getPool().borrowFresh());
         }
     }
 
     // Return the driver for the current thread (may be null if not initialized)
     public static WebDriver getDriver() {
-        return driverThreadLocal.get();
+        DriverPool.PooledSession session = sessionThreadLocal.get();
+        return session == null ? null : session.getDriver();
+    }
+
+    // Reset the driver and hand it back to the pool for the next scenario
+    public static void releaseDriver() {
+        DriverPool.PooledSession session = sessionThreadLocal.get();
+        try {
+            releaseSession(session);
+        } finally {
+            // Important: remove the ThreadLocal reference to avoid memory leaks
+            sessionThreadLocal.remove();
+        }
+    }
+
+    // Take the current thread's session without resetting it, so it can be kept for a later
+    // scenario (setup fixtures); it still counts against the pool until releaseSession()
+    public static DriverPool.PooledSession detachSession() {
+        DriverPool.PooledSession session = sessionThreadLocal.get();
+        sessionThreadLocal.remove();
+        return session;
     }
 
-    // Quit and remove driver for the current thread
+    // Make a session taken with detachSession() the current thread's driver again
+    public static void attachSession(DriverPool.PooledSession session) {
+        if (sessionThreadLocal.get() != null) {
+            throw new IllegalStateException("A WebDriver session is already attached to this thread");
+        }
+        sessionThreadLocal.set(session);
+    }
+
+    // Reset a detached session and hand it back to the pool (any thread)
+    public static void releaseSession(DriverPool.PooledSession session) {
+        if (session != null) {
+            SessionStateCache.detach(session.getDriver());   // drop injected login state scripts
+            getPool().release(session);
+        }
+    }
+
+    // Called while the pool is exhausted to hand back a detached session that is not in use
+    public static void setSessionReclaimer(BooleanSupplier reclaimer) {
+        getPool().setReclaimer(reclaimer);
+    }
+
+    // True while another thread is blocked waiting for a session
+    public static boolean hasWaitingDriverBorrowers() {
+        return getPool().hasWaitingBorrowers();
+    }
+
+    // Quit and remove driver for the current thread (the pool replaces it on the next borrow)
     public static void quitDriver() {
-        WebDriver driver = driverThreadLocal.get();
+        DriverPool.PooledSession session = sessionThreadLocal.get();
         try {
-            if (driver != null) {
-                driver.quit();
+            if (session != null) {
+                SessionStateCache.detach(session.getDriver());
+                getPool().discard(session);
             }
         } catch (Exception e) {
             // If you have a logger, use it. For now print the error.
             System.err.println("Error quitting driver: " + e.getMessage());
         } finally {
-            // Important: remove the ThreadLocal reference to avoid memory leaks
-            driverThreadLocal.remove();
+            sessionThreadLocal.remove();
         }
     }
 
     // Optional helper to check if driver is initialized
     public static boolean isDriverInitialized() {
-        return driverThreadLocal.get() != null;
+        return sessionThreadLocal.get() != null;
     }
 }
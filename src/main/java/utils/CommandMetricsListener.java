@@ -0,0 +1,85 @@
+package utils;
+
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Times every WebDriver / WebElement call made through a driver decorated by
+ * {@link org.openqa.selenium.support.events.EventFiringDecorator}.
+ *
+ * Each call is recorded in the "webdriver_command_seconds" histogram (labelled by command), added to
+ * the thread's {@link Metrics#current()} accumulator for per-step attribution, and handed to
+ * {@link CommandProfiler} for the per-scenario round-trip / N+1 report.
+ * Accessors that only return a local facade (manage(), navigate(), switchTo(), ...) are skipped
+ * because they never reach the browser.
+ */
+public class CommandMetricsListener implements WebDriverListener {
+
+    private static final Set<String> LOCAL_CALLS = new HashSet<>(Arrays.asList(
+            "manage", "navigate", "switchTo", "window", "timeouts", "logs",
+            "getWrappedDriver", "getWrappedElement", "toString", "hashCode", "equals"));
+
+    // start times of in-flight calls on this thread (calls can nest, e.g. element -> driver)
+    private static final ThreadLocal<long[]> STARTS = ThreadLocal.withInitial(() -> new long[8]);
+    private static final ThreadLocal<int[]> DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public void beforeAnyCall(Object target, Method method, Object[] args) {
+        if (LOCAL_CALLS.contains(method.getName())) return;
+        int[] depth = DEPTH.get();
+        long[] starts = STARTS.get();
+        if (depth[0] == starts.length) {
+            starts = Arrays.copyOf(starts, starts.length * 2);
+            STARTS.set(starts);
+        }
+        starts[depth[0]++] = System.nanoTime();
+    }
+
+    @Override
+    public void afterAnyCall(Object target, Method method, Object[] args, Object result) {
+        finish(target, method, args, "ok");
+    }
+
+    @Override
+    public void onError(Object target, Method method, Object[] args, InvocationTargetException e) {
+        finish(target, method, args, "error");
+    }
+
+    private void finish(Object target, Method method, Object[] args, String outcome) {
+        if (LOCAL_CALLS.contains(method.getName())) return;
+        int[] depth = DEPTH.get();
+        if (depth[0] == 0) return;
+        long nanos = System.nanoTime() - STARTS.get()[--depth[0]];
+
+        String command = (target instanceof WebElement ? "element." : "") + method.getName();
+        Metrics.histogram("webdriver_command_seconds", "command", command, "outcome", outcome).recordNanos(nanos);
+        Metrics.Accumulator acc = Metrics.current();
+        acc.commands++;
+        acc.commandNanos += nanos;
+        CommandProfiler.record(command, detail(method.getName(), args), nanos);
+    }
+
+    // short description of the call's main argument: locator, URL or script head
+    private static String detail(String command, Object[] args) {
+        if (args == null || args.length == 0 || args[0] == null) return null;
+        switch (command) {
+            case "findElement":
+            case "findElements":
+            case "get":
+            case "to":
+                return String.valueOf(args[0]);
+            case "executeScript":
+            case "executeAsyncScript":
+                String script = String.valueOf(args[0]).trim();
+                return script.length() > 60 ? script.substring(0, 60) + "..." : script;
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Per-scenario WebDriver command profile, fed by {@link CommandMetricsListener}.
+ *
+ * For the scenario running on the current thread it keeps every command with its latency and the
+ * step it ran in, counts round-trips, and flags N+1 lookups: the same locator looked up again and
+ * again (findElement / findElements) within one step. SmartWait polling of one locator counts as a
+ * single lookup, so only repeated lookups written in the step code are reported.
+ *
+ * Step boundaries come from MetricsPlugin (Cucumber TestStepStarted); Hooks logs
+ * {@link #scenarioSummary(int)} to the report and the suite-wide slowest commands and N+1 findings
+ * are written to CSV at the end of the run.
+ *
+ * Settings (global.properties or -D system properties):
+ *   commandNPlusOneThreshold   lookups of one locator in one step before it is flagged (default 3)
+ *   commandProfileSuiteTop     slowest commands kept for the suite report (default 50)
+ */
+public final class CommandProfiler {
+
+    private static final int N_PLUS_ONE_THRESHOLD = Math.max(2, CommonUtils.getGlobalIntProperty("commandNPlusOneThreshold", 3));
+    private static final int SUITE_TOP = Math.max(1, CommonUtils.getGlobalIntProperty("commandProfileSuiteTop", 50));
+    private static final int MAX_SAMPLES_PER_SCENARIO = 5000;
+
+    private static final ThreadLocal<ScenarioState> STATE = ThreadLocal.withInitial(ScenarioState::new);
+
+    // suite-wide: min-heap of the slowest commands, and every N+1 finding
+    private static final PriorityQueue<Sample> SUITE_SLOWEST = new PriorityQueue<>(Comparator.comparingLong((Sample s) -> s.nanos));
+    private static final ConcurrentLinkedQueue<Finding> SUITE_FINDINGS = new ConcurrentLinkedQueue<>();
+
+    private CommandProfiler() {}
+
+    // ---------------- LIFECYCLE ----------------
+
+    public static void startScenario(String scenarioName) {
+        STATE.remove();
+        STATE.get().scenario = scenarioName;
+    }
+
+    /** Start of a step or hook: closes N+1 detection for the previous one. */
+    public static void startStep(String stepLabel) {
+        ScenarioState s = STATE.get();
+        s.closeStep();
+        s.step = stepLabel;
+    }
+
+    /** Label of the step (or hook) running on this thread, or null outside a scenario. */
+    public static String currentStep() {
+        return STATE.get().step;
+    }
+
+    /** Publish this scenario's slowest commands / findings to the suite totals and clear the thread state. */
+    public static void endScenario() {
+        ScenarioState s = STATE.get();
+        s.closeStep();
+        synchronized (SUITE_SLOWEST) {
+            for (Sample sample : s.samples) {
+                if (SUITE_SLOWEST.size() < SUITE_TOP) {
+                    SUITE_SLOWEST.add(sample);
+                } else if (sample.nanos > SUITE_SLOWEST.peek().nanos) {
+                    SUITE_SLOWEST.poll();
+                    SUITE_SLOWEST.add(sample);
+                }
+            }
+        }
+        SUITE_FINDINGS.addAll(s.findings);
+        STATE.remove();
+    }
+
+    // ---------------- RECORDING ----------------
+
+    static void record(String command, String detail, long nanos) {
+        ScenarioState s = STATE.get();
+        s.commands++;
+        s.commandNanos += nanos;
+        if (s.samples.size() < MAX_SAMPLES_PER_SCENARIO) {
+            s.samples.add(new Sample(s.scenario, s.step, command, detail, nanos));
+        }
+        if (detail != null && (command.endsWith("findElement") || command.endsWith("findElements"))) {
+            if (s.pollingDepth > 0) {
+                s.polledLocators.add(detail);     // counted once when the wait ends
+            } else {
+                s.lookups.merge(detail, 1, Integer::sum);
+            }
+        }
+    }
+
+    /** SmartWait brackets its polling loop with these so repeated polls count as one lookup. */
+    static void beginPolling() {
+        STATE.get().pollingDepth++;
+    }
+
+    static void endPolling() {
+        ScenarioState s = STATE.get();
+        if (s.pollingDepth > 0 && --s.pollingDepth == 0) {
+            for (String locator : s.polledLocators) s.lookups.merge(locator, 1, Integer::sum);
+            s.polledLocators.clear();
+        }
+    }
+
+    // ---------------- REPORTING ----------------
+
+    /** Round-trips, slowest commands and N+1 findings of the current scenario, or null when no commands ran. */
+    public static String scenarioSummary(int top) {
+        ScenarioState s = STATE.get();
+        if (s.commands == 0) return null;
+        s.closeStep();
+
+        List<Sample> sorted = new ArrayList<>(s.samples);
+        sorted.sort(Comparator.comparingLong((Sample x) -> x.nanos).reversed());
+        StringBuilder sb = new StringBuilder("WebDriver: ").append(s.commands).append(" round-trips totalling ")
+                .append(s.commandNanos / 1_000_000L).append(" ms; slowest:");
+        for (int i = 0; i < Math.min(top, sorted.size()); i++) {
+            Sample x = sorted.get(i);
+            sb.append(' ').append(x.command);
+            if (x.detail != null) sb.append('(').append(x.detail).append(')');
+            sb.append('=').append(x.nanos / 1_000_000L).append("ms");
+        }
+        for (Finding f : s.findings) {
+            sb.append("; N+1: ").append(f.locator).append(" looked up ").append(f.count)
+                    .append("x in '").append(f.step).append('\'');
+        }
+        return sb.toString();
+    }
+
+    /** Write slow-commands.csv and n-plus-one.csv into {@code dir}. */
+    public static void writeCsv(File dir) {
+        List<Sample> slowest;
+        synchronized (SUITE_SLOWEST) {
+            slowest = new ArrayList<>(SUITE_SLOWEST);
+        }
+        if (slowest.isEmpty() && SUITE_FINDINGS.isEmpty()) return;
+        slowest.sort(Comparator.comparingLong((Sample s) -> s.nanos).reversed());
+        if (!dir.exists()) dir.mkdirs();
+
+        try (PrintWriter pw = new PrintWriter(new File(dir, "slow-commands.csv"), StandardCharsets.UTF_8.name())) {
+            pw.println("scenario,step,command,detail,ms");
+            for (Sample s : slowest) {
+                pw.println(csv(s.scenario) + "," + csv(s.step) + "," + csv(s.command) + "," + csv(s.detail) + "," + s.nanos / 1_000_000L);
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to write slow-commands.csv: " + e.getMessage());
+        }
+        try (PrintWriter pw = new PrintWriter(new File(dir, "n-plus-one.csv"), StandardCharsets.UTF_8.name())) {
+            pw.println("scenario,step,locator,lookups");
+            for (Finding f : SUITE_FINDINGS) {
+                pw.println(csv(f.scenario) + "," + csv(f.step) + "," + csv(f.locator) + "," + f.count);
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to write n-plus-one.csv: " + e.getMessage());
+        }
+    }
+
+    private static String csv(String value) {
+        return value == null ? "" : "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    // ---------------- STATE ----------------
+
+    private static final class ScenarioState {
+        String scenario;
+        String step;
+        long commands;
+        long commandNanos;
+        int pollingDepth;
+        final List<Sample> samples = new ArrayList<>();
+        final Map<String, Integer> lookups = new HashMap<>();
+        final Set<String> polledLocators = new HashSet<>();
+        final List<Finding> findings = new ArrayList<>();
+
+        void closeStep() {
+            for (Map.Entry<String, Integer> e : lookups.entrySet()) {
+                if (e.getValue() >= N_PLUS_ONE_THRESHOLD) {
+                    findings.add(new Finding(scenario, step, e.getKey(), e.getValue()));
+                }
+            }
+            lookups.clear();
+        }
+    }
+
+    private static final class Sample {
+        final String scenario;
+        final String step;
+        final String command;
+        final String detail;
+        final long nanos;
+
+        Sample(String scenario, String step, String command, String detail, long nanos) {
+            this.scenario = scenario;
+            this.step = step;
+            this.command = command;
+            this.detail = detail;
+            this.nanos = nanos;
+        }
+    }
+
+    private static final class Finding {
+        final String scenario;
+        final String step;
+        final String locator;
+        final int count;
+
+        Finding(String scenario, String step, String locator, int count) {
+            this.scenario = scenario;
+            this.step = step;
+            this.locator = locator;
+            this.count = count;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package utils;
 
 import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -17,7 +18,7 @@ import java.util.concurrent.ConcurrentMap;
  *  - property loading
  *  - testdata loading
  *  - locator parsing
- *  - returning Selenium By
+ *  - returning Selenium By (via the compiled LocatorRepository)
  *
  * NOTE: This file should NOT contain reporting/logging/screenshot code.
  */
@@ -48,50 +49,43 @@ public class CommonUtils {
         }
     }
 
+    // Alias ("global", "object", or ConfigService.register(...)) -> hot-reloadable snapshot lookup
     public static String readPropertyFromFile(String fileName, String key) {
         if (fileName == null || key == null) {
             throw new IllegalArgumentException("fileName and key must not be null");
         }
-        final String resourcePath;
-        switch (fileName.trim().toLowerCase(Locale.ROOT)) {
-            case "global":
-                resourcePath = "config/global.properties";
-                break;
-            case "object":
-                resourcePath = "objects/object.properties";
-                break;
-            default:
-                throw new IllegalArgumentException("Unknown properties alias: " + fileName);
-        }
+        return ConfigService.source(fileName).get(key);
+    }
 
+    /**
+     * Read a key from the layered global configuration (global.properties, env file, config.file,
+     * environment variables, JVM system properties - see ConfigService).
+     * Returns defaultValue when the key is missing or blank.
+     */
+    public static String getGlobalProperty(String key, String defaultValue) {
+        return ConfigService.global().get(key, defaultValue);
+    }
+
+    public static int getGlobalIntProperty(String key, int defaultValue) {
+        String val = getGlobalProperty(key, null);
+        if (val == null) return defaultValue;
         try {
-            Properties props = loadPropertiesFileFromClasspath(resourcePath);
-            String val = props.getProperty(key);
-            return val == null ? null : val.trim();
-        } catch (IOException e) {
-            throw new RuntimeException("Unable to load properties: " + resourcePath, e);
+            return Integer.parseInt(val);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Property '" + key + "' must be an integer but was: " + val, e);
         }
     }
 
+    public static boolean getGlobalBooleanProperty(String key, boolean defaultValue) {
+        String val = getGlobalProperty(key, null);
+        return val == null ? defaultValue : Boolean.parseBoolean(val);
+    }
+
     // ---------------- TEST DATA LOADING ----------------
 
+    // TestData/<module>/testData.properties, path matched case-insensitively (see TestData for CSV/JSONL rows)
     public static String getTestData(String module, String key) {
-        if (module == null || key == null)
-            throw new IllegalArgumentException("module/key cannot be null");
-
-        String mod = module.toLowerCase(Locale.ROOT).trim();
-        String path = "testdata/" + mod + "/testdata.properties";
-
-        try {
-            Properties p = loadPropertiesFileFromClasspath(path);
-            if (!p.containsKey(key))
-                throw new IllegalArgumentException("Missing key '" + key + "' in module: " + module);
-
-            return p.getProperty(key).trim();
-
-        } catch (IOException e) {
-            throw new RuntimeException("Unable to load testdata: " + path, e);
-        }
+        return TestData.get(module, key);
     }
 
     // ---------------- LOCATOR PARSING ----------------
@@ -131,21 +125,53 @@ public class CommonUtils {
         }
     }
 
+    // Compiled once at startup by LocatorRepository - a lookup here is a single map read
     public static By getLocator(String locatorKey) {
-        String[] data = readObjectPropertyFile(locatorKey);
-        return returnByClass(data[0], data[1]);
+        return LocatorRepository.getInstance().get(locatorKey);
+    }
+
+    // Parameterised locator, e.g. xpath://a[text()='${label}'] -> getLocator(key, "Logout")
+    public static By getLocator(String locatorKey, Object... params) {
+        return LocatorRepository.getInstance().get(locatorKey, params);
     }
 
+    // ---------------- ELEMENT ACTIONS (wait via SmartWait, no raw findElement) ----------------
+
     public static String getText(String locatorKey) {
         try {
-            return BaseTest.getDriver().findElement(getLocator(locatorKey)).getText();
+            return SmartWait.visible(locatorKey).getText();
         } catch (Exception e) {
             throw new RuntimeException("Unable to get text for: " + locatorKey, e);
         }
     }
 
+    public static void click(String locatorKey) {
+        try {
+            SmartWait.clickable(locatorKey).click();
+        } catch (Exception e) {
+            throw new RuntimeException("Unable to click: " + locatorKey, e);
+        }
+    }
+
+    public static void enterText(String locatorKey, String text) {
+        try {
+            WebElement element = SmartWait.visible(locatorKey);
+            element.clear();
+            element.sendKeys(text);
+        } catch (Exception e) {
+            throw new RuntimeException("Unable to enter text into: " + locatorKey, e);
+        }
+    }
+
+    // Text/attributes/visibility of several locator keys in one round-trip (see PageSnapshot)
+    public static PageSnapshot snapshot(String... locatorKeys) {
+        return PageSnapshot.capture(locatorKeys);
+    }
+
+    // Config aliases are rebuilt and swapped atomically, so concurrent readers never see an empty cache
     public static void clearPropertiesCache() {
         PROPS_CACHE.clear();
+        ConfigService.reloadAll();
     }
 
     public static String getCurrentDateTimeStamp() {
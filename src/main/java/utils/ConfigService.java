@@ -0,0 +1,331 @@
+package utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Hot-reloadable configuration held in immutable snapshots.
+ *
+ * Each named source ("global", "object", or anything added with {@link #register}) is loaded into
+ * an immutable {@link Snapshot} kept in an AtomicReference. Reads are a volatile read plus a map
+ * lookup: no locks, no allocation. When a file-backed layer changes on disk (NIO WatchService), a
+ * new snapshot is built off to the side and swapped in atomically; readers see either the old or
+ * the new snapshot, never a half-loaded one. A broken file keeps the previous snapshot.
+ *
+ * Layers of "global", lowest precedence first:
+ *   1. config/global.properties                     defaults (classpath)
+ *   2. config/global-<env>.properties               environment file; env = -Denv or TEST_ENV (optional)
+ *   3. -Dconfig.file=/path/file.properties          external override file, e.g. soak tuning (optional)
+ *   4. environment variables                        driverPoolSize -> DRIVER_POOL_SIZE, for keys of layers 1-3
+ *   5. JVM system properties                        read live, -DdriverPoolSize=8
+ *
+ * What a reload reaches:
+ *   - Layers 1-2 are watched where the classpath loads them from, i.e. the copies under
+ *     target/(test-)classes. Editing src/test/resources does nothing until the next build copies it
+ *     over, so for tuning a running suite point -Dconfig.file at a file outside the build tree.
+ *   - Only settings read per use pick up a new value: the SmartWait keys (waitInitialPollMillis,
+ *     waitMaxPollMillis, defaultWaitTimeoutSeconds), baseUrl, webDriverRemoteUrl and
+ *     driverInstrumentation (next new browser), canaryTimeoutSeconds and the stubWebDriver* latency,
+ *     route and screenshot keys.
+ *   - Everything a class holds in a static final, or a singleton builds once, is fixed for the run:
+ *     driver pool size/uses/timeout, driverProfile, resource* (ResourcePolicy), circuitBreaker*,
+ *     rerun*, setupFixtures, report*, screenshot*, sessionCache*, command* and shard.*.
+ *
+ * Settings:
+ *   configWatch   watch file-backed layers and reload on change (default true)
+ */
+public final class ConfigService {
+
+    private static final ConcurrentMap<String, ConfigService> SOURCES = new ConcurrentHashMap<>();
+    private static final AtomicLong VERSION = new AtomicLong();
+
+    static {
+        SOURCES.put("global", new ConfigService("global", "config/global.properties", true));
+        SOURCES.put("object", new ConfigService("object", "objects/object.properties", false));
+    }
+
+    private final String alias;
+    private final String resourcePath;
+    private final boolean layered;
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+    private final List<Consumer<Snapshot>> listeners = new CopyOnWriteArrayList<>();
+
+    private ConfigService(String alias, String resourcePath, boolean layered) {
+        this.alias = alias;
+        this.resourcePath = resourcePath;
+        this.layered = layered;
+    }
+
+    // ---------------- SOURCES ----------------
+
+    public static ConfigService global() {
+        return source("global");
+    }
+
+    /** Source by alias; loaded on first use. */
+    public static ConfigService source(String alias) {
+        ConfigService service = SOURCES.get(alias.trim().toLowerCase(Locale.ROOT));
+        if (service == null) {
+            throw new IllegalArgumentException("Unknown properties alias: " + alias + " (known: " + SOURCES.keySet() + ")");
+        }
+        return service;
+    }
+
+    /** Add a plain (single file, no layering) classpath properties source under {@code alias}. */
+    public static ConfigService register(String alias, String resourcePath) {
+        return SOURCES.computeIfAbsent(alias.trim().toLowerCase(Locale.ROOT), a -> new ConfigService(a, resourcePath, false));
+    }
+
+    /** Rebuild every loaded source now (e.g. after CommonUtils.clearPropertiesCache). */
+    public static void reloadAll() {
+        for (ConfigService service : SOURCES.values()) {
+            if (service.current.get() != null) service.reload();
+        }
+    }
+
+    // ---------------- READ ----------------
+
+    /** Value (trimmed) or null. System properties win over all file / environment layers. */
+    public String get(String key) {
+        if (layered) {
+            String sys = System.getProperty(key);
+            if (sys != null && !sys.isBlank()) return sys.trim();
+        }
+        return snapshot().values.get(key);
+    }
+
+    /** Value, or defaultValue when missing or blank. */
+    public String get(String key, String defaultValue) {
+        String val = get(key);
+        return (val == null || val.isEmpty()) ? defaultValue : val;
+    }
+
+    /** Current immutable snapshot, for consistent multi-key reads (system properties not included). */
+    public Snapshot snapshot() {
+        Snapshot s = current.get();
+        if (s == null) {
+            synchronized (this) {
+                s = current.get();
+                if (s == null) {
+                    s = load();
+                    current.set(s);
+                    Watcher.watch(this, s.files);
+                }
+            }
+        }
+        return s;
+    }
+
+    /** Called with the new snapshot after every successful reload. */
+    public void onReload(Consumer<Snapshot> listener) {
+        listeners.add(listener);
+    }
+
+    // ---------------- LOAD ----------------
+
+    void reload() {
+        try {
+            Snapshot next = load();
+            current.set(next);
+            Watcher.watch(this, next.files);
+            System.out.println("Configuration '" + alias + "' reloaded (version " + next.version + ")");
+            for (Consumer<Snapshot> l : listeners) {
+                try {
+                    l.accept(next);
+                } catch (Exception e) {
+                    System.err.println("Config reload listener failed: " + e.getMessage());
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Keeping previous '" + alias + "' configuration, reload failed: " + e.getMessage());
+        }
+    }
+
+    private Snapshot load() {
+        Map<String, String> values = new HashMap<>();
+        List<Path> files = new ArrayList<>();
+
+        if (!loadClasspath(resourcePath, values, files)) {
+            throw new IllegalStateException("Properties resource not found: " + resourcePath);
+        }
+        if (layered) {
+            String env = firstNonBlank(System.getProperty("env"), System.getenv("TEST_ENV"));
+            if (env != null) {
+                loadClasspath(resourcePath.replace(".properties", "-" + env.trim() + ".properties"), values, files);
+            }
+            String external = System.getProperty("config.file");
+            if (external != null && !external.isBlank()) {
+                Path path = Paths.get(external.trim()).toAbsolutePath();
+                try (InputStream in = Files.newInputStream(path)) {
+                    merge(in, values);
+                } catch (IOException e) {
+                    throw new IllegalStateException("Unable to read config.file " + path, e);
+                }
+                files.add(path);
+            }
+            for (String key : new ArrayList<>(values.keySet())) {
+                String fromEnv = System.getenv(envName(key));
+                if (fromEnv != null && !fromEnv.isBlank()) values.put(key, fromEnv.trim());
+            }
+        }
+        return new Snapshot(VERSION.incrementAndGet(), Collections.unmodifiableMap(values), Collections.unmodifiableList(files));
+    }
+
+    private static boolean loadClasspath(String path, Map<String, String> values, List<Path> files) {
+        ClassLoader cl = Thread.currentThread().getContextClassLoader();
+        if (cl == null) cl = ConfigService.class.getClassLoader();
+        URL url = cl.getResource(path);
+        if (url == null) return false;
+        try (InputStream in = url.openStream()) {
+            merge(in, values);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read " + path, e);
+        }
+        if ("file".equals(url.getProtocol())) {
+            try {
+                files.add(Paths.get(url.toURI()));
+            } catch (Exception ignored) {
+                // not watchable - still loaded
+            }
+        }
+        return true;
+    }
+
+    private static void merge(InputStream in, Map<String, String> values) throws IOException {
+        Properties p = new Properties();
+        p.load(in);
+        for (String name : p.stringPropertyNames()) values.put(name, p.getProperty(name).trim());
+    }
+
+    /** driverPoolSize -> DRIVER_POOL_SIZE, driverProfile.ci.headless -> DRIVER_PROFILE_CI_HEADLESS */
+    static String envName(String key) {
+        StringBuilder sb = new StringBuilder(key.length() + 8);
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (Character.isUpperCase(c) && i > 0 && Character.isLowerCase(key.charAt(i - 1))) sb.append('_');
+            sb.append(Character.isLetterOrDigit(c) ? Character.toUpperCase(c) : '_');
+        }
+        return sb.toString();
+    }
+
+    private static String firstNonBlank(String a, String b) {
+        if (a != null && !a.isBlank()) return a;
+        return (b != null && !b.isBlank()) ? b : null;
+    }
+
+    // ---------------- SNAPSHOT ----------------
+
+    /** Immutable view of one source at one point in time. */
+    public static final class Snapshot {
+        private final long version;
+        private final Map<String, String> values;
+        private final List<Path> files;
+
+        Snapshot(long version, Map<String, String> values, List<Path> files) {
+            this.version = version;
+            this.values = values;
+            this.files = files;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public String get(String key) {
+            return values.get(key);
+        }
+
+        public Map<String, String> asMap() {
+            return values;
+        }
+    }
+
+    // ---------------- WATCHER ----------------
+
+    /** One daemon thread watching the directories of every file-backed layer. */
+    private static final class Watcher {
+        private static final long DEBOUNCE_MILLIS = 200;
+        private static final ConcurrentMap<Path, List<ConfigService>> FILES = new ConcurrentHashMap<>();
+        private static final ConcurrentMap<Path, WatchKey> DIRS = new ConcurrentHashMap<>();
+        private static WatchService service;
+
+        static synchronized void watch(ConfigService config, List<Path> files) {
+            if (files.isEmpty() || !isEnabled()) return;
+            try {
+                if (service == null) {
+                    service = FileSystems.getDefault().newWatchService();
+                    Thread t = new Thread(Watcher::loop, "config-watcher");
+                    t.setDaemon(true);
+                    t.start();
+                }
+                for (Path file : files) {
+                    List<ConfigService> owners = FILES.computeIfAbsent(file, f -> new CopyOnWriteArrayList<>());
+                    if (!owners.contains(config)) owners.add(config);
+                    Path dir = file.getParent();
+                    if (!DIRS.containsKey(dir)) {
+                        DIRS.put(dir, dir.register(service, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE));
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("Config hot reload disabled: " + e.getMessage());
+            }
+        }
+
+        // system property or the defaults file itself; never through ConfigService (it may be loading)
+        private static boolean isEnabled() {
+            String sys = System.getProperty("configWatch");
+            if (sys != null && !sys.isBlank()) return Boolean.parseBoolean(sys.trim());
+            Snapshot global = SOURCES.get("global").current.get();
+            String val = global == null ? null : global.get("configWatch");
+            return val == null || val.isEmpty() || Boolean.parseBoolean(val);
+        }
+
+        private static void loop() {
+            while (true) {
+                WatchKey key;
+                try {
+                    key = service.take();
+                    Thread.sleep(DEBOUNCE_MILLIS);   // editors write in several steps
+                } catch (InterruptedException | ClosedWatchServiceException e) {
+                    return;
+                }
+                Path dir = (Path) key.watchable();
+                List<ConfigService> changed = new ArrayList<>();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (!(event.context() instanceof Path)) continue;
+                    List<ConfigService> owners = FILES.get(dir.resolve((Path) event.context()));
+                    if (owners != null) {
+                        for (ConfigService c : owners) {
+                            if (!changed.contains(c)) changed.add(c);
+                        }
+                    }
+                }
+                key.reset();
+                changed.forEach(ConfigService::reload);
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package utils;
+
+import io.github.bonigarcia.wdm.WebDriverManager;
+
+import java.io.File;
+
+/**
+ * Resolves the chromedriver binary at most once per JVM.
+ *
+ * - Offline: if chromeDriverPath is set (global.properties or -DchromeDriverPath), that binary is
+ *   used as-is and WebDriverManager is never called - no network, no version lookup.
+ * - Online: WebDriverManager.chromedriver().setup() runs once, on the first driver creation.
+ *
+ * The outcome (path or failure) is cached, so parallel threads neither repeat the resolution nor
+ * contend on WebDriverManager's cache files, and a broken setup fails every scenario fast.
+ */
+public final class DriverBinaryResolver {
+
+    private static final String CHROME_DRIVER_PROPERTY = "webdriver.chrome.driver";
+
+    private DriverBinaryResolver() {}
+
+    // Initialization-on-demand holder: resolution runs lazily, exactly once, without locking on later calls
+    private static final class Holder {
+        static final Resolution RESULT = resolve();
+    }
+
+    /** Make sure the chromedriver binary is known to Selenium. Cheap after the first call. */
+    public static void ensureResolved() {
+        Resolution r = Holder.RESULT;
+        if (r.error != null) {
+            throw new IllegalStateException("chromedriver could not be resolved: " + r.error.getMessage(), r.error);
+        }
+    }
+
+    /** Path Selenium will use, or null when WebDriverManager resolved it without a pinned path. */
+    public static String getResolvedPath() {
+        return Holder.RESULT.path;
+    }
+
+    private static Resolution resolve() {
+        try {
+            String pinned = CommonUtils.getGlobalProperty("chromeDriverPath", null);
+            if (pinned != null) {
+                File binary = new File(pinned);
+                if (!binary.isFile() || !binary.canExecute()) {
+                    throw new IllegalArgumentException("chromeDriverPath does not point to an executable file: " + pinned);
+                }
+                System.setProperty(CHROME_DRIVER_PROPERTY, binary.getAbsolutePath());
+                return new Resolution(binary.getAbsolutePath(), null);
+            }
+
+            WebDriverManager.chromedriver().setup();
+            return new Resolution(System.getProperty(CHROME_DRIVER_PROPERTY), null);
+        } catch (RuntimeException e) {
+            return new Resolution(null, e);
+        }
+    }
+
+    private static final class Resolution {
+        final String path;
+        final RuntimeException error;
+
+        Resolution(String path, RuntimeException error) {
+            this.path = path;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Bounded pool of reusable WebDriver sessions.
+ *
+ * - At most {@code maxSize} sessions exist at any time (borrowed + idle).
+ * - A returned session is reset (cookies, storage, extra windows, about:blank) before it goes idle.
+ *   Chromium sessions lose the cookies of every domain (CDP); other browsers only those of the
+ *   current page. Storage is cleared for the current page's origin only: origins visited earlier in
+ *   the scenario keep theirs, so use driverMaxUses = 1 where that matters.
+ * - A borrowed session is health-checked; broken sessions are quit and replaced.
+ * - Each session is retired after {@code maxUses} scenarios.
+ * - A borrower that finds the pool exhausted asks the reclaimer (if set) to hand back a session
+ *   held outside the pool but not in use (SetupFixtures' kept browsers) before it waits on.
+ *
+ * Usage (normally via BaseTest):
+ *   PooledSession session = pool.borrow();   // in @Before hook
+ *   WebDriver driver = session.getDriver();
+ *   pool.release(session);                   // in @After hook
+ */
+public class DriverPool {
+
+    private static final long RECLAIM_SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private final Supplier<WebDriver> factory;
+    private final int maxSize;
+    private final int maxUses;
+    private final long borrowTimeoutSeconds;
+
+    // Permits = sessions that may still be handed out; idle = sessions ready for reuse
+    private final Semaphore permits;
+    private final Deque<PooledSession> idle = new ConcurrentLinkedDeque<>();
+
+    private volatile boolean closed = false;
+    private volatile BooleanSupplier reclaimer;
+
+    public DriverPool(Supplier<WebDriver> factory, int maxSize, int maxUses, long borrowTimeoutSeconds) {
+        if (factory == null) throw new IllegalArgumentException("factory must not be null");
+        if (maxSize < 1) throw new IllegalArgumentException("maxSize must be >= 1 but was " + maxSize);
+        if (maxUses < 1) throw new IllegalArgumentException("maxUses must be >= 1 but was " + maxUses);
+        this.factory = factory;
+        this.maxSize = maxSize;
+        this.maxUses = maxUses;
+        this.borrowTimeoutSeconds = borrowTimeoutSeconds;
+        this.permits = new Semaphore(maxSize, true);
+    }
+
+    // ---------------- BORROW / RELEASE ----------------
+
+    /** Borrow a healthy session, creating one if no idle session is available. Blocks while the pool is exhausted. */
+    public PooledSession borrow() {
+        acquirePermit();
+        try {
+            PooledSession session;
+            while ((session = idle.pollFirst()) != null) {
+                if (isHealthy(session.getDriver())) {
+                    return session;
+                }
+                quitQuietly(session.getDriver());
+            }
+            return new PooledSession(factory.get());
+        } catch (RuntimeException e) {
+            // creation failed -> give the slot back so other threads are not starved
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Borrow a newly launched session, never an idle one (e.g. to rerun a failed scenario in
+     * isolation). One idle session is quit to make room when the pool is full.
+     */
+    public PooledSession borrowFresh() {
+        acquirePermit();
+        try {
+            int borrowed = maxSize - permits.availablePermits();   // including this one
+            if (borrowed + idle.size() > maxSize) {
+                PooledSession oldest = idle.pollLast();
+                if (oldest != null) quitQuietly(oldest.getDriver());
+            }
+            return new PooledSession(factory.get());
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void acquirePermit() {
+        if (closed) throw new IllegalStateException("DriverPool is closed");
+        try {
+            BooleanSupplier r = reclaimer;
+            if (r == null) {
+                if (!permits.tryAcquire(borrowTimeoutSeconds, TimeUnit.SECONDS)) throw borrowTimeout();
+                return;
+            }
+            // wait in short slices (queued on the semaphore meanwhile, so hasWaitingBorrowers() is
+            // true) and ask the reclaimer before each one; the total wait stays borrowTimeoutSeconds
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(borrowTimeoutSeconds);
+            while (true) {
+                if (permits.tryAcquire()) return;
+                if (r.getAsBoolean() && permits.tryAcquire()) return;
+                long left = deadline - System.nanoTime();
+                if (left <= 0) throw borrowTimeout();
+                if (permits.tryAcquire(Math.min(left, RECLAIM_SLICE_NANOS), TimeUnit.NANOSECONDS)) return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a WebDriver session", e);
+        }
+    }
+
+    private IllegalStateException borrowTimeout() {
+        return new IllegalStateException("Timed out after " + borrowTimeoutSeconds
+                + "s waiting for a WebDriver session (pool size " + maxSize + ")");
+    }
+
+    /** Return a session to the pool. It is reset and kept idle, or quit when retired/broken. */
+    public void release(PooledSession session) {
+        if (session == null) return;
+        try {
+            int uses = session.markUsed();
+            if (closed || uses >= maxUses || !reset(session.getDriver())) {
+                quitQuietly(session.getDriver());
+            } else {
+                idle.offerFirst(session);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /** Quit a session without returning it to the pool (e.g. after an unrecoverable failure). */
+    public void discard(PooledSession session) {
+        if (session == null) return;
+        try {
+            quitQuietly(session.getDriver());
+        } finally {
+            permits.release();
+        }
+    }
+
+    /** Quit every idle session and refuse further borrows. Borrowed sessions are quit when released. */
+    public void close() {
+        closed = true;
+        PooledSession session;
+        while ((session = idle.pollFirst()) != null) {
+            quitQuietly(session.getDriver());
+        }
+    }
+
+    /**
+     * Called by a borrower while the pool is exhausted; returns true when it handed a session
+     * back (release/discard). Null = plain blocking borrow.
+     */
+    public void setReclaimer(BooleanSupplier reclaimer) {
+        this.reclaimer = reclaimer;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    /** True while some thread is blocked in borrow() waiting for a session. */
+    public boolean hasWaitingBorrowers() {
+        return permits.hasQueuedThreads();
+    }
+
+    // ---------------- HEALTH / RESET ----------------
+
+    private static boolean isHealthy(WebDriver driver) {
+        try {
+            // cheap round-trip that fails fast on a dead session or crashed browser
+            return driver.getWindowHandle() != null;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /** Bring the browser back to a clean state. Returns false when the session could not be reset. */
+    private static boolean reset(WebDriver driver) {
+        try {
+            Set<String> handles = driver.getWindowHandles();
+            String keep = handles.iterator().next();
+            for (String handle : handles) {
+                if (!handle.equals(keep)) {
+                    driver.switchTo().window(handle);
+                    driver.close();
+                }
+            }
+            driver.switchTo().window(keep);
+
+            // storage is per-origin, so clear it before leaving the current page
+            if (driver instanceof JavascriptExecutor) {
+                try {
+                    ((JavascriptExecutor) driver).executeScript(
+                            "try { window.localStorage.clear(); } catch (e) {}"
+                                    + "try { window.sessionStorage.clear(); } catch (e) {}");
+                } catch (Exception ignored) {
+                    // about:blank / data: pages have no storage - nothing to clear
+                }
+            }
+            if (driver instanceof HasCdp) clearBrowserWide((HasCdp) driver);
+            driver.manage().deleteAllCookies();
+            driver.get("about:blank");
+            return true;
+        } catch (Exception e) {
+            System.err.println("Error resetting pooled driver, retiring it: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Chromium: cookies of every domain, and all storage types (IndexedDB, cache, service workers too) of the current origin
+    private static void clearBrowserWide(HasCdp cdp) {
+        cdp.executeCdpCommand("Network.clearBrowserCookies", Collections.emptyMap());
+        try {
+            Object origin = ((JavascriptExecutor) cdp).executeScript("return window.location.origin;");
+            if (origin instanceof String && ((String) origin).startsWith("http")) {
+                cdp.executeCdpCommand("Storage.clearDataForOrigin", Map.of("origin", origin, "storageTypes", "all"));
+            }
+        } catch (Exception ignored) {
+            // about:blank / data: pages have no storage - nothing to clear
+        }
+    }
+
+    private static void quitQuietly(WebDriver driver) {
+        try {
+            if (driver != null) driver.quit();
+        } catch (Exception e) {
+            System.err.println("Error quitting driver: " + e.getMessage());
+        }
+    }
+
+    // ---------------- POOLED SESSION ----------------
+
+    /** A WebDriver plus the bookkeeping the pool needs. */
+    public static final class PooledSession {
+        private final WebDriver driver;
+        private int uses;   // only touched by the thread that currently holds the session
+
+        PooledSession(WebDriver driver) {
+            this.driver = driver;
+        }
+
+        public WebDriver getDriver() {
+            return driver;
+        }
+
+        public int getUses() {
+            return uses;
+        }
+
+        int markUsed() {
+            return ++uses;
+        }
+    }
+}
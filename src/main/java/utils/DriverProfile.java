@@ -0,0 +1,217 @@
+package utils;
+
+import org.openqa.selenium.PageLoadStrategy;
+import org.openqa.selenium.chrome.ChromeOptions;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Named Chrome launch profiles, selected with driverProfile in global.properties (or -DdriverProfile).
+ *
+ * Built-in profiles:
+ *   default   visible browser, maximized (previous behaviour)
+ *   headless  headless=new, fixed 1920x1080 window, eager page load
+ *   ci        headless=new, 1366x768, no images/extensions, eager page load, per-session
+ *             user-data-dir, /dev/shm usage tuned to the container
+ *
+ * Any option of any profile can be overridden with driverProfile.<name>.<option>:
+ *   headless           true | false
+ *   windowSize         WIDTHxHEIGHT, or "maximize"
+ *   disableImages      true | false
+ *   disableExtensions  true | false
+ *   pageLoadStrategy   normal | eager | none
+ *   userDataDir        directory template; {tmp}, {run}, {session} are replaced, blank = Chrome default.
+ *                      Without {session} the directory is shared, which only works with driverPoolSize=1.
+ *                      A {session} directory of a local browser is deleted when that browser quits
+ *                      (retired by the pool, or the pool closing at JVM exit); others are kept.
+ *   devShm             auto (disable /dev/shm when it is smaller than 512 MB) | disable | default
+ */
+public final class DriverProfile {
+
+    private static final long MIN_DEV_SHM_BYTES = 512L * 1024 * 1024;
+    private static final String RUN_ID = Long.toString(System.currentTimeMillis(), 36);
+    private static final AtomicInteger SESSION_SEQ = new AtomicInteger();
+    private static final String USER_DATA_DIR_ARG = "--user-data-dir=";
+
+    private static final Map<String, Map<String, String>> BUILT_IN = new HashMap<>();
+
+    static {
+        Map<String, String> def = new HashMap<>();
+        def.put("headless", "false");
+        def.put("windowSize", "maximize");
+        def.put("disableImages", "false");
+        def.put("disableExtensions", "false");
+        def.put("pageLoadStrategy", "normal");
+        def.put("userDataDir", "");
+        def.put("devShm", "default");
+        BUILT_IN.put("default", def);
+
+        Map<String, String> headless = new HashMap<>(def);
+        headless.put("headless", "true");
+        headless.put("windowSize", "1920x1080");
+        headless.put("pageLoadStrategy", "eager");
+        BUILT_IN.put("headless", headless);
+
+        Map<String, String> ci = new HashMap<>(headless);
+        ci.put("windowSize", "1366x768");
+        ci.put("disableImages", "true");
+        ci.put("disableExtensions", "true");
+        ci.put("userDataDir", "{tmp}/chrome-profiles/{run}/{session}");
+        ci.put("devShm", "auto");
+        BUILT_IN.put("ci", ci);
+    }
+
+    private static volatile DriverProfile active;
+
+    private final String name;
+    private final Map<String, String> options;
+
+    private DriverProfile(String name, Map<String, String> options) {
+        this.name = name;
+        this.options = Collections.unmodifiableMap(options);
+    }
+
+    /** Profile selected by driverProfile (default "default"), resolved once per JVM. */
+    public static DriverProfile active() {
+        DriverProfile p = active;
+        if (p == null) {
+            synchronized (DriverProfile.class) {
+                p = active;
+                if (p == null) {
+                    p = byName(CommonUtils.getGlobalProperty("driverProfile", "default"));
+                    active = p;
+                }
+            }
+        }
+        return p;
+    }
+
+    public static DriverProfile byName(String profileName) {
+        String name = profileName.trim().toLowerCase(Locale.ROOT);
+        Map<String, String> base = BUILT_IN.get(name);
+        // unknown names start from "default" and must be described entirely by overrides
+        Map<String, String> opts = new HashMap<>(base != null ? base : BUILT_IN.get("default"));
+        for (String option : BUILT_IN.get("default").keySet()) {
+            String override = CommonUtils.getGlobalProperty("driverProfile." + name + "." + option, null);
+            if (override != null) opts.put(option, override);
+        }
+        return new DriverProfile(name, opts);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getOption(String option) {
+        return options.get(option);
+    }
+
+    /** True when the window should be maximized after start (no fixed window size). */
+    public boolean isMaximize() {
+        return "maximize".equalsIgnoreCase(options.get("windowSize").trim());
+    }
+
+    // ---------------- CHROME OPTIONS ----------------
+
+    public ChromeOptions toChromeOptions() {
+        ChromeOptions co = new ChromeOptions();
+
+        if (Boolean.parseBoolean(options.get("headless"))) {
+            co.addArguments("--headless=new");
+        }
+        if (!isMaximize()) {
+            String size = options.get("windowSize").trim().toLowerCase(Locale.ROOT);
+            if (!size.matches("\\d+x\\d+")) {
+                throw new IllegalArgumentException("driverProfile." + name + ".windowSize must be WIDTHxHEIGHT or maximize but was: " + size);
+            }
+            co.addArguments("--window-size=" + size.replace('x', ','));
+        }
+        if (Boolean.parseBoolean(options.get("disableImages"))) {
+            co.addArguments("--blink-settings=imagesEnabled=false");
+        }
+        if (Boolean.parseBoolean(options.get("disableExtensions"))) {
+            co.addArguments("--disable-extensions");
+        }
+        co.setPageLoadStrategy(pageLoadStrategy());
+
+        String userDataDir = options.get("userDataDir").trim();
+        if (!userDataDir.isEmpty()) {
+            co.addArguments(USER_DATA_DIR_ARG + resolveUserDataDir(userDataDir));
+        }
+        if (shouldDisableDevShm()) {
+            // Docker's default 64 MB /dev/shm makes Chrome tabs crash; use /tmp instead
+            co.addArguments("--disable-dev-shm-usage");
+        }
+        return co;
+    }
+
+    private PageLoadStrategy pageLoadStrategy() {
+        switch (options.get("pageLoadStrategy").trim().toLowerCase(Locale.ROOT)) {
+            case "normal": return PageLoadStrategy.NORMAL;
+            case "eager": return PageLoadStrategy.EAGER;
+            case "none": return PageLoadStrategy.NONE;
+            default:
+                throw new IllegalArgumentException("Unsupported pageLoadStrategy in profile " + name + ": " + options.get("pageLoadStrategy"));
+        }
+    }
+
+    /** The per-session user-data-dir these options launch with, or null unless the template contains {session}. */
+    public File sessionUserDataDir(ChromeOptions co) {
+        if (!options.get("userDataDir").contains("{session}")) return null;
+        Object chrome = co.asMap().get(ChromeOptions.CAPABILITY);
+        Object args = chrome instanceof Map ? ((Map<?, ?>) chrome).get("args") : null;
+        if (args instanceof List) {
+            for (Object arg : (List<?>) args) {
+                if (String.valueOf(arg).startsWith(USER_DATA_DIR_ARG)) {
+                    return new File(String.valueOf(arg).substring(USER_DATA_DIR_ARG.length()));
+                }
+            }
+        }
+        return null;
+    }
+
+    /** Delete a session's user-data-dir once its browser has quit; leftovers are logged, not thrown. */
+    public static void deleteUserDataDir(File dir) {
+        if (dir == null || !dir.exists()) return;
+        try (Stream<Path> paths = Files.walk(dir.toPath())) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            // {run} folder goes with its last session (File.delete leaves non-empty folders alone)
+            File parent = dir.getParentFile();
+            if (parent != null && parent.getName().equals(RUN_ID)) parent.delete();
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Unable to delete user-data-dir " + dir + ": " + e.getMessage());
+        }
+    }
+
+    private static String resolveUserDataDir(String template) {
+        return template
+                .replace("{tmp}", System.getProperty("java.io.tmpdir"))
+                .replace("{run}", RUN_ID)
+                .replace("{session}", Integer.toString(SESSION_SEQ.incrementAndGet()))
+                .replace('/', File.separatorChar);
+    }
+
+    private boolean shouldDisableDevShm() {
+        switch (options.get("devShm").trim().toLowerCase(Locale.ROOT)) {
+            case "disable":
+                return true;
+            case "auto":
+                File shm = new File("/dev/shm");
+                return shm.isDirectory() && shm.getTotalSpace() < MIN_DEV_SHM_BYTES;
+            default:
+                return false;
+        }
+    }
+}
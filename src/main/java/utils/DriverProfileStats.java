@@ -0,0 +1,109 @@
+package utils;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Browser startup time and memory per driver profile, so profiles can be compared on one machine.
+ *
+ * Memory is the resident set size (Linux /proc) of every process started under this JVM
+ * (chromedriver + Chrome), divided by the number of running chromedriver processes - i.e. the
+ * average footprint of one live session, sampled right after each start.
+ *
+ * Written at JVM exit to target/metrics/driver-profile-<name>.properties.
+ */
+public final class DriverProfileStats {
+
+    private static final LongAdder STARTS = new LongAdder();
+    private static final LongAdder STARTUP_MILLIS = new LongAdder();
+    private static final AtomicLong MAX_STARTUP_MILLIS = new AtomicLong();
+    private static final LongAdder RSS_SAMPLES = new LongAdder();
+    private static final LongAdder RSS_KB = new LongAdder();
+    private static final AtomicLong MAX_RSS_KB = new AtomicLong();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(DriverProfileStats::write, "driver-profile-stats"));
+    }
+
+    private DriverProfileStats() {}
+
+    static void recordStartup(long millis) {
+        STARTS.increment();
+        STARTUP_MILLIS.add(millis);
+        MAX_STARTUP_MILLIS.accumulateAndGet(millis, Math::max);
+
+        long perSession = sampleRssPerSessionKb();
+        if (perSession > 0) {
+            RSS_SAMPLES.increment();
+            RSS_KB.add(perSession);
+            MAX_RSS_KB.accumulateAndGet(perSession, Math::max);
+        }
+    }
+
+    // ---------------- RSS SAMPLING ----------------
+
+    private static long sampleRssPerSessionKb() {
+        if (!new File("/proc/self/status").isFile()) return -1;   // not Linux
+        long totalKb = 0;
+        int drivers = 0;
+        for (ProcessHandle ph : (Iterable<ProcessHandle>) ProcessHandle.current().descendants()::iterator) {
+            totalKb += rssKb(ph.pid());
+            if (ph.info().command().map(c -> c.endsWith("chromedriver") || c.endsWith("chromedriver.exe")).orElse(false)) {
+                drivers++;
+            }
+        }
+        return drivers == 0 ? -1 : totalKb / drivers;
+    }
+
+    private static long rssKb(long pid) {
+        Path status = Paths.get("/proc", Long.toString(pid), "status");
+        try (BufferedReader r = Files.newBufferedReader(status)) {
+            String line;
+            while ((line = r.readLine()) != null) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", ""));
+                }
+            }
+        } catch (IOException | NumberFormatException ignored) {
+            // process exited between listing and reading
+        }
+        return 0;
+    }
+
+    // ---------------- OUTPUT ----------------
+
+    private static void write() {
+        long starts = STARTS.sum();
+        if (starts == 0) return;
+
+        DriverProfile profile = DriverProfile.active();
+        Properties p = new Properties();
+        p.setProperty("profile", profile.getName());
+        p.setProperty("sessions.started", Long.toString(starts));
+        p.setProperty("startup.avg.ms", Long.toString(STARTUP_MILLIS.sum() / starts));
+        p.setProperty("startup.max.ms", Long.toString(MAX_STARTUP_MILLIS.get()));
+        long samples = RSS_SAMPLES.sum();
+        if (samples > 0) {
+            p.setProperty("rss.per.session.avg.mb", Long.toString(RSS_KB.sum() / samples / 1024));
+            p.setProperty("rss.per.session.max.mb", Long.toString(MAX_RSS_KB.get() / 1024));
+        }
+
+        File out = new File(System.getProperty("user.dir"), "target/metrics/driver-profile-" + profile.getName() + ".properties");
+        out.getParentFile().mkdirs();
+        try (OutputStream os = new FileOutputStream(out)) {
+            p.store(os, "WebDriver startup time and resident memory for profile " + profile.getName());
+        } catch (IOException e) {
+            System.err.println("Unable to write driver profile stats " + out + ": " + e.getMessage());
+        }
+        System.out.println("Driver profile '" + profile.getName() + "': " + p);
+    }
+}
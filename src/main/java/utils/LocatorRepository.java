@@ -0,0 +1,362 @@
+package utils;
+
+import org.openqa.selenium.By;
+
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Immutable registry of locators compiled once from objects/object.properties.
+ *
+ * Entry format:  key = type:value   (type is case-insensitive: xpath, id, name, classname, tagname,
+ *                                    linktext, partiallinktext, css)
+ * Parameterised: key = xpath://a[text()='${label}']   -> getLocator(key, "Logout")
+ * Wait timeout:  key.timeout = 20                     (seconds, used by SmartWait for this locator)
+ *
+ * Every malformed entry is reported together when the registry loads (Hooks' @BeforeAll calls
+ * {@link #validate}), so a typo fails the run up front instead of in the middle of a scenario; a
+ * failed load is kept and every later lookup throws the same IllegalStateException with the full
+ * list. Lookups are a single map read.
+ *
+ * XPath template arguments are inserted as XPath string literals: a quote inside a product name
+ * does not break a placeholder written as '${name}' or "${name}".
+ */
+public final class LocatorRepository {
+
+    private static final String RESOURCE_PATH = "objects/object.properties";
+    private static final String TIMEOUT_SUFFIX = ".timeout";
+
+    private final Map<String, Locator> locators;
+
+    private LocatorRepository(Map<String, Locator> locators) {
+        this.locators = Collections.unmodifiableMap(locators);
+    }
+
+    // Initialization-on-demand holder: built once, thread-safe, no locking on reads.
+    // A load failure is kept here too, so it never escapes as ExceptionInInitializerError.
+    private static final class Holder {
+        static final LocatorRepository INSTANCE;
+        static final RuntimeException FAILURE;
+
+        static {
+            LocatorRepository loaded = null;
+            RuntimeException failure = null;
+            try {
+                loaded = load(RESOURCE_PATH);
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+            INSTANCE = loaded;
+            FAILURE = failure;
+        }
+    }
+
+    public static LocatorRepository getInstance() {
+        if (Holder.FAILURE != null) {
+            throw new IllegalStateException(Holder.FAILURE.getMessage(), Holder.FAILURE);
+        }
+        return Holder.INSTANCE;
+    }
+
+    /** Load and validate objects/object.properties now (suite start); throws with every invalid entry. */
+    public static void validate() {
+        getInstance();
+    }
+
+    // ---------------- LOOKUP ----------------
+
+    /** Ready-made By for a plain (non-parameterised) locator. */
+    public By get(String key) {
+        Locator locator = find(key);
+        if (locator.isTemplate()) {
+            throw new IllegalArgumentException("Locator '" + key + "' needs parameters " + locator.template.names);
+        }
+        return locator.by;
+    }
+
+    /** By for a parameterised locator; args fill the ${} placeholders in order of first appearance. */
+    public By get(String key, Object... args) {
+        Locator locator = find(key);
+        if (!locator.isTemplate()) {
+            if (args == null || args.length == 0) return locator.by;
+            throw new IllegalArgumentException("Locator '" + key + "' takes no parameters");
+        }
+        return CommonUtils.returnByClass(locator.type, locator.template.render(args));
+    }
+
+    /** Locator value with ${} placeholders filled in (for JS-side resolution, see PageSnapshot). */
+    String resolveValue(String key, Object... args) {
+        Locator locator = find(key);
+        if (!locator.isTemplate()) {
+            if (args == null || args.length == 0) return locator.value;
+            throw new IllegalArgumentException("Locator '" + key + "' takes no parameters");
+        }
+        return locator.template.render(args);
+    }
+
+    public Locator getEntry(String key) {
+        return find(key);
+    }
+
+    public boolean contains(String key) {
+        return key != null && locators.containsKey(key);
+    }
+
+    public Map<String, Locator> getAll() {
+        return locators;
+    }
+
+    private Locator find(String key) {
+        Locator locator = key == null ? null : locators.get(key);
+        if (locator == null) {
+            throw new IllegalArgumentException("Invalid locator key: " + key);
+        }
+        return locator;
+    }
+
+    // ---------------- LOADING / VALIDATION ----------------
+
+    static LocatorRepository load(String resourcePath) {
+        Properties props;
+        try {
+            props = CommonUtils.loadPropertiesFileFromClasspath(resourcePath);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to load properties: " + resourcePath, e);
+        }
+
+        Map<String, Locator> compiled = new HashMap<>();
+        List<String> errors = new ArrayList<>();
+
+        // <key>.timeout entries attach a per-locator wait timeout to an existing locator
+        Map<String, Long> timeouts = new HashMap<>();
+        for (String key : props.stringPropertyNames()) {
+            if (!key.endsWith(TIMEOUT_SUFFIX)) continue;
+            String base = key.substring(0, key.length() - TIMEOUT_SUFFIX.length());
+            if (props.getProperty(base) == null) {
+                errors.add(key + ": no locator named '" + base + "'");
+                continue;
+            }
+            String raw = props.getProperty(key);
+            try {
+                double seconds = Double.parseDouble(raw.trim());
+                if (seconds <= 0) throw new NumberFormatException();
+                timeouts.put(base, Math.round(seconds * 1000));
+            } catch (NumberFormatException e) {
+                errors.add(key + ": timeout must be a positive number of seconds but was '" + raw + "'");
+            }
+        }
+
+        for (String key : props.stringPropertyNames()) {
+            if (key.endsWith(TIMEOUT_SUFFIX)) continue;
+            try {
+                compiled.put(key, compile(key, props.getProperty(key), timeouts.getOrDefault(key, -1L)));
+            } catch (IllegalArgumentException e) {
+                errors.add(e.getMessage());
+            }
+        }
+
+        if (!errors.isEmpty()) {
+            Collections.sort(errors);
+            throw new IllegalStateException("Invalid locator entries in " + resourcePath + ":\n  - "
+                    + String.join("\n  - ", errors));
+        }
+        return new LocatorRepository(compiled);
+    }
+
+    private static Locator compile(String key, String raw, long timeoutMillis) {
+        String locator = raw == null ? "" : raw.trim();
+        int sep = locator.indexOf(':');
+        if (sep <= 0) {
+            throw new IllegalArgumentException(key + ": expected 'type:value' but was '" + locator + "'");
+        }
+        String type = locator.substring(0, sep).trim().toLowerCase(Locale.ROOT);
+        String value = locator.substring(sep + 1).trim();
+        if (value.isEmpty()) {
+            throw new IllegalArgumentException(key + ": empty locator value");
+        }
+
+        boolean xpath = type.equals("xpath");
+        Template template = Template.compile(key, value, xpath);
+        if (xpath) {
+            // templates are checked with a dummy argument in every placeholder
+            validateXpath(key, template == null ? value : template.render(template.dummyArgs()));
+        }
+        By by;
+        try {
+            // for templates this only validates the type; their By is built per call from the rendered value
+            by = CommonUtils.returnByClass(type, value);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(key + ": " + e.getMessage());
+        }
+        return template != null
+                ? new Locator(key, type, value, null, template, timeoutMillis)
+                : new Locator(key, type, value, by, null, timeoutMillis);
+    }
+
+    // Browsers evaluate XPath 1.0, same as the JDK - catches unbalanced brackets/quotes at load time
+    private static void validateXpath(String key, String xpath) {
+        try {
+            XPathFactory.newInstance().newXPath().compile(xpath);
+        } catch (XPathExpressionException e) {
+            throw new IllegalArgumentException(key + ": invalid xpath '" + xpath + "'");
+        }
+    }
+
+    // ---------------- MODEL ----------------
+
+    /** One compiled object.properties entry. */
+    public static final class Locator {
+        private final String key;
+        private final String type;
+        private final String value;
+        private final By by;              // null for templates
+        private final Template template;  // null for plain locators
+        private final long timeoutMillis;  // -1 = SmartWait default
+
+        Locator(String key, String type, String value, By by, Template template, long timeoutMillis) {
+            this.key = key;
+            this.type = type;
+            this.value = value;
+            this.by = by;
+            this.template = template;
+            this.timeoutMillis = timeoutMillis;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        /** Normalized (lower-case) locator type, e.g. "xpath". */
+        public String getType() {
+            return type;
+        }
+
+        /** Raw locator value (may contain ${} placeholders). */
+        public String getValue() {
+            return value;
+        }
+
+        public boolean isTemplate() {
+            return template != null;
+        }
+
+        /** Per-locator wait timeout from "key.timeout", or -1 when the default applies. */
+        public long getTimeoutMillis() {
+            return timeoutMillis;
+        }
+    }
+
+    /** Locator value pre-split into literal and ${placeholder} segments. */
+    static final class Template {
+        private final String[] literals;   // literals.length == slots.length + 1
+        private final int[] slots;         // index into names for each placeholder occurrence
+        private final char[] quotes;       // xpath: quote around each placeholder occurrence, 0 = unquoted
+        private final List<String> names;
+        private final int literalLength;
+
+        private Template(String[] literals, int[] slots, char[] quotes, List<String> names) {
+            this.literals = literals;
+            this.slots = slots;
+            this.quotes = quotes;
+            this.names = names;
+            int len = 0;
+            for (String l : literals) len += l.length();
+            this.literalLength = len;
+        }
+
+        /** Returns null when the value has no placeholders; xpath = arguments are rendered as XPath string literals. */
+        static Template compile(String key, String value, boolean xpath) {
+            if (!value.contains("${")) return null;
+
+            List<String> literals = new ArrayList<>();
+            List<Integer> slots = new ArrayList<>();
+            Map<String, Integer> names = new LinkedHashMap<>();
+            int pos = 0;
+            while (true) {
+                int open = value.indexOf("${", pos);
+                if (open < 0) break;
+                int close = value.indexOf('}', open + 2);
+                if (close < 0) {
+                    throw new IllegalArgumentException(key + ": unterminated ${ in '" + value + "'");
+                }
+                String name = value.substring(open + 2, close).trim();
+                if (name.isEmpty()) {
+                    throw new IllegalArgumentException(key + ": empty ${} placeholder in '" + value + "'");
+                }
+                literals.add(value.substring(pos, open));
+                slots.add(names.computeIfAbsent(name, n -> names.size()));
+                pos = close + 1;
+            }
+            literals.add(value.substring(pos));
+
+            int[] slotArray = new int[slots.size()];
+            char[] quotes = new char[slots.size()];
+            for (int i = 0; i < slotArray.length; i++) {
+                slotArray[i] = slots.get(i);
+                if (xpath) quotes[i] = quoteAround(literals.get(i), literals.get(i + 1));
+            }
+            return new Template(literals.toArray(new String[0]), slotArray, quotes, new ArrayList<>(names.keySet()));
+        }
+
+        // '${name}' or "${name}": the quote the template wrapped the placeholder in
+        private static char quoteAround(String before, String after) {
+            if (before.isEmpty() || after.isEmpty()) return 0;
+            char q = before.charAt(before.length() - 1);
+            return (q == '\'' || q == '"') && after.charAt(0) == q ? q : 0;
+        }
+
+        Object[] dummyArgs() {
+            Object[] args = new Object[names.size()];
+            Arrays.fill(args, "x");
+            return args;
+        }
+
+        String render(Object... args) {
+            int given = args == null ? 0 : args.length;
+            if (given != names.size()) {
+                throw new IllegalArgumentException("Expected " + names.size() + " parameter(s) " + names
+                        + " but got " + given);
+            }
+            StringBuilder sb = new StringBuilder(literalLength + 16 * slots.length);
+            boolean dropQuote = false;   // previous argument was written with its own quotes
+            for (int i = 0; i < slots.length; i++) {
+                String literal = dropQuote ? literals[i].substring(1) : literals[i];
+                String arg = String.valueOf(args[slots[i]]);
+                dropQuote = quotes[i] != 0 && arg.indexOf(quotes[i]) >= 0;
+                if (dropQuote) {
+                    sb.append(literal, 0, literal.length() - 1).append(xpathLiteral(arg));
+                } else {
+                    sb.append(literal).append(arg);
+                }
+            }
+            String last = literals[slots.length];
+            return sb.append(dropQuote ? last.substring(1) : last).toString();
+        }
+
+        // XPath 1.0 has no escape character: quote with the other kind, or concat() when both occur
+        static String xpathLiteral(String s) {
+            if (s.indexOf('\'') < 0) return "'" + s + "'";
+            if (s.indexOf('"') < 0) return "\"" + s + "\"";
+            StringBuilder sb = new StringBuilder("concat(");
+            int start = 0;
+            for (int i = s.indexOf('\''); i >= 0; i = s.indexOf('\'', start)) {
+                if (i > start) sb.append('\'').append(s, start, i).append("', ");
+                sb.append("\"'\", ");
+                start = i + 1;
+            }
+            if (start < s.length()) sb.append('\'').append(s, start, s.length()).append("', ");
+            sb.setLength(sb.length() - 2);
+            return sb.append(')').toString();
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Low-overhead in-process metrics: fixed-bucket histograms backed by striped counters.
+ *
+ * Recording is a bucket search plus a few LongAdder increments, so it is safe to call from every
+ * WebDriver command on every thread. Output is written once at the end of the run as Prometheus
+ * text exposition format and/or JSON.
+ *
+ * Usage:
+ *   Metrics.histogram("webdriver_command_seconds", "command", "findElement").recordNanos(nanos);
+ *   Metrics.writePrometheus(new File("target/metrics/metrics.prom"));
+ *
+ * Per-thread accumulators ({@link #current()}) let the Cucumber metrics plugin attribute command,
+ * wait and screenshot time to the step / scenario running on that thread.
+ */
+public final class Metrics {
+
+    /** Seconds: 1 ms .. 5 min. */
+    public static final double[] TIME_BUCKETS = {0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5,
+            1, 2.5, 5, 10, 30, 60, 120, 300};
+    /** Plain counts (commands per step, etc.). */
+    public static final double[] COUNT_BUCKETS = {0, 1, 2, 5, 10, 20, 50, 100, 200, 500, 1000};
+
+    private static final ConcurrentMap<String, Histogram> HISTOGRAMS = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Accumulator> CURRENT = ThreadLocal.withInitial(Accumulator::new);
+
+    private Metrics() {}
+
+    // ---------------- REGISTRY ----------------
+
+    /** Time histogram (seconds) identified by name + label pairs, e.g. ("command", "get"). */
+    public static Histogram histogram(String name, String... labels) {
+        return histogram(name, TIME_BUCKETS, labels);
+    }
+
+    public static Histogram histogram(String name, double[] buckets, String... labels) {
+        String key = name + labelString(labels);
+        Histogram h = HISTOGRAMS.get(key);   // fast path without lambda allocation
+        return h != null ? h : HISTOGRAMS.computeIfAbsent(key, k -> new Histogram(name, labelString(labels), buckets));
+    }
+
+    private static String labelString(String... labels) {
+        if (labels == null || labels.length == 0) return "";
+        if (labels.length % 2 != 0) throw new IllegalArgumentException("labels must be name/value pairs");
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) sb.append(',');
+            sb.append(labels[i]).append("=\"").append(labels[i + 1].replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+        }
+        return sb.append('}').toString();
+    }
+
+    // ---------------- PER-THREAD ATTRIBUTION ----------------
+
+    /** Accumulator for the step/scenario currently running on this thread. */
+    public static Accumulator current() {
+        return CURRENT.get();
+    }
+
+    /** Counters the instrumented code adds to; the metrics plugin snapshots and resets them. */
+    public static final class Accumulator {
+        public long commands;
+        public long commandNanos;
+        public long waitNanos;
+        public long screenshotNanos;
+
+        public void reset() {
+            commands = 0;
+            commandNanos = 0;
+            waitNanos = 0;
+            screenshotNanos = 0;
+        }
+
+        public Accumulator copy() {
+            Accumulator a = new Accumulator();
+            a.commands = commands;
+            a.commandNanos = commandNanos;
+            a.waitNanos = waitNanos;
+            a.screenshotNanos = screenshotNanos;
+            return a;
+        }
+    }
+
+    // ---------------- OUTPUT ----------------
+
+    public static void writePrometheus(File out) throws IOException {
+        mkdirs(out);
+        Map<String, List<Histogram>> byName = grouped();
+        try (PrintWriter pw = new PrintWriter(out, StandardCharsets.UTF_8.name())) {
+            for (Map.Entry<String, List<Histogram>> e : byName.entrySet()) {
+                pw.println("# TYPE " + e.getKey() + " histogram");
+                for (Histogram h : e.getValue()) h.writePrometheus(pw);
+            }
+        }
+    }
+
+    public static void writeJson(File out) throws IOException {
+        mkdirs(out);
+        Map<String, Object> root = new LinkedHashMap<>();
+        for (Map.Entry<String, List<Histogram>> e : grouped().entrySet()) {
+            List<Object> series = new ArrayList<>();
+            for (Histogram h : e.getValue()) series.add(h.toMap());
+            root.put(e.getKey(), series);
+        }
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(out, root);
+    }
+
+    private static Map<String, List<Histogram>> grouped() {
+        Map<String, List<Histogram>> byName = new TreeMap<>();
+        for (Histogram h : HISTOGRAMS.values()) {
+            byName.computeIfAbsent(h.name, n -> new ArrayList<>()).add(h);
+        }
+        byName.values().forEach(l -> l.sort((a, b) -> a.labels.compareTo(b.labels)));
+        return byName;
+    }
+
+    private static void mkdirs(File out) {
+        File dir = out.getAbsoluteFile().getParentFile();
+        if (dir != null && !dir.exists()) dir.mkdirs();
+    }
+
+    // ---------------- HISTOGRAM ----------------
+
+    public static final class Histogram {
+        private final String name;
+        private final String labels;
+        private final double[] bounds;
+        private final LongAdder[] buckets;   // buckets[i] counts values <= bounds[i]; last = +Inf
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sumMicros = new LongAdder();
+        private final AtomicLong maxMicros = new AtomicLong();
+
+        Histogram(String name, String labels, double[] bounds) {
+            this.name = name;
+            this.labels = labels;
+            this.bounds = bounds;
+            this.buckets = new LongAdder[bounds.length + 1];
+            for (int i = 0; i < buckets.length; i++) buckets[i] = new LongAdder();
+        }
+
+        public void recordNanos(long nanos) {
+            record(nanos / 1e9);
+        }
+
+        public void record(double value) {
+            int i = Arrays.binarySearch(bounds, value);
+            buckets[i >= 0 ? i : -i - 1].increment();
+            count.increment();
+            long micros = Math.round(value * 1_000_000);
+            sumMicros.add(micros);
+            maxMicros.accumulateAndGet(micros, Math::max);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public double getSum() {
+            return sumMicros.sum() / 1e6;
+        }
+
+        void writePrometheus(PrintWriter pw) {
+            String inner = labels.isEmpty() ? "" : labels.substring(1, labels.length() - 1) + ",";
+            long cumulative = 0;
+            for (int i = 0; i < bounds.length; i++) {
+                cumulative += buckets[i].sum();
+                pw.println(name + "_bucket{" + inner + "le=\"" + bounds[i] + "\"} " + cumulative);
+            }
+            cumulative += buckets[bounds.length].sum();
+            pw.println(name + "_bucket{" + inner + "le=\"+Inf\"} " + cumulative);
+            pw.println(name + "_sum" + labels + " " + getSum());
+            pw.println(name + "_count" + labels + " " + getCount());
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("labels", labels);
+            m.put("count", getCount());
+            m.put("sum", getSum());
+            m.put("max", maxMicros.get() / 1e6);
+            Map<String, Long> b = new LinkedHashMap<>();
+            for (int i = 0; i < bounds.length; i++) b.put(Double.toString(bounds[i]), buckets[i].sum());
+            b.put("+Inf", buckets[bounds.length].sum());
+            m.put("buckets", b);
+            return m;
+        }
+    }
+}
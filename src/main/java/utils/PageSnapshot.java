@@ -0,0 +1,278 @@
+package utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebDriver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads text, attributes and state of many locator-repository elements in ONE WebDriver round-trip.
+ *
+ * Locators are resolved inside the browser (same semantics as the By types in object.properties)
+ * and every match is read by a single executeScript call, instead of findElement + getText/
+ * getAttribute/isDisplayed per value. The result is an immutable, typed snapshot: reading it does
+ * not touch the browser again.
+ *
+ * The snapshot does not wait; take it once the page is ready (e.g. after SmartWait.visible on one
+ * anchor element).
+ *
+ * Usage:
+ *   PageSnapshot page = PageSnapshot.capture("loginPageHeader", "loginUserName", "loginPassword");
+ *   page.getText("loginPageHeader");
+ *   page.get("loginUserName").getAttribute("placeholder");
+ *
+ *   PageSnapshot items = PageSnapshot.builder()
+ *           .add("itemNames", "inventoryItemName")            // all matches of a plain locator
+ *           .add("backpack", "inventoryItemByName", "Sauce Labs Backpack")   // ${} template
+ *           .capture();
+ *   items.getTexts("itemNames");
+ */
+public final class PageSnapshot {
+
+    // specs: [[name, type, value], ...] -> { name: [element, ...] | { error: msg } }
+    private static final String SCRIPT =
+            "var specs = arguments[0], out = {};\n"
+            + "function toArray(list) { return Array.prototype.slice.call(list); }\n"
+            + "function find(type, value) {\n"
+            + "  switch (type) {\n"
+            + "    case 'id': return toArray(document.querySelectorAll('#' + CSS.escape(value)));\n"
+            + "    case 'name': return toArray(document.getElementsByName(value));\n"
+            + "    case 'classname': return toArray(document.getElementsByClassName(value));\n"
+            + "    case 'tagname': return toArray(document.getElementsByTagName(value));\n"
+            + "    case 'css': return toArray(document.querySelectorAll(value));\n"
+            + "    case 'linktext': return toArray(document.getElementsByTagName('a'))"
+            + ".filter(function (a) { return (a.innerText || '').trim() === value; });\n"
+            + "    case 'partiallinktext': return toArray(document.getElementsByTagName('a'))"
+            + ".filter(function (a) { return (a.innerText || '').indexOf(value) >= 0; });\n"
+            + "    case 'xpath':\n"
+            + "      var r = document.evaluate(value, document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null), els = [];\n"
+            + "      for (var i = 0; i < r.snapshotLength; i++) { if (r.snapshotItem(i).nodeType === 1) els.push(r.snapshotItem(i)); }\n"
+            + "      return els;\n"
+            + "    default: throw new Error('Unsupported locator type: ' + type);\n"
+            + "  }\n"
+            + "}\n"
+            + "function read(el) {\n"
+            + "  var style = window.getComputedStyle(el), rect = el.getBoundingClientRect();\n"
+            + "  var displayed = style.display !== 'none' && style.visibility !== 'hidden' && style.opacity !== '0'"
+            + " && (rect.width > 0 || rect.height > 0);\n"
+            + "  var attrs = {};\n"
+            + "  for (var i = 0; i < el.attributes.length; i++) { attrs[el.attributes[i].name] = el.attributes[i].value; }\n"
+            + "  return { tag: el.tagName.toLowerCase(), text: displayed ? (el.innerText || '').trim() : '',\n"
+            + "    textContent: (el.textContent || '').trim(), displayed: displayed, enabled: !el.disabled,\n"
+            + "    selected: !!(el.checked || el.selected), value: el.value === undefined ? null : String(el.value),\n"
+            + "    attributes: attrs };\n"
+            + "}\n"
+            + "specs.forEach(function (s) {\n"
+            + "  try { out[s[0]] = find(s[1], s[2]).map(read); } catch (e) { out[s[0]] = { error: String(e.message || e) }; }\n"
+            + "});\n"
+            + "return out;";
+
+    private final Map<String, List<ElementSnapshot>> elements;
+    private final Map<String, String> errors;
+
+    private PageSnapshot(Map<String, List<ElementSnapshot>> elements, Map<String, String> errors) {
+        this.elements = elements;
+        this.errors = errors;
+    }
+
+    // ---------------- CAPTURE ----------------
+
+    /** Snapshot of plain locator keys, each stored under its own key. */
+    public static PageSnapshot capture(String... locatorKeys) {
+        Builder builder = builder();
+        for (String key : locatorKeys) builder.add(key);
+        return builder.capture();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private final Map<String, List<String>> specs = new LinkedHashMap<>();
+
+        private Builder() {}
+
+        /** Plain locator, stored under its key. */
+        public Builder add(String locatorKey) {
+            return add(locatorKey, locatorKey);
+        }
+
+        /** Locator (plain or ${} template with params), stored under {@code name}. */
+        public Builder add(String name, String locatorKey, Object... params) {
+            LocatorRepository repo = LocatorRepository.getInstance();
+            String type = repo.getEntry(locatorKey).getType();
+            specs.put(name, Arrays.asList(name, type, repo.resolveValue(locatorKey, params)));
+            return this;
+        }
+
+        /** Read all added locators with the current thread's driver in one executeScript call. */
+        public PageSnapshot capture() {
+            WebDriver driver = BaseTest.getDriver();
+            if (driver == null) {
+                throw new IllegalStateException("WebDriver not initialized. Make sure Hooks.beforeScenario called BaseTest.initDriver().");
+            }
+            return capture(driver);
+        }
+
+        public PageSnapshot capture(WebDriver driver) {
+            if (!(driver instanceof JavascriptExecutor)) {
+                throw new IllegalStateException("PageSnapshot needs a JavascriptExecutor driver");
+            }
+            Object raw = ((JavascriptExecutor) driver).executeScript(SCRIPT, new ArrayList<>(specs.values()));
+            return parse(raw, specs.keySet());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static PageSnapshot parse(Object raw, Iterable<String> names) {
+        Map<String, Object> result = raw instanceof Map ? (Map<String, Object>) raw : Collections.emptyMap();
+        Map<String, List<ElementSnapshot>> elements = new LinkedHashMap<>();
+        Map<String, String> errors = new LinkedHashMap<>();
+
+        for (String name : names) {
+            Object value = result.get(name);
+            if (value instanceof Map) {
+                errors.put(name, String.valueOf(((Map<String, Object>) value).get("error")));
+                elements.put(name, Collections.emptyList());
+            } else if (value instanceof List) {
+                List<ElementSnapshot> list = new ArrayList<>();
+                for (Object el : (List<Object>) value) list.add(new ElementSnapshot((Map<String, Object>) el));
+                elements.put(name, Collections.unmodifiableList(list));
+            } else {
+                elements.put(name, Collections.emptyList());
+            }
+        }
+        return new PageSnapshot(Collections.unmodifiableMap(elements), Collections.unmodifiableMap(errors));
+    }
+
+    // ---------------- READ ----------------
+
+    /** First match for {@code name}; throws NoSuchElementException when nothing matched. */
+    public ElementSnapshot get(String name) {
+        List<ElementSnapshot> all = getAll(name);
+        if (all.isEmpty()) {
+            throw new NoSuchElementException("No element in snapshot for '" + name + "'");
+        }
+        return all.get(0);
+    }
+
+    /** All matches for {@code name}, in document order. */
+    public List<ElementSnapshot> getAll(String name) {
+        List<ElementSnapshot> all = elements.get(name);
+        if (all == null) {
+            throw new IllegalArgumentException("'" + name + "' was not part of this snapshot");
+        }
+        String error = errors.get(name);
+        if (error != null) {
+            throw new IllegalStateException("Locator '" + name + "' could not be resolved: " + error);
+        }
+        return all;
+    }
+
+    public boolean isPresent(String name) {
+        return !getAll(name).isEmpty();
+    }
+
+    public int count(String name) {
+        return getAll(name).size();
+    }
+
+    /** Visible text of the first match (like WebElement.getText). */
+    public String getText(String name) {
+        return get(name).getText();
+    }
+
+    /** Visible text of every match. */
+    public List<String> getTexts(String name) {
+        List<String> texts = new ArrayList<>();
+        for (ElementSnapshot el : getAll(name)) texts.add(el.getText());
+        return texts;
+    }
+
+    public Map<String, List<ElementSnapshot>> asMap() {
+        return elements;
+    }
+
+    // ---------------- ELEMENT ----------------
+
+    /** State of one element at capture time. */
+    public static final class ElementSnapshot {
+        private final String tag;
+        private final String text;
+        private final String textContent;
+        private final boolean displayed;
+        private final boolean enabled;
+        private final boolean selected;
+        private final String value;
+        private final Map<String, String> attributes;
+
+        @SuppressWarnings("unchecked")
+        ElementSnapshot(Map<String, Object> raw) {
+            this.tag = (String) raw.get("tag");
+            this.text = (String) raw.get("text");
+            this.textContent = (String) raw.get("textContent");
+            this.displayed = Boolean.TRUE.equals(raw.get("displayed"));
+            this.enabled = Boolean.TRUE.equals(raw.get("enabled"));
+            this.selected = Boolean.TRUE.equals(raw.get("selected"));
+            this.value = (String) raw.get("value");
+            Map<String, String> attrs = new LinkedHashMap<>();
+            Object rawAttrs = raw.get("attributes");
+            if (rawAttrs instanceof Map) {
+                ((Map<String, Object>) rawAttrs).forEach((k, v) -> attrs.put(k, String.valueOf(v)));
+            }
+            this.attributes = Collections.unmodifiableMap(attrs);
+        }
+
+        public String getTag() {
+            return tag;
+        }
+
+        /** Rendered text; empty for hidden elements, as with WebElement.getText(). */
+        public String getText() {
+            return text;
+        }
+
+        /** DOM text regardless of visibility. */
+        public String getTextContent() {
+            return textContent;
+        }
+
+        public boolean isDisplayed() {
+            return displayed;
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public boolean isSelected() {
+            return selected;
+        }
+
+        /** Current value property of form fields, null for other elements. */
+        public String getValue() {
+            return value;
+        }
+
+        /** HTML attribute as written in the DOM, or null. */
+        public String getAttribute(String name) {
+            return attributes.get(name);
+        }
+
+        public Map<String, String> getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public String toString() {
+            return "<" + tag + "> '" + text + "'" + (displayed ? "" : " (hidden)");
+        }
+    }
+}
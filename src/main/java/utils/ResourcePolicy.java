@@ -0,0 +1,297 @@
+package utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.devtools.NetworkInterceptor;
+import org.openqa.selenium.remote.http.Contents;
+import org.openqa.selenium.remote.http.HttpHandler;
+import org.openqa.selenium.remote.http.HttpResponse;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Network-level resource policy applied to every browser session created by BaseTest.
+ *
+ * - Blocking: URL patterns (and resource types, mapped to file extensions) are handed to Chrome via
+ *   the CDP command Network.setBlockedURLs, so blocked requests never leave the browser and cost
+ *   no extra round-trip.
+ * - Stubbing: requests matching a stub rule are answered from a classpath fixture through a
+ *   DevTools NetworkInterceptor. Only installed when stubs are configured, because interception
+ *   pauses every request.
+ * - Timing: after each navigation the Navigation Timing entry is read and recorded in the
+ *   "page_load_seconds" / "page_resources" histograms; {@link #lastNavigation()} exposes it to steps.
+ *
+ * Drivers without CDP support (remote/stub sessions) just skip blocking and stubbing.
+ *
+ * Settings (global.properties or -D system properties):
+ *   resourceBlockPatterns  comma-separated URL patterns, * = wildcard (e.g. *googletagmanager.com*)
+ *   resourceBlockTypes     comma-separated: image, font, media, stylesheet
+ *   resourceStubs          comma-separated pattern=>classpath-fixture, e.g. *analytics.example.com/tag.js=>stubs/empty.js
+ *   navigationTiming       record page-load timing per navigation (default true)
+ */
+public final class ResourcePolicy {
+
+    private static final Map<String, List<String>> TYPE_PATTERNS = new HashMap<>();
+
+    static {
+        TYPE_PATTERNS.put("image", List.of("*.png", "*.jpg", "*.jpeg", "*.gif", "*.webp", "*.svg", "*.ico"));
+        TYPE_PATTERNS.put("font", List.of("*.woff", "*.woff2", "*.ttf", "*.otf", "*.eot"));
+        TYPE_PATTERNS.put("media", List.of("*.mp4", "*.webm", "*.ogg", "*.mp3", "*.wav"));
+        TYPE_PATTERNS.put("stylesheet", List.of("*.css"));
+    }
+
+    private static final String TIMING_SCRIPT =
+            "var n = performance.getEntriesByType('navigation')[0];"
+            + "if (!n) return null;"
+            + "return [n.responseStart, n.domContentLoadedEventEnd, n.loadEventEnd,"
+            + " performance.getEntriesByType('resource').length];";
+
+    private static final ThreadLocal<NavigationTiming> LAST_NAVIGATION = new ThreadLocal<>();
+    private static final AtomicLong STUBBED = new AtomicLong();
+
+    private final List<String> blockPatterns;
+    private final List<StubRule> stubs;
+    private final boolean navigationTiming;
+
+    private ResourcePolicy(List<String> blockPatterns, List<StubRule> stubs, boolean navigationTiming) {
+        this.blockPatterns = Collections.unmodifiableList(blockPatterns);
+        this.stubs = Collections.unmodifiableList(stubs);
+        this.navigationTiming = navigationTiming;
+    }
+
+    // ---------------- CONFIG ----------------
+
+    private static final class Holder {
+        static final ResourcePolicy INSTANCE = fromConfig();
+    }
+
+    public static ResourcePolicy active() {
+        return Holder.INSTANCE;
+    }
+
+    private static ResourcePolicy fromConfig() {
+        Set<String> block = new LinkedHashSet<>(split(CommonUtils.getGlobalProperty("resourceBlockPatterns", "")));
+        for (String type : split(CommonUtils.getGlobalProperty("resourceBlockTypes", ""))) {
+            List<String> patterns = TYPE_PATTERNS.get(type.toLowerCase(Locale.ROOT));
+            if (patterns == null) {
+                throw new IllegalArgumentException("Unknown resourceBlockTypes entry '" + type + "', expected one of " + TYPE_PATTERNS.keySet());
+            }
+            block.addAll(patterns);
+        }
+
+        List<StubRule> stubs = new ArrayList<>();
+        for (String rule : split(CommonUtils.getGlobalProperty("resourceStubs", ""))) {
+            int sep = rule.indexOf("=>");
+            if (sep <= 0) {
+                throw new IllegalArgumentException("resourceStubs entry must be pattern=>fixture: " + rule);
+            }
+            stubs.add(new StubRule(rule.substring(0, sep).trim(), rule.substring(sep + 2).trim()));
+        }
+        return new ResourcePolicy(new ArrayList<>(block), stubs,
+                CommonUtils.getGlobalBooleanProperty("navigationTiming", true));
+    }
+
+    private static List<String> split(String value) {
+        List<String> out = new ArrayList<>();
+        for (String s : value.split(",")) {
+            if (!s.trim().isEmpty()) out.add(s.trim());
+        }
+        return out;
+    }
+
+    public List<String> getBlockPatterns() {
+        return blockPatterns;
+    }
+
+    public boolean isNavigationTiming() {
+        return navigationTiming;
+    }
+
+    // ---------------- APPLY ----------------
+
+    /** Install blocking and stubbing on a freshly created, undecorated driver. */
+    public void applyTo(WebDriver driver) {
+        if (!blockPatterns.isEmpty()) {
+            if (driver instanceof HasCdp) {
+                HasCdp cdp = (HasCdp) driver;
+                cdp.executeCdpCommand("Network.enable", Collections.emptyMap());
+                cdp.executeCdpCommand("Network.setBlockedURLs", Map.of("urls", blockPatterns));
+            } else {
+                System.err.println("Resource blocking skipped: driver has no CDP support (" + driver.getClass().getSimpleName() + ")");
+            }
+        }
+        if (!stubs.isEmpty()) {
+            if (driver instanceof HasDevTools) {
+                // lives as long as the session's DevTools connection
+                new NetworkInterceptor(driver, (HttpHandler) request -> {
+                    for (StubRule stub : stubs) {
+                        if (stub.matches(request.getUri())) {
+                            STUBBED.incrementAndGet();
+                            return stub.response();
+                        }
+                    }
+                    return NetworkInterceptor.PROCEED_WITH_REQUEST;
+                });
+            } else {
+                System.err.println("Resource stubs skipped: driver has no DevTools support (" + driver.getClass().getSimpleName() + ")");
+            }
+        }
+    }
+
+    /** Listener for EventFiringDecorator that records Navigation Timing after every get(). */
+    public WebDriverListener navigationListener() {
+        return new NavigationListener();
+    }
+
+    // public: EventFiringDecorator calls listener methods reflectively
+    public static final class NavigationListener implements WebDriverListener {
+        @Override
+        public void afterGet(WebDriver driver, String url) {
+            recordNavigation(driver, url);
+        }
+    }
+
+    // ---------------- TIMING ----------------
+
+    /** Timing of the last navigation made on this thread, or null. */
+    public static NavigationTiming lastNavigation() {
+        return LAST_NAVIGATION.get();
+    }
+
+    public static long getStubbedCount() {
+        return STUBBED.get();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void recordNavigation(WebDriver driver, String url) {
+        if (url == null || url.startsWith("about:") || url.startsWith("data:") || !(driver instanceof JavascriptExecutor)) return;
+        try {
+            Object raw = ((JavascriptExecutor) driver).executeScript(TIMING_SCRIPT);
+            if (!(raw instanceof List)) return;
+            List<Object> values = (List<Object>) raw;
+            NavigationTiming timing = new NavigationTiming(url, millis(values.get(0)), millis(values.get(1)),
+                    millis(values.get(2)), ((Number) values.get(3)).intValue());
+            LAST_NAVIGATION.set(timing);
+
+            if (timing.ttfbMillis >= 0) Metrics.histogram("page_load_seconds", "phase", "ttfb").record(timing.ttfbMillis / 1000.0);
+            if (timing.domContentLoadedMillis >= 0) Metrics.histogram("page_load_seconds", "phase", "dom_content_loaded").record(timing.domContentLoadedMillis / 1000.0);
+            if (timing.loadMillis >= 0) Metrics.histogram("page_load_seconds", "phase", "load").record(timing.loadMillis / 1000.0);
+            Metrics.histogram("page_resources", Metrics.COUNT_BUCKETS).record(timing.resources);
+        } catch (Exception e) {
+            System.err.println("Navigation timing unavailable for " + url + ": " + e.getMessage());
+        }
+    }
+
+    // 0 means "not reached yet" (e.g. eager page load returned before the load event)
+    private static long millis(Object value) {
+        double v = value instanceof Number ? ((Number) value).doubleValue() : 0;
+        return v > 0 ? Math.round(v) : -1;
+    }
+
+    /** Navigation Timing of one page load, in millis since navigation start (-1 = not reached). */
+    public static final class NavigationTiming {
+        private final String url;
+        private final long ttfbMillis;
+        private final long domContentLoadedMillis;
+        private final long loadMillis;
+        private final int resources;
+
+        NavigationTiming(String url, long ttfbMillis, long domContentLoadedMillis, long loadMillis, int resources) {
+            this.url = url;
+            this.ttfbMillis = ttfbMillis;
+            this.domContentLoadedMillis = domContentLoadedMillis;
+            this.loadMillis = loadMillis;
+            this.resources = resources;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public long getTtfbMillis() {
+            return ttfbMillis;
+        }
+
+        public long getDomContentLoadedMillis() {
+            return domContentLoadedMillis;
+        }
+
+        public long getLoadMillis() {
+            return loadMillis;
+        }
+
+        public int getResources() {
+            return resources;
+        }
+
+        @Override
+        public String toString() {
+            return url + ": ttfb=" + ttfbMillis + "ms, DOMContentLoaded=" + domContentLoadedMillis
+                    + "ms, load=" + loadMillis + "ms, resources=" + resources;
+        }
+    }
+
+    // ---------------- STUBS ----------------
+
+    private static final class StubRule {
+        private final Pattern pattern;
+        private final String fixture;
+        private volatile byte[] body;   // loaded on first match
+
+        StubRule(String glob, String fixture) {
+            this.pattern = Pattern.compile(("\\Q" + glob + "\\E").replace("*", "\\E.*\\Q"));
+            this.fixture = fixture;
+        }
+
+        boolean matches(String url) {
+            return pattern.matcher(url).matches();
+        }
+
+        HttpResponse response() {
+            return new HttpResponse()
+                    .setStatus(200)
+                    .addHeader("Content-Type", contentType(fixture))
+                    .addHeader("Access-Control-Allow-Origin", "*")
+                    .setContent(Contents.bytes(body()));
+        }
+
+        private byte[] body() {
+            byte[] b = body;
+            if (b == null) {
+                try (InputStream in = ResourcePolicy.class.getClassLoader().getResourceAsStream(fixture)) {
+                    if (in == null) throw new IllegalStateException("Stub fixture not found on classpath: " + fixture);
+                    b = in.readAllBytes();
+                } catch (IOException e) {
+                    throw new IllegalStateException("Unable to read stub fixture " + fixture, e);
+                }
+                body = b;
+            }
+            return b;
+        }
+
+        private static String contentType(String name) {
+            String n = name.toLowerCase(Locale.ROOT);
+            if (n.endsWith(".js")) return "application/javascript";
+            if (n.endsWith(".json")) return "application/json";
+            if (n.endsWith(".css")) return "text/css";
+            if (n.endsWith(".html")) return "text/html; charset=utf-8";
+            if (n.endsWith(".png")) return "image/png";
+            if (n.endsWith(".svg")) return "image/svg+xml";
+            return "application/octet-stream";
+        }
+    }
+}
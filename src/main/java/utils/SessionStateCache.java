@@ -0,0 +1,241 @@
+package utils;
+
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * Logged-in browser state (cookies + localStorage + sessionStorage) captured once after a UI login
+ * and injected into later sessions, so scenarios that only need "a logged-in user" skip the login form.
+ *
+ * Entries are keyed by role + a hash of the credentials (never the plain password) and, with
+ * sessionCacheScope=worker, the worker thread. While one worker logs in for a key, other workers
+ * needing the same key wait and then reuse its state, so each role logs in once.
+ *
+ * Injection happens before the first navigation to the site: cookies through the CDP command
+ * Network.setCookie and storage through a one-shot Page.addScriptToEvaluateOnNewDocument, which is
+ * removed again when the driver goes back to the pool ({@link #detach(WebDriver)}). Drivers
+ * without CDP get the same state by opening the site origin once and writing it directly.
+ *
+ * An entry expires after sessionCacheTtlMinutes or as soon as one of its cookies expires, and is
+ * dropped when a restored session turns out not to be logged in.
+ *
+ * Settings (global.properties or -D system properties):
+ *   sessionCacheEnabled      false = always log in through the UI (default true)
+ *   sessionCacheScope        role (shared by all workers) | worker (per thread) (default role)
+ *   sessionCacheTtlMinutes   max age of a captured state (default 30)
+ */
+public final class SessionStateCache {
+
+    private static final boolean ENABLED = CommonUtils.getGlobalBooleanProperty("sessionCacheEnabled", true);
+    private static final boolean PER_WORKER = "worker".equalsIgnoreCase(CommonUtils.getGlobalProperty("sessionCacheScope", "role").trim());
+    private static final long TTL_MILLIS = CommonUtils.getGlobalIntProperty("sessionCacheTtlMinutes", 30) * 60_000L;
+
+    private static final ConcurrentMap<String, SessionState> CACHE = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, ReentrantLock> LOCKS = new ConcurrentHashMap<>();
+
+    // Page.addScriptToEvaluateOnNewDocument ids installed per driver, removed on detach
+    private static final ConcurrentMap<WebDriver, List<String>> INJECTED_SCRIPTS = new ConcurrentHashMap<>();
+
+    private SessionStateCache() {}
+
+    // ---------------- LOGIN ----------------
+
+    /** Cache key for a role and its credentials. */
+    public static String key(String role, String username, String password) {
+        String key = role + ":" + sha256(username + "\u0000" + password);
+        return PER_WORKER ? key + "@" + Thread.currentThread().getName() : key;
+    }
+
+    /**
+     * Log the current thread's driver in, from cache when possible.
+     *
+     * @param key        from {@link #key(String, String, String)}
+     * @param landingUrl page to open after restoring (e.g. the inventory page)
+     * @param isLoggedIn check run after opening landingUrl with restored state
+     * @param uiLogin    full UI login, ending on a logged-in page; its state is captured afterwards
+     * @return true when the session was restored, false when uiLogin ran
+     */
+    public static boolean login(String key, String landingUrl, Predicate<WebDriver> isLoggedIn, Runnable uiLogin) {
+        WebDriver driver = BaseTest.getDriver();
+        if (driver == null) {
+            throw new IllegalStateException("WebDriver not initialized. Make sure Hooks.beforeScenario called BaseTest.initDriver().");
+        }
+        if (!ENABLED) {
+            uiLogin.run();
+            return false;
+        }
+
+        ReentrantLock lock = LOCKS.computeIfAbsent(key, k -> new ReentrantLock());
+        lock.lock();   // first worker logs in, the others wait for its state
+        try {
+            SessionState state = CACHE.get(key);
+            if (state != null && state.isFresh()) {
+                inject(driver, state);
+                driver.get(landingUrl);
+                if (isLoggedIn.test(driver)) {
+                    return true;
+                }
+                System.err.println("Cached session for " + key + " was rejected, logging in again");
+            }
+            CACHE.remove(key);
+
+            uiLogin.run();
+            CACHE.put(key, capture(driver));
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static void invalidate(String key) {
+        CACHE.remove(key);
+    }
+
+    public static void invalidateAll() {
+        CACHE.clear();
+    }
+
+    /** Remove injected storage scripts before the driver is reused (called by BaseTest on release). */
+    public static void detach(WebDriver driver) {
+        List<String> ids = INJECTED_SCRIPTS.remove(driver);
+        if (ids == null || !(driver instanceof HasCdp)) return;
+        for (String id : ids) {
+            try {
+                ((HasCdp) driver).executeCdpCommand("Page.removeScriptToEvaluateOnNewDocument", Map.of("identifier", id));
+            } catch (Exception e) {
+                System.err.println("Unable to remove session restore script: " + e.getMessage());
+            }
+        }
+    }
+
+    // ---------------- CAPTURE / INJECT ----------------
+
+    @SuppressWarnings("unchecked")
+    private static SessionState capture(WebDriver driver) {
+        URI uri = URI.create(driver.getCurrentUrl());
+        String origin = uri.getScheme() + "://" + uri.getAuthority();
+        Map<String, String> local = Collections.emptyMap();
+        Map<String, String> session = Collections.emptyMap();
+        if (driver instanceof JavascriptExecutor) {
+            Object raw = ((JavascriptExecutor) driver).executeScript(
+                    "function dump(s) { var o = {}; for (var i = 0; i < s.length; i++) { var k = s.key(i); o[k] = s.getItem(k); } return o; }"
+                            + "return [dump(window.localStorage), dump(window.sessionStorage)];");
+            List<Map<String, String>> storages = (List<Map<String, String>>) raw;
+            local = new HashMap<>(storages.get(0));
+            session = new HashMap<>(storages.get(1));
+        }
+        return new SessionState(origin, new ArrayList<>(driver.manage().getCookies()), local, session);
+    }
+
+    private static void inject(WebDriver driver, SessionState state) {
+        if (driver instanceof HasCdp) {
+            HasCdp cdp = (HasCdp) driver;
+            for (Cookie c : state.cookies) {
+                Map<String, Object> params = new HashMap<>();
+                params.put("url", state.origin);
+                params.put("name", c.getName());
+                params.put("value", c.getValue());
+                params.put("path", c.getPath() == null ? "/" : c.getPath());
+                if (c.getDomain() != null) params.put("domain", c.getDomain());
+                params.put("secure", c.isSecure());
+                params.put("httpOnly", c.isHttpOnly());
+                if (c.getExpiry() != null) params.put("expires", c.getExpiry().getTime() / 1000.0);
+                if (c.getSameSite() != null) params.put("sameSite", c.getSameSite());
+                cdp.executeCdpCommand("Network.setCookie", params);
+            }
+            if (!state.localStorage.isEmpty() || !state.sessionStorage.isEmpty()) {
+                Map<String, Object> result = cdp.executeCdpCommand("Page.addScriptToEvaluateOnNewDocument",
+                        Map.of("source", storageScript(state, true)));
+                INJECTED_SCRIPTS.computeIfAbsent(driver, d -> new ArrayList<>()).add(String.valueOf(result.get("identifier")));
+            }
+        } else {
+            // no CDP: open the origin once so cookies and storage can be written for it
+            driver.get(state.origin);
+            for (Cookie c : state.cookies) driver.manage().addCookie(c);
+            if (driver instanceof JavascriptExecutor) {
+                ((JavascriptExecutor) driver).executeScript(storageScript(state, false));
+            }
+        }
+    }
+
+    // oneShot: runs on every new document, but only writes once per tab (marker in sessionStorage)
+    private static String storageScript(SessionState state, boolean oneShot) {
+        StringBuilder sb = new StringBuilder();
+        if (oneShot) {
+            sb.append("if (location.origin === ").append(js(state.origin))
+                    .append(" && !window.sessionStorage.getItem('__sessionStateRestored')) {")
+                    .append("window.sessionStorage.setItem('__sessionStateRestored', '1');");
+        }
+        for (Map.Entry<String, String> e : state.localStorage.entrySet()) {
+            sb.append("window.localStorage.setItem(").append(js(e.getKey())).append(',').append(js(e.getValue())).append(");");
+        }
+        for (Map.Entry<String, String> e : state.sessionStorage.entrySet()) {
+            sb.append("window.sessionStorage.setItem(").append(js(e.getKey())).append(',').append(js(e.getValue())).append(");");
+        }
+        if (oneShot) sb.append('}');
+        return sb.toString();
+    }
+
+    private static String js(String value) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (char ch : value.toCharArray()) {
+            if (ch == '"' || ch == '\\') sb.append('\\').append(ch);
+            else if (ch < 0x20 || ch == '\u2028' || ch == '\u2029') sb.append(String.format("\\u%04x", (int) ch));
+            else sb.append(ch);
+        }
+        return sb.append('"').toString();
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < 8; i++) sb.append(String.format("%02x", digest[i]));
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // ---------------- STATE ----------------
+
+    private static final class SessionState {
+        final String origin;
+        final List<Cookie> cookies;
+        final Map<String, String> localStorage;
+        final Map<String, String> sessionStorage;
+        final long capturedAt = System.currentTimeMillis();
+
+        SessionState(String origin, List<Cookie> cookies, Map<String, String> localStorage, Map<String, String> sessionStorage) {
+            this.origin = origin;
+            this.cookies = cookies;
+            this.localStorage = localStorage;
+            this.sessionStorage = sessionStorage;
+        }
+
+        boolean isFresh() {
+            long now = System.currentTimeMillis();
+            if (now - capturedAt > TTL_MILLIS) return false;
+            for (Cookie c : cookies) {
+                if (c.getExpiry() != null && c.getExpiry().getTime() <= now) return false;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package utils;
+
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+
+import java.util.function.Function;
+
+/**
+ * Explicit waits for locator-repository keys with adaptive polling.
+ *
+ * The first check runs immediately; after that the poll interval starts small and grows
+ * (x1.5 per poll) up to a cap, so fast elements are picked up within a few ms while slow ones
+ * do not hammer the browser. Every wait is timed and recorded in {@link WaitStats}.
+ *
+ * Timeout per locator: "key.timeout" in object.properties, else defaultWaitTimeoutSeconds.
+ *
+ * Settings (global.properties or -D system properties):
+ *   defaultWaitTimeoutSeconds  default timeout (default 10)
+ *   waitInitialPollMillis      first poll interval (default 20)
+ *   waitMaxPollMillis          poll interval cap (default 500)
+ */
+public final class SmartWait {
+
+    // settings are read per wait (lock-free ConfigService lookups) so they can be tuned while a soak run is going
+    private static final double BACKOFF = 1.5;
+
+    private SmartWait() {}
+
+    // ---------------- LOCATOR-KEY WAITS ----------------
+
+    public static WebElement visible(String locatorKey) {
+        return until(locatorKey, "visible", ExpectedConditions.visibilityOfElementLocated(CommonUtils.getLocator(locatorKey)));
+    }
+
+    public static WebElement clickable(String locatorKey) {
+        return until(locatorKey, "clickable", ExpectedConditions.elementToBeClickable(CommonUtils.getLocator(locatorKey)));
+    }
+
+    public static boolean textPresent(String locatorKey, String text) {
+        return until(locatorKey, "text-present",
+                ExpectedConditions.textToBePresentInElementLocated(CommonUtils.getLocator(locatorKey), text));
+    }
+
+    /** Wait until an element found earlier is detached from the DOM (e.g. after a page reload). */
+    public static boolean stale(String locatorKey, WebElement element) {
+        return until(locatorKey, "stale", ExpectedConditions.stalenessOf(element));
+    }
+
+    /** Wait for any condition, using the timeout configured for {@code locatorKey}. */
+    public static <T> T until(String locatorKey, String conditionName, Function<? super WebDriver, T> condition) {
+        return until(locatorKey + "#" + conditionName, timeoutFor(locatorKey), condition);
+    }
+
+    // ---------------- ENGINE ----------------
+
+    /**
+     * Poll {@code condition} until it returns a non-null, non-false value or {@code timeoutMillis} passes.
+     * NoSuchElement / StaleElementReference during polling just mean "not yet".
+     */
+    public static <T> T until(String label, long timeoutMillis, Function<? super WebDriver, T> condition) {
+        WebDriver driver = BaseTest.getDriver();
+        if (driver == null) {
+            throw new IllegalStateException("WebDriver not initialized. Make sure Hooks.beforeScenario called BaseTest.initDriver().");
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + timeoutMillis * 1_000_000L;
+
+        CommandProfiler.beginPolling();   // repeated polls of one locator are a single lookup
+        try {
+            return poll(label, condition, driver, start, deadline);
+        } finally {
+            CommandProfiler.endPolling();
+        }
+    }
+
+    private static <T> T poll(String label, Function<? super WebDriver, T> condition, WebDriver driver, long start, long deadline) {
+        long poll = Math.max(1, CommonUtils.getGlobalIntProperty("waitInitialPollMillis", 20));
+        long maxPoll = Math.max(poll, CommonUtils.getGlobalIntProperty("waitMaxPollMillis", 500));
+        int attempts = 0;
+        RuntimeException lastError = null;
+
+        while (true) {
+            attempts++;
+            try {
+                T result = condition.apply(driver);
+                if (result != null && !Boolean.FALSE.equals(result)) {
+                    WaitStats.record(label, System.nanoTime() - start, attempts, false);
+                    return result;
+                }
+            } catch (NoSuchElementException | StaleElementReferenceException e) {
+                lastError = e;
+            }
+
+            long remainingMillis = (deadline - System.nanoTime()) / 1_000_000L;
+            if (remainingMillis <= 0) {
+                long waited = System.nanoTime() - start;
+                WaitStats.record(label, waited, attempts, true);
+                throw new TimeoutException("Timed out after " + (waited / 1_000_000L) + " ms (" + attempts
+                        + " polls) waiting for " + label, lastError);
+            }
+
+            sleep(Math.min(poll, remainingMillis));
+            poll = Math.min(maxPoll, (long) (poll * BACKOFF));
+        }
+    }
+
+    public static long timeoutFor(String locatorKey) {
+        LocatorRepository repo = LocatorRepository.getInstance();
+        long t = repo.contains(locatorKey) ? repo.getEntry(locatorKey).getTimeoutMillis() : -1;
+        return t > 0 ? t : CommonUtils.getGlobalIntProperty("defaultWaitTimeoutSeconds", 10) * 1000L;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting", e);
+        }
+    }
+}
@@ -0,0 +1,407 @@
+package utils;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Properties;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Test data under the classpath folder TestData/.
+ *
+ * - Paths are resolved without depending on case ("login/testdata.properties" finds
+ *   TestData/Login/testData.properties on Linux too).
+ * - Per-module testData.properties: single values ({@link #get}) or the whole module bound to a
+ *   typed object once ({@link #record}).
+ * - CSV (header row) and JSON-lines files are streamed row by row and each row is bound to a typed
+ *   record (public fields / setters, matched case-insensitively) exactly once; nothing is kept
+ *   in memory after the row has been consumed.
+ * - {@link #feed} hands rows out to parallel workers from one shared stream, so every row is used
+ *   by exactly one thread, until the file runs out (NoSuchElementException); {@link #row} is a
+ *   fixed row, e.g. per Examples line; {@link #partition} gives a fixed index/count slice (e.g. per shard).
+ *
+ * Usage:
+ *   String user = TestData.get("Login", "standard.username");
+ *   try (Stream<Product> rows = TestData.stream("Orders/products.csv", Product.class)) { ... }
+ *   Product next = TestData.feed("Orders/products.csv", Product.class).next();
+ *   Product third = TestData.row("Orders/products.csv", Product.class, 3);
+ */
+public final class TestData {
+
+    private static final String ROOT = "TestData";
+
+    private static final ObjectMapper MAPPER = JsonMapper.builder()
+            .configure(MapperFeature.ACCEPT_CASE_INSENSITIVE_PROPERTIES, true)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .build();
+
+    private static final ConcurrentMap<String, Object> RECORDS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, DataFeed<?>> FEEDS = new ConcurrentHashMap<>();
+
+    private TestData() {}
+
+    // ---------------- PATH RESOLUTION ----------------
+
+    /** Lower-cased classpath path -> real path, for everything under TestData/ in directory roots. */
+    private static final class Index {
+        static final Map<String, String> PATHS = build();
+
+        private static Map<String, String> build() {
+            Map<String, String> paths = new HashMap<>();
+            try {
+                Enumeration<URL> roots = loader().getResources("");
+                while (roots.hasMoreElements()) {
+                    URL url = roots.nextElement();
+                    if (!"file".equals(url.getProtocol())) continue;
+                    Path root = Paths.get(url.toURI());
+                    try (Stream<Path> files = Files.walk(root)) {
+                        files.filter(Files::isRegularFile).forEach(p -> {
+                            String rel = root.relativize(p).toString().replace('\\', '/');
+                            if (rel.toLowerCase(Locale.ROOT).startsWith(ROOT.toLowerCase(Locale.ROOT) + "/")) {
+                                paths.putIfAbsent(rel.toLowerCase(Locale.ROOT), rel);
+                            }
+                        });
+                    }
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException("Unable to index " + ROOT + " resources", e);
+            }
+            return Collections.unmodifiableMap(paths);
+        }
+    }
+
+    /** Real classpath path for {@code relativePath} under TestData/, matched case-insensitively. */
+    public static String resolve(String relativePath) {
+        if (relativePath == null || relativePath.trim().isEmpty()) {
+            throw new IllegalArgumentException("relativePath must not be null/empty");
+        }
+        String rel = relativePath.trim().replace('\\', '/');
+        if (rel.startsWith("/")) rel = rel.substring(1);
+        if (!rel.toLowerCase(Locale.ROOT).startsWith(ROOT.toLowerCase(Locale.ROOT) + "/")) {
+            rel = ROOT + "/" + rel;
+        }
+        if (loader().getResource(rel) != null) return rel;   // exact match, also works inside jars
+
+        String found = Index.PATHS.get(rel.toLowerCase(Locale.ROOT));
+        if (found == null) {
+            throw new IllegalArgumentException("Test data not found: " + rel);
+        }
+        return found;
+    }
+
+    private static ClassLoader loader() {
+        ClassLoader cl = Thread.currentThread().getContextClassLoader();
+        return cl != null ? cl : TestData.class.getClassLoader();
+    }
+
+    private static InputStream open(String resolvedPath) {
+        InputStream in = loader().getResourceAsStream(resolvedPath);
+        if (in == null) throw new IllegalArgumentException("Test data not found: " + resolvedPath);
+        return in;
+    }
+
+    // ---------------- MODULE PROPERTIES ----------------
+
+    /** Value from TestData/<module>/testData.properties. */
+    public static String get(String module, String key) {
+        if (module == null || key == null) {
+            throw new IllegalArgumentException("module/key cannot be null");
+        }
+        String path = resolve(module.trim() + "/testData.properties");
+        try {
+            Properties p = CommonUtils.loadPropertiesFileFromClasspath(path);
+            String value = p.getProperty(key);
+            if (value == null) {
+                throw new IllegalArgumentException("Missing key '" + key + "' in module: " + module);
+            }
+            return value.trim();
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to load testdata: " + path, e);
+        }
+    }
+
+    /** Whole module properties file bound to {@code type} (bound once, then cached). */
+    public static <T> T record(String module, Class<T> type) {
+        String path = resolve(module.trim() + "/testData.properties");
+        return type.cast(RECORDS.computeIfAbsent(path + "|" + type.getName(), k -> {
+            try {
+                Map<String, String> values = new LinkedHashMap<>();
+                CommonUtils.loadPropertiesFileFromClasspath(path).forEach((key, v) -> values.put(String.valueOf(key), String.valueOf(v).trim()));
+                return MAPPER.convertValue(values, type);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to load testdata: " + path, e);
+            }
+        }));
+    }
+
+    // ---------------- STREAMING ROWS ----------------
+
+    /**
+     * Lazily read rows of a .csv (first line = header) or .jsonl file as {@code type}
+     * (use Map.class for untyped rows). Close the stream when done.
+     */
+    public static <T> Stream<T> stream(String relativePath, Class<T> type) {
+        String path = resolve(relativePath);
+        String lower = path.toLowerCase(Locale.ROOT);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(open(path), StandardCharsets.UTF_8));
+
+        Iterator<T> rows;
+        if (lower.endsWith(".csv")) {
+            rows = new CsvIterator<>(reader, path, type);
+        } else if (lower.endsWith(".jsonl") || lower.endsWith(".ndjson")) {
+            rows = new JsonLinesIterator<>(reader, path, type);
+        } else {
+            closeQuietly(reader);
+            throw new IllegalArgumentException("Unsupported test data format (expected .csv or .jsonl): " + path);
+        }
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(rows, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> closeQuietly(reader));
+    }
+
+    /** Rows whose position satisfies {@code position % count == index}, e.g. one slice per shard. */
+    public static <T> Stream<T> partition(String relativePath, Class<T> type, int index, int count) {
+        if (count < 1 || index < 0 || index >= count) {
+            throw new IllegalArgumentException("Invalid partition " + index + "/" + count);
+        }
+        AtomicLong position = new AtomicLong();
+        return stream(relativePath, type).filter(row -> position.getAndIncrement() % count == index);
+    }
+
+    /** Row {@code number} (1-based, header not counted): the same row on every run and every rerun. */
+    public static <T> T row(String relativePath, Class<T> type, int number) {
+        if (number < 1) throw new IllegalArgumentException("Row numbers start at 1 but was " + number);
+        try (Stream<T> rows = stream(relativePath, type)) {
+            return rows.skip(number - 1L).findFirst().orElseThrow(() ->
+                    new NoSuchElementException("No row " + number + " in " + resolve(relativePath)));
+        }
+    }
+
+    /**
+     * Shared feed for a file: each row is handed to exactly one caller, across all threads.
+     * A feed does not wrap around and a rerun of a scenario gets a different row, so use it for
+     * consumable data (fresh accounts, order ids); assertions on a specific row belong to {@link #row}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> DataFeed<T> feed(String relativePath, Class<T> type) {
+        String path = resolve(relativePath);
+        return (DataFeed<T>) FEEDS.computeIfAbsent(path + "|" + type.getName(), k -> new DataFeed<>(path, type));
+    }
+
+    /** Rows of one file handed out one at a time to whichever worker asks next. */
+    public static final class DataFeed<T> {
+        private final String path;
+        private final Class<T> type;
+        private Stream<T> stream;
+        private Iterator<T> rows;
+        private long handedOut;
+
+        private DataFeed(String path, Class<T> type) {
+            this.path = path;
+            this.type = type;
+        }
+
+        /** Next unused row; throws NoSuchElementException when every row has been taken. */
+        public synchronized T next() {
+            if (rows == null) {
+                stream = stream(path, type);
+                rows = stream.iterator();
+            }
+            if (!rows.hasNext()) {
+                stream.close();
+                throw new NoSuchElementException("No unused rows left in " + path + " (" + handedOut + " handed out)");
+            }
+            handedOut++;
+            return rows.next();
+        }
+
+        /** Up to {@code n} unused rows as one batch. */
+        public synchronized List<T> next(int n) {
+            List<T> batch = new ArrayList<>(n);
+            try {
+                while (batch.size() < n) batch.add(next());
+            } catch (NoSuchElementException e) {
+                if (batch.isEmpty()) throw e;
+            }
+            return batch;
+        }
+
+        public synchronized long getHandedOut() {
+            return handedOut;
+        }
+    }
+
+    // ---------------- READERS ----------------
+
+    private static final class JsonLinesIterator<T> implements Iterator<T> {
+        private final BufferedReader reader;
+        private final String path;
+        private final Class<T> type;
+        private String nextLine;
+        private long lineNo;
+
+        JsonLinesIterator(BufferedReader reader, String path, Class<T> type) {
+            this.reader = reader;
+            this.path = path;
+            this.type = type;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (nextLine == null) {
+                    String line = reader.readLine();
+                    if (line == null) return false;
+                    lineNo++;
+                    if (!line.trim().isEmpty()) nextLine = line;
+                }
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to read " + path, e);
+            }
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            String line = nextLine;
+            nextLine = null;
+            try {
+                return MAPPER.readValue(line, type);
+            } catch (IOException e) {
+                throw new IllegalArgumentException(path + ":" + lineNo + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /** RFC 4180 CSV: quoted fields may contain commas, "" and line breaks. */
+    private static final class CsvIterator<T> implements Iterator<T> {
+        private final BufferedReader reader;
+        private final String path;
+        private final Class<T> type;
+        private final List<String> header;
+        private List<String> nextRecord;
+        private long lineNo;
+
+        CsvIterator(BufferedReader reader, String path, Class<T> type) {
+            this.reader = reader;
+            this.path = path;
+            this.type = type;
+            List<String> h = readRecord();
+            if (h == null) throw new IllegalArgumentException("CSV has no header row: " + path);
+            if (!h.isEmpty() && h.get(0).startsWith("\uFEFF")) h.set(0, h.get(0).substring(1));
+            this.header = h;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (nextRecord == null) {
+                List<String> record = readRecord();
+                if (record == null) return false;
+                if (record.size() == 1 && record.get(0).isEmpty()) continue;   // blank line
+                nextRecord = record;
+            }
+            return true;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            List<String> record = nextRecord;
+            nextRecord = null;
+            if (record.size() != header.size()) {
+                throw new IllegalArgumentException(path + ":" + lineNo + ": expected " + header.size()
+                        + " columns but found " + record.size());
+            }
+            Map<String, String> row = new LinkedHashMap<>();
+            for (int i = 0; i < header.size(); i++) row.put(header.get(i).trim(), record.get(i));
+            try {
+                return MAPPER.convertValue(row, type);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(path + ":" + lineNo + ": " + e.getMessage(), e);
+            }
+        }
+
+        private List<String> readRecord() {
+            try {
+                String line = reader.readLine();
+                if (line == null) return null;
+                lineNo++;
+                List<String> fields = new ArrayList<>();
+                StringBuilder field = new StringBuilder();
+                boolean quoted = false;
+                int i = 0;
+                while (true) {
+                    if (i == line.length()) {
+                        if (!quoted) break;
+                        String more = reader.readLine();   // line break inside a quoted field
+                        if (more == null) throw new IllegalArgumentException(path + ":" + lineNo + ": unterminated quoted field");
+                        lineNo++;
+                        field.append('\n');
+                        line = more;
+                        i = 0;
+                        continue;
+                    }
+                    char c = line.charAt(i++);
+                    if (quoted) {
+                        if (c == '"') {
+                            if (i < line.length() && line.charAt(i) == '"') {
+                                field.append('"');
+                                i++;
+                            } else {
+                                quoted = false;
+                            }
+                        } else {
+                            field.append(c);
+                        }
+                    } else if (c == '"' && field.length() == 0) {
+                        quoted = true;
+                    } else if (c == ',') {
+                        fields.add(field.toString());
+                        field.setLength(0);
+                    } else {
+                        field.append(c);
+                    }
+                }
+                fields.add(field.toString());
+                return fields;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to read " + path, e);
+            }
+        }
+    }
+
+    private static void closeQuietly(BufferedReader reader) {
+        try {
+            reader.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Time spent in {@link SmartWait}, per locator/condition label.
+ *
+ * Run-wide totals are kept in striped counters (cheap under parallel load); a per-thread list holds
+ * the waits of the current scenario so Hooks can report the slowest ones.
+ */
+public final class WaitStats {
+
+    private static final ConcurrentMap<String, Stat> STATS = new ConcurrentHashMap<>();
+    private static final ThreadLocal<List<Sample>> SCENARIO = ThreadLocal.withInitial(ArrayList::new);
+
+    private WaitStats() {}
+
+    static void record(String label, long nanos, int polls, boolean timedOut) {
+        STATS.computeIfAbsent(label, l -> new Stat()).add(nanos, polls, timedOut);
+        SCENARIO.get().add(new Sample(label, nanos, timedOut));
+        Metrics.histogram("wait_seconds", "outcome", timedOut ? "timeout" : "ok").recordNanos(nanos);
+        Metrics.current().waitNanos += nanos;
+    }
+
+    // ---------------- PER SCENARIO ----------------
+
+    /** Total wait time of the current thread's scenario so far, in millis. */
+    public static long scenarioTotalMillis() {
+        long total = 0;
+        for (Sample s : SCENARIO.get()) total += s.nanos;
+        return total / 1_000_000L;
+    }
+
+    /** Human-readable list of the current scenario's slowest waits, or null when there were none. */
+    public static String scenarioSummary(int top) {
+        List<Sample> samples = new ArrayList<>(SCENARIO.get());
+        if (samples.isEmpty()) return null;
+        samples.sort(Comparator.comparingLong((Sample s) -> s.nanos).reversed());
+
+        StringBuilder sb = new StringBuilder("Waits: ").append(samples.size()).append(" totalling ")
+                .append(scenarioTotalMillis()).append(" ms; slowest:");
+        for (int i = 0; i < Math.min(top, samples.size()); i++) {
+            Sample s = samples.get(i);
+            sb.append(' ').append(s.label).append('=').append(s.nanos / 1_000_000L).append("ms");
+            if (s.timedOut) sb.append("(timeout)");
+        }
+        return sb.toString();
+    }
+
+    public static void clearScenario() {
+        SCENARIO.remove();
+    }
+
+    // ---------------- RUN TOTALS ----------------
+
+    /** Write per-label totals as CSV, slowest total first. */
+    public static void writeCsv(File out) {
+        List<ConcurrentMap.Entry<String, Stat>> entries = new ArrayList<>(STATS.entrySet());
+        if (entries.isEmpty()) return;
+        entries.sort(Comparator.comparingLong((ConcurrentMap.Entry<String, Stat> e) -> e.getValue().totalNanos.sum()).reversed());
+
+        File dir = out.getAbsoluteFile().getParentFile();
+        if (dir != null && !dir.exists()) dir.mkdirs();
+        try (PrintWriter pw = new PrintWriter(out, StandardCharsets.UTF_8.name())) {
+            pw.println("label,count,total_ms,avg_ms,max_ms,avg_polls,timeouts");
+            for (ConcurrentMap.Entry<String, Stat> e : entries) {
+                Stat s = e.getValue();
+                long count = s.count.sum();
+                pw.println("\"" + e.getKey().replace("\"", "\"\"") + "\"," + count + ","
+                        + s.totalNanos.sum() / 1_000_000L + ","
+                        + (count == 0 ? 0 : s.totalNanos.sum() / count / 1_000_000L) + ","
+                        + s.maxNanos.get() / 1_000_000L + ","
+                        + (count == 0 ? 0 : s.polls.sum() / count) + ","
+                        + s.timeouts.sum());
+            }
+        } catch (IOException e) {
+            System.err.println("Unable to write wait stats " + out + ": " + e.getMessage());
+        }
+    }
+
+    private static final class Stat {
+        final LongAdder count = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final LongAdder polls = new LongAdder();
+        final LongAdder timeouts = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+
+        void add(long nanos, int pollCount, boolean timedOut) {
+            count.increment();
+            totalNanos.add(nanos);
+            polls.add(pollCount);
+            if (timedOut) timeouts.increment();
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+    }
+
+    private static final class Sample {
+        final String label;
+        final long nanos;
+        final boolean timedOut;
+
+        Sample(String label, long nanos, boolean timedOut) {
+            this.label = label;
+            this.nanos = nanos;
+            this.timedOut = timedOut;
+        }
+    }
+}
@@ -2,29 +2,143 @@ package cucumberoptions;
 
 import io.cucumber.testng.AbstractTestNGCucumberTests;
 import io.cucumber.testng.CucumberOptions;
+import io.cucumber.testng.FeatureWrapper;
+import io.cucumber.testng.Pickle;
+import io.cucumber.testng.PickleWrapper;
+import org.testng.SkipException;
+import org.testng.annotations.AfterClass;
 import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import utils.RerunReportRewriter;
+import utils.ScenarioHistory;
+import utils.ScenarioRerun;
+import utils.ScenarioScheduler;
+import utils.ShardConfig;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 
 @CucumberOptions(
         features = "src/test/resources/features",           // path to feature files
         glue = {"stepdefinitions"},                         // step definition + hooks package
         plugin = {
                 "pretty",                                    // console output
-                "html:target/cucumber-reports/cucumber.html",// HTML report
-                "json:target/cucumber-reports/cucumber.json",// JSON report
-                "junit:target/cucumber-reports/cucumber.xml" // JUnit XML report
+                "utils.MetricsPlugin",                       // step/hook/scenario histograms -> target/metrics
+                "utils.CircuitBreaker"                       // fail-fast: counts failures / infrastructure errors
+                // html/json/junit reports are added below (per-shard folder when sharded)
         },
         monochrome = true,   // cleaner console output
         dryRun = false       // true = just check mapping, no execution
 )
 public class TestRunner extends AbstractTestNGCucumberTests {
 
+    // Report plugins go through cucumber.plugin (added to the annotation plugins) so each shard
+    // writes to its own folder: target/cucumber-reports/[shard-N/]cucumber.{html,json,xml}
+    private static boolean reportPluginsAdded;
+
+    static {
+        addReportPlugins();
+    }
+
+    // shared with VirtualThreadTestRunner; adds the report plugins once per JVM
+    static synchronized void addReportPlugins() {
+        if (reportPluginsAdded) return;
+        reportPluginsAdded = true;
+        String dir = reportDir();
+        String reports = "html:" + dir + "cucumber.html,"   // HTML report
+                + "json:" + dir + "cucumber.json,"          // JSON report
+                + "junit:" + dir + "cucumber.xml";          // JUnit XML report
+        String existing = System.getProperty("cucumber.plugin");
+        System.setProperty("cucumber.plugin",
+                existing == null || existing.trim().isEmpty() ? reports : existing + "," + reports);
+    }
+
+    static String reportDir() {
+        return "target/cucumber-reports/" + ShardConfig.getOutputSubfolder();
+    }
+
+    /** Cucumber writes its reports here; then superseded rerun attempts are dropped from them. */
+    @Override
+    @AfterClass(alwaysRun = true)
+    public void tearDownClass() {
+        super.tearDownClass();
+        RerunReportRewriter.rewrite(new File(reportDir()));
+    }
+
+    // scenario plan is computed once and shared by both DataProviders
+    private ScenarioScheduler.Plan plan;
+
+    private synchronized ScenarioScheduler.Plan plan() {
+        if (plan == null) {
+            plan = ScenarioScheduler.plan(super.scenarios());
+        }
+        return plan;
+    }
+
     /**
      * Enable parallel execution of Cucumber scenarios.
-     * TestNG will execute the rows provided by this DataProvider in parallel.
+     * TestNG will execute the rows provided by this DataProvider in parallel,
+     * longest scenarios (by recorded history) first. @serial scenarios are left out.
      */
     @Override
     @DataProvider(parallel = true)
     public Object[][] scenarios() {
-        return super.scenarios();
+        return plan().getParallelRows();
+    }
+
+    /**
+     * Same as the inherited test, plus bounded reruns of failed scenarios (see ScenarioRerun).
+     * A FixtureGroup row runs its scenarios back to back on this thread (see SetupFixtures).
+     */
+    @Override
+    @Test(groups = "cucumber", description = "Runs Cucumber Scenarios",
+            dataProvider = "scenarios", retryAnalyzer = ScenarioRerun.class)
+    public void runScenario(PickleWrapper pickleWrapper, FeatureWrapper featureWrapper) {
+        if (pickleWrapper instanceof ScenarioScheduler.FixtureGroup) {
+            runGroup((ScenarioScheduler.FixtureGroup) pickleWrapper);
+            return;
+        }
+        super.runScenario(pickleWrapper, featureWrapper);
+    }
+
+    // TestNG can only retry the whole row, so scheduled reruns of a group's scenarios run in place
+    private void runGroup(ScenarioScheduler.FixtureGroup group) {
+        List<String> failed = new ArrayList<>();
+        int skipped = 0;
+        for (Object[] row : group.getRows()) {
+            Pickle pickle = ((PickleWrapper) row[0]).getPickle();
+            String key = ScenarioHistory.key(pickle.getUri(), pickle.getLine());
+            while (true) {
+                try {
+                    super.runScenario((PickleWrapper) row[0], (FeatureWrapper) row[1]);
+                } catch (SkipException e) {
+                    skipped++;
+                } catch (Throwable t) {
+                    if (ScenarioRerun.isScheduled(key)) continue;
+                    failed.add(pickle.getName() + " (" + key + "): " + t);
+                }
+                break;
+            }
+        }
+        if (!failed.isEmpty()) {
+            throw new AssertionError(failed.size() + " of " + group + " failed:\n  " + String.join("\n  ", failed));
+        }
+        if (skipped == group.getRows().size()) {
+            throw new SkipException("All " + group + " skipped");
+        }
+    }
+
+    /** Scenarios tagged @serial, run one at a time after the parallel pass. */
+    @DataProvider
+    public Object[][] serialScenarios() {
+        return plan().getSerialRows();
+    }
+
+    @Test(groups = "cucumber", description = "Runs @serial Cucumber Scenarios",
+            dataProvider = "serialScenarios", dependsOnMethods = "runScenario", alwaysRun = true,
+            retryAnalyzer = ScenarioRerun.class)
+    public void runSerialScenario(PickleWrapper pickleWrapper, FeatureWrapper featureWrapper) {
+        runScenario(pickleWrapper, featureWrapper);
     }
 }
@@ -0,0 +1,179 @@
+package cucumberoptions;
+
+import io.cucumber.testng.CucumberOptions;
+import io.cucumber.testng.Pickle;
+import io.cucumber.testng.PickleWrapper;
+import io.cucumber.testng.TestNGCucumberRunner;
+import org.testng.ITestContext;
+import org.testng.SkipException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import utils.CommonUtils;
+import utils.RerunReportRewriter;
+import utils.ScenarioHistory;
+import utils.ScenarioRerun;
+import utils.ScenarioScheduler;
+import utils.VirtualThreads;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Alternative to TestRunner that runs every scenario on its own virtual thread (Java 21+, see
+ * VirtualThreads; platform threads on older JVMs) instead of TestNG's data-provider pool.
+ *
+ * Concurrency is capped by browser slots, not by threads: a scenario takes a slot before it starts
+ * and gives it back when it ends, so scenarios waiting for a browser cost a parked virtual thread
+ * rather than a pool thread. While it holds slot N the scenario thread is named browser-slot-N,
+ * so sessionCacheScope=worker keys by slot and logs read the same as with pool threads.
+ *
+ * Per-scenario context stays in the existing ThreadLocals (BaseTest, ReportMgr, TestReportingUtils,
+ * ...): a scenario runs start to finish, reruns included, on one thread that is never reused, so
+ * each ThreadLocal is scoped to exactly one scenario and is freed with its thread.
+ *
+ * Order matches TestRunner: @canary scenarios first (the rest starts once they are done), then the
+ * other parallel rows longest first, then @serial rows one at a time. Failed scenarios are rerun
+ * in place as ScenarioRerun schedules them. The scenarios of a FixtureGroup row run back to back in
+ * one slot, sharing their setup fixtures. The test fails listing every scenario that failed.
+ *
+ * Run with: mvn test -Pvirtual-threads   (compiles for Java 21, uses testng-virtual.xml)
+ *
+ * Settings (global.properties or -D system properties):
+ *   browserSlots   scenarios running at once (default driverPoolSize)
+ */
+@CucumberOptions(
+        features = "src/test/resources/features",           // path to feature files
+        glue = {"stepdefinitions"},                         // step definition + hooks package
+        plugin = {
+                "pretty",                                    // console output
+                "utils.MetricsPlugin",                       // step/hook/scenario histograms -> target/metrics
+                "utils.CircuitBreaker"                       // fail-fast: counts failures / infrastructure errors
+                // html/json/junit reports are added by TestRunner.addReportPlugins()
+        },
+        monochrome = true
+)
+public class VirtualThreadTestRunner {
+
+    static {
+        TestRunner.addReportPlugins();
+    }
+
+    private TestNGCucumberRunner runner;
+
+    @BeforeClass(alwaysRun = true)
+    public void setUpClass(ITestContext context) {
+        runner = new TestNGCucumberRunner(getClass(), context.getCurrentXmlTest()::getParameter);
+    }
+
+    @Test(groups = "cucumber", description = "Runs Cucumber Scenarios on virtual threads")
+    public void runScenarios() throws InterruptedException {
+        ScenarioScheduler.Plan plan = ScenarioScheduler.plan(runner.provideScenarios());
+        Object[][] parallel = plan.getParallelRows();
+        int canaries = plan.getCanaryCount();
+
+        int slots = Math.max(1, CommonUtils.getGlobalIntProperty("browserSlots",
+                CommonUtils.getGlobalIntProperty("driverPoolSize", 4)));
+        BlockingQueue<Integer> freeSlots = new ArrayBlockingQueue<>(slots, true);
+        for (int i = 1; i <= slots; i++) freeSlots.add(i);
+
+        Results results = new Results();
+        System.out.println("Running " + parallel.length + " scenarios on "
+                + (VirtualThreads.isSupported() ? "virtual threads" : "platform threads (Java 21+ needed for virtual threads)")
+                + ", " + slots + " browser slots");
+        ExecutorService executor = VirtualThreads.newScenarioExecutor("scenario-", slots);
+        try {
+            runWave(executor, Arrays.copyOfRange(parallel, 0, canaries), freeSlots, results);
+            runWave(executor, Arrays.copyOfRange(parallel, canaries, parallel.length), freeSlots, results);
+        } finally {
+            executor.shutdown();
+        }
+        for (Object[] row : plan.getSerialRows()) {
+            run(row, results);
+        }
+
+        System.out.println("Scenarios: " + results.passed + " passed, " + results.failed.size() + " failed, "
+                + results.skipped + " skipped");
+        if (!results.failed.isEmpty()) {
+            throw new AssertionError(results.failed.size() + " scenario(s) failed:\n  " + String.join("\n  ", results.failed));
+        }
+    }
+
+    // start every row, each waiting for a browser slot, and return once all of them have finished
+    private void runWave(ExecutorService executor, Object[][] rows, BlockingQueue<Integer> freeSlots, Results results)
+            throws InterruptedException {
+        List<Future<?>> futures = new ArrayList<>(rows.length);
+        for (Object[] row : rows) {
+            futures.add(executor.submit(() -> {
+                Integer slot = freeSlots.take();
+                Thread thread = Thread.currentThread();
+                String name = thread.getName();
+                thread.setName("browser-slot-" + slot);
+                try {
+                    run(row, results);
+                } finally {
+                    thread.setName(name);
+                    freeSlots.add(slot);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                results.failed.add("(runner) " + e.getCause());
+            }
+        }
+    }
+
+    // one scenario (or each of a group's) plus the reruns ScenarioRerun schedules for it, on the calling thread
+    private void run(Object[] row, Results results) {
+        if (row[0] instanceof ScenarioScheduler.FixtureGroup) {
+            for (Object[] member : ((ScenarioScheduler.FixtureGroup) row[0]).getRows()) {
+                run(member, results);
+            }
+            return;
+        }
+        Pickle pickle = ((PickleWrapper) row[0]).getPickle();
+        String key = ScenarioHistory.key(pickle.getUri(), pickle.getLine());
+        while (true) {
+            try {
+                runner.runScenario(pickle);
+                results.passed.incrementAndGet();
+                return;
+            } catch (SkipException e) {
+                results.skipped.incrementAndGet();
+                return;
+            } catch (Throwable t) {
+                if (ScenarioRerun.isScheduled(key)) continue;
+                results.failed.add(pickle.getName() + " (" + key + "): " + t);
+                return;
+            }
+        }
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDownClass() {
+        if (runner != null) {
+            runner.finish();   // Cucumber writes its reports here
+            RerunReportRewriter.rewrite(new File(TestRunner.reportDir()));
+        }
+    }
+
+    private static final class Results {
+        final AtomicInteger passed = new AtomicInteger();
+        final AtomicInteger skipped = new AtomicInteger();
+        final Queue<String> failed = new ConcurrentLinkedQueue<>();
+    }
+}
@@ -0,0 +1,33 @@
+package stepdefinitions;
+
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import org.openqa.selenium.WebDriver;
+import utils.BaseTest;
+import utils.FixtureServer;
+import utils.ResourcePolicy;
+import utils.TestReportingUtils;
+
+public class FixtureSite {
+
+    @Given("user opens the local fixture shop")
+    public void user_opens_the_local_fixture_shop() {
+        WebDriver driver = BaseTest.getDriver();
+        if (driver == null) {
+            throw new IllegalStateException("WebDriver not initialized. Make sure Hooks.beforeScenario called BaseTest.initDriver().");
+        }
+
+        driver.get(FixtureServer.url("/shop/index.html"));
+        TestReportingUtils.logger("pass", "Opened local fixture shop");
+    }
+
+    @Then("user logs the page load timing")
+    public void user_logs_the_page_load_timing() {
+        ResourcePolicy.NavigationTiming timing = ResourcePolicy.lastNavigation();
+        String message = timing == null
+                ? "No navigation timing recorded (navigationTiming=false?)"
+                : "Page load: " + timing + " | blocked patterns: " + ResourcePolicy.active().getBlockPatterns();
+        System.out.println(message);
+        TestReportingUtils.logText("info", message);
+    }
+}
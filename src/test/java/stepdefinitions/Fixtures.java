@@ -0,0 +1,26 @@
+package stepdefinitions;
+
+import io.cucumber.java.BeforeAll;
+import utils.SetupFixtures;
+
+/**
+ * Setup fixtures requested by the feature files with @fixture:<name> (see SetupFixtures).
+ * Defined once per run, before the first scenario.
+ */
+public class Fixtures {
+
+    public static final String SAUCE_DEMO_HOME = "sauce-demo-home";
+
+    @BeforeAll
+    public static void defineFixtures() {
+        // login page, opened once per worker; reused while the browser is still on it
+        SetupFixtures.define(SAUCE_DEMO_HOME, SetupFixtures.Scope.WORKER,
+                driver -> {
+                    String url = Login.baseUrl();
+                    driver.get(url);
+                    return url;
+                },
+                (driver, url) -> url.equals(driver.getCurrentUrl()),
+                null);
+    }
+}
@@ -3,28 +3,59 @@ package stepdefinitions;
 import utils.ReportMgr;
 import utils.TestReportingUtils;   // test-only reporting helpers
 import utils.ScreenshotUtils;      // optional, used by TestReportingUtils
+import utils.ScreenshotWriter;     // background screenshot I/O, drained in @AfterAll
+import utils.ScreenshotStore;      // content-addressed screenshot blobs + capture index
+import utils.ScreenshotPolicy;     // which logger() calls get a screenshot
+import utils.ScenarioHistory;      // per-scenario durations for the scheduler
+import utils.ExclusiveResources;   // @exclusive:<name> locks
+import utils.ShardConfig;          // -Dshard.index / -Dshard.count
+import utils.ShardReportMerger;
+import utils.WaitStats;            // SmartWait timings
+import utils.CommandProfiler;      // WebDriver round-trips / N+1 lookups
+import utils.CircuitBreaker;       // fail-fast skip once the environment is broken
+import utils.ScenarioRerun;        // bounded reruns of failed scenarios, flaky marking
+import utils.SetupFixtures;        // @fixture:<name> setup shared between scenarios
 import utils.CommonUtils;         // optional (if you log/read anything)
 import utils.BaseTest;
+import utils.LocatorRepository;    // object.properties, validated before the first scenario
+import utils.BufferedExtentTest;
+import utils.StreamingReport;
+import utils.StubWebDriver;        // in-process W3C stub (stubWebDriver=true)
 
 import com.aventstack.extentreports.ExtentReports;
-import com.aventstack.extentreports.ExtentTest;
 import com.aventstack.extentreports.reporter.ExtentSparkReporter;
+import com.aventstack.extentreports.reporter.JsonFormatter;
 
 import io.cucumber.java.Before;
 import io.cucumber.java.After;
+import io.cucumber.java.AfterAll;
+import io.cucumber.java.BeforeAll;
 import io.cucumber.java.Scenario;
 
+import org.testng.SkipException;
 import org.testng.asserts.SoftAssert;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
 import static utils.CommonUtils.getReportNameWithCurrentDateTimeStamp;
 
 /**
  * Hooks for Cucumber scenarios.
  * - Initializes ExtentReports (once lazily).
- * - Creates an ExtentTest per scenario and stores in ReportMgr (thread-local).
+ * - Creates a buffered test node per scenario and stores in ReportMgr (thread-local).
  * - Stores Cucumber Scenario in TestReportingUtils.scenarioThreadLocal.
- * - Initializes/quits driver via BaseTest.
+ * - Borrows/releases a pooled driver via BaseTest.
  * - Asserts soft asserts and cleans up thread-locals in @After.
+ * - Holds @exclusive:<name> locks for the scenario and records its duration for scheduling.
+ * - Skips the scenario while the CircuitBreaker is open (non-canaries first wait for @canary scenarios).
+ * - Keeps the report node of a failed scenario open when ScenarioRerun schedules a rerun; the
+ *   rerun continues that node on a fresh browser.
+ * - Sets up @fixture:<name> setup fixtures, or reuses them on the worker's kept browser
+ *   (SetupFixtures); a kept browser skips the pool reset until the worker needs other fixtures.
+ * - Hands finished nodes to ReportMgr, which flushes in batches; final flush in @AfterAll
+ *   after pending screenshot writes are drained.
  */
 public class Hooks {
 
@@ -32,50 +63,133 @@ public class Hooks {
     private static volatile boolean extentInitialized = false;
     private static final Object lock = new Object();
 
+    // Cucumber creates a new Hooks instance per scenario, so plain fields are per-scenario state
+    private long scenarioStartNanos;
+    private String scenarioKey;
+    private String skippedReason;
+
+    @BeforeAll
+    public static void beforeSuite() {
+        // a broken object.properties fails the run here, with every invalid entry listed
+        LocatorRepository.validate();
+    }
+
     @Before
     public void beforeScenario(Scenario scenario) {
-        // 1) ensure ExtentReports is initialized once
+        // 0) fail fast: nothing below runs once the circuit breaker is open
+        scenarioKey = ScenarioHistory.key(scenario.getUri(), scenario.getLine());
+        skippedReason = CircuitBreaker.checkBeforeScenario(scenario.getSourceTagNames());
+        if (skippedReason != null) {
+            if (ScenarioRerun.isScheduled(scenarioKey)) {
+                // the failed attempt stands: a rerun that cannot run must not turn a failure into a skip
+                throw new IllegalStateException("Rerun cancelled, circuit breaker open: " + skippedReason);
+            }
+            throw new SkipException("Circuit breaker open: " + skippedReason);
+        }
+
+        // a scheduled rerun continues the failed attempt's report node (one rerun at a time)
+        BufferedExtentTest rerunNode = ScenarioRerun.beginRerun(scenarioKey);
+
+        // wait for exclusive resources, then start the clock
+        ExclusiveResources.acquire(scenario.getSourceTagNames());
+        scenarioStartNanos = System.nanoTime();
+
+        // 1) ensure ExtentReports (or the streaming report, reportMode=streaming) is initialized once
         if (!extentInitialized) {
             synchronized (lock) {
                 if (!extentInitialized) {
 
                     String reportName= getReportNameWithCurrentDateTimeStamp();
-                    String reportPath = System.getProperty("user.dir") + "/Reports/extents-reports/"+reportName;
-                    ExtentSparkReporter spark = new ExtentSparkReporter(reportPath);
-                    spark.config().setReportName("Automation Report");
-                    ExtentReports ext = new ExtentReports();
-                    ext.attachReporter(spark);
-                    ReportMgr.init(ext);           // store global ExtentReports
+                    String reportDir = System.getProperty("user.dir") + "/Reports/extents-reports/" + ShardConfig.getOutputSubfolder();
+                    if (ReportMgr.isStreaming()) {
+                        // append-only event log now, HTML rendered from it in @AfterAll
+                        try {
+                            ReportMgr.initStreaming(new StreamingReport(new File(reportDir, StreamingReport.EVENT_LOG),
+                                    new File(reportDir, reportName), "Automation Report"));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException("Unable to create report event log in " + reportDir, e);
+                        }
+                        if (ShardConfig.isSharded()) {
+                            ReportMgr.setSystemInfo("Shard", (ShardConfig.getIndex() + 1) + " of " + ShardConfig.getCount());
+                        }
+                    } else {
+                        ExtentSparkReporter spark = new ExtentSparkReporter(reportDir + reportName);
+                        spark.config().setReportName("Automation Report");
+                        ExtentReports ext = new ExtentReports();
+                        ext.attachReporter(spark);
+                        if (ShardConfig.isSharded()) {
+                            // JSON archive is what ShardReportMerger combines across shards
+                            ext.attachReporter(new JsonFormatter(reportDir + ShardReportMerger.EXTENT_JSON));
+                            ext.setSystemInfo("Shard", (ShardConfig.getIndex() + 1) + " of " + ShardConfig.getCount());
+                        }
+                        ReportMgr.init(ext);           // store global ExtentReports
+                    }
                     extentInitialized = true;
                 }
             }
         }
-        // 2) create a new ExtentTest for this scenario and set into ReportMgr (thread-local)
-        ExtentTest test = ReportMgr.getExtent().createTest(scenario.getName());
+        // 2) create a buffered test node for this scenario and set into ReportMgr (thread-local)
+        BufferedExtentTest test = rerunNode != null ? rerunNode : ReportMgr.createTest(scenario.getName());
         ReportMgr.setTest(test);
 
         // 3) store cucumber Scenario in thread-local so TestReportingUtils can log to it
         TestReportingUtils.scenarioThreadLocal.set(scenario);
+        ScreenshotPolicy.startScenario();
 
-        // 4) initialize WebDriver for this scenario (BaseTest uses ThreadLocal driver)
-        BaseTest.initDriver();
+        // 4) borrow a WebDriver for this scenario (BaseTest uses ThreadLocal driver from a pool);
+        //    reruns get a newly launched browser so state left by the failed attempt cannot leak in;
+        //    with stubWebDriver=true the sessions come from the in-process stub instead of Chrome
+        StubWebDriver.startIfEnabled();
+        // the worker's kept browser comes back when it holds exactly this scenario's setup fixtures
+        SetupFixtures.beforeDriver(scenario.getSourceTagNames(), scenario.getUri().toString(), rerunNode != null);
+        if (rerunNode != null) {
+            BaseTest.initFreshDriver();
+        } else {
+            BaseTest.initDriver();
+        }
 
         // Optional: log start in extent
         test.info("Starting scenario: " + scenario.getName());
+
+        // 5) setup fixtures (@fixture:<name>): set up now, or reused from this worker's last scenario
+        String fixtures = SetupFixtures.setUp(scenario.getSourceTagNames(), scenario.getUri().toString());
+        if (fixtures != null) test.info(fixtures);
     }
 
     @After
     public void afterScenario(Scenario scenario) {
+        if (skippedReason != null) {
+            // no driver, locks or thread-locals were taken; just list the scenario as skipped
+            BufferedExtentTest cancelled = ScenarioRerun.abandon(scenarioKey);
+            if (cancelled != null) {
+                cancelled.fail("Rerun cancelled, circuit breaker open: " + skippedReason);
+                ReportMgr.completeTest(cancelled);
+                return;
+            }
+            BufferedExtentTest skipped = ReportMgr.createTest(scenario.getName());
+            skipped.assignCategory("circuit-breaker");
+            skipped.skip("Skipped, circuit breaker open: " + skippedReason);
+            ReportMgr.completeTest(skipped);
+            return;
+        }
         // 1) flush/mark scenario status into extent
-        ExtentTest test = ReportMgr.getTest();
+        BufferedExtentTest test = ReportMgr.getTest();
+        TestReportingUtils.logFinalScreenshot("Final state: " + scenario.getName());
         if (test != null) {
+            String policySummary = ScreenshotPolicy.scenarioSummary();
+            if (policySummary != null) test.info(policySummary);
+            String waitSummary = WaitStats.scenarioSummary(3);
+            if (waitSummary != null) test.info(waitSummary);
+            String commandSummary = CommandProfiler.scenarioSummary(3);
+            if (commandSummary != null) test.info(commandSummary);
             if (scenario.isFailed()) {
                 test.fail("Scenario failed: " + scenario.getName());
             } else {
                 test.pass("Scenario passed: " + scenario.getName());
             }
         }
-        // 2) Assert soft assertions (if used)
+        // 2) Assert soft assertions (if used) - cleanup must run even when this rethrows
+        boolean failed = scenario.isFailed();
         try {
             SoftAssert sa = TestReportingUtils.softAssertThreadLocal.get();
             if (sa != null) {
@@ -84,22 +198,94 @@ public class Hooks {
         } catch (AssertionError ae) {
             // If you want the test to be marked failed in Cucumber/TestNG -> rethrow
             // but normally scenario.isFailed() will reflect Cucumber step failures.
+            failed = true;
             throw ae;
-        } catch (Exception ignore) { /* tolerate if none */ }
-        // 3) Quit driver for this scenario (BaseTest quits thread-local driver)
+        } catch (Exception ignore) {
+            /* tolerate if none */
+        } finally {
+            releaseScenarioResources(scenario, test, failed);
+        }
+    }
+
+    private void releaseScenarioResources(Scenario scenario, BufferedExtentTest test, boolean failed) {
+        // 2b) end a running rerun; a failed scenario may get one (its node then stays open)
+        ScenarioRerun.Outcome rerun = ScenarioRerun.afterScenario(scenarioKey, scenario.getName(), failed, test);
+        if (rerun == ScenarioRerun.Outcome.FLAKY) {
+            scenario.log("Flaky: passed on rerun after failing");
+        } else if (rerun == ScenarioRerun.Outcome.RERUN_SCHEDULED) {
+            scenario.log("Failed, rerun scheduled");
+        }
+
+        // 3) Return driver to the pool (it is reset, or retired if broken/used up), unless it is
+        //    kept unreset for this worker's next scenario with the same setup fixtures
         try {
-            BaseTest.quitDriver();
+            if (!SetupFixtures.afterScenario(failed)) BaseTest.releaseDriver();
         } catch (Exception e) {
-            if (test != null) test.warning("Failed to quit driver: " + e.getMessage());
+            if (test != null) test.warning("Failed to release driver: " + e.getMessage());
         }
         // 4) cleanup thread-locals to avoid memory leaks
         try { TestReportingUtils.scenarioThreadLocal.remove(); } catch (Exception ignored) {}
         try { TestReportingUtils.softAssertThreadLocal.remove(); } catch (Exception ignored) {}
+        try { ScreenshotPolicy.endScenario(); } catch (Exception ignored) {}
+        try { WaitStats.clearScenario(); } catch (Exception ignored) {}
+        try { CommandProfiler.endScenario(); } catch (Exception ignored) {}
         try { ReportMgr.removeTest(); } catch (Exception ignored) {}
 
-        // 5) flush extent reports (optional: you can flush in @AfterSuite if you prefer)
+        // 5) record duration for next run's scheduling, then free exclusive resources
+        ScenarioHistory.record(scenarioKey, (System.nanoTime() - scenarioStartNanos) / 1_000_000L);
+        ExclusiveResources.release();
+
+        // 6) hand the finished node to the report writer (flushed in batches, not per scenario)
+        if (rerun != ScenarioRerun.Outcome.RERUN_SCHEDULED) {
+            ReportMgr.completeTest(test);
+        }
+    }
+
+    @AfterAll
+    public static void afterSuite() {
+        // 0) tear down setup fixtures; kept browsers go back to the pool
+        SetupFixtures.endSuite();
+
+        // 1) make sure every screenshot linked from the report is on disk
+        ScreenshotWriter.drain(CommonUtils.getGlobalIntProperty("screenshotDrainTimeoutSeconds", 60));
+        ScreenshotStore.closeIndex();
+
+        // 2) persist scenario durations for the next run's scheduling, and per-locator wait times
+        ScenarioHistory.save();
+        WaitStats.writeCsv(new File(System.getProperty("user.dir"), "target/metrics/wait-times.csv"));
+        CommandProfiler.writeCsv(new File(System.getProperty("user.dir"), "target/metrics"));
+        ScenarioRerun.writeFlakyList(new File(System.getProperty("user.dir"),
+                "target/cucumber-reports/" + ShardConfig.getOutputSubfolder() + "flaky.txt"));
+
+        // 3) final flush so the report reflects the drained screenshots and policy savings
         try {
-            ReportMgr.getExtent().flush();
+            if (ReportMgr.isInitialized()) {
+                ReportMgr.setSystemInfo("Screenshot policy", ScreenshotPolicy.getMode().getConfigName());
+                ReportMgr.setSystemInfo("Screenshots skipped by policy", ScreenshotPolicy.getSkippedCount()
+                        + " (~" + ScreenshotPolicy.getEstimatedSavedMillis() + " ms capture time saved)");
+                ReportMgr.setSystemInfo("Duplicate screenshots not written", ScreenshotPolicy.getDuplicateCount()
+                        + " (" + (ScreenshotPolicy.getDuplicateBytes() / 1024) + " KB saved)");
+                if (ScreenshotStore.isEnabled() && ScreenshotStore.getFrameCount() > 0) {
+                    ReportMgr.setSystemInfo("Screenshot store", ScreenshotStore.getFrameCount() + " frames in "
+                            + ScreenshotStore.getBlobCount() + " blobs (" + (ScreenshotStore.getDedupedBytes() / 1024)
+                            + " KB not rewritten)");
+                }
+                if (ScenarioRerun.getRerunCount() > 0) {
+                    ReportMgr.setSystemInfo("Reruns", ScenarioRerun.getRerunCount() + " failed scenarios rerun, "
+                            + ScenarioRerun.getFlaky().size() + " flaky: " + ScenarioRerun.getFlaky().values());
+                }
+                if (SetupFixtures.getSetupCount() > 0) {
+                    ReportMgr.setSystemInfo("Setup fixtures", SetupFixtures.summary());
+                }
+                if (StubWebDriver.isStarted()) {
+                    ReportMgr.setSystemInfo("Stub WebDriver", StubWebDriver.summary());
+                }
+                if (CircuitBreaker.isOpen()) {
+                    ReportMgr.setSystemInfo("Circuit breaker", "opened: " + CircuitBreaker.getOpenReason()
+                            + " (" + CircuitBreaker.getSkippedCount() + " scenarios skipped)");
+                }
+                ReportMgr.flush();
+            }
         } catch (Exception e) {
             // tolerate flush issues
         }
@@ -5,10 +5,21 @@ import org.openqa.selenium.WebDriver;
 import io.cucumber.java.en.Given;
 import io.cucumber.java.en.Then;
 import utils.CommonUtils;
+import utils.FixtureServer;
+import utils.PageSnapshot;
+import utils.SessionStateCache;
+import utils.SetupFixtures;
+import utils.SmartWait;
 import utils.TestReportingUtils;
 
 public class Login extends CommonUtils {
 
+    // baseUrl = fixture serves the offline copy in fixtures/saucedemo/ (FixtureServer)
+    static String baseUrl() {
+        String url = getGlobalProperty("baseUrl", "https://www.saucedemo.com/").trim();
+        return "fixture".equalsIgnoreCase(url) ? FixtureServer.url("/saucedemo/") : url;
+    }
+
     @Given("user launches the Sauce Demo website")
     public void user_launches_the_sauce_demo_website() {
         WebDriver driver = BaseTest.getDriver();
@@ -16,13 +27,22 @@ public class Login extends CommonUtils {
             throw new IllegalStateException("WebDriver not initialized. Make sure Hooks.beforeScenario called BaseTest.initDriver().");
         }
 
-        driver.get("https://www.saucedemo.com/");
+        driver.get(baseUrl());
         System.out.println("Navigated to Sauce Demo site successfully!");
         System.out.println("Thread: " + Thread.currentThread().getId() + " | Driver hashcode: " + driver.hashCode());
 
         TestReportingUtils.logger("pass", "Launched Sauce Demo website successfully");
     }
 
+    @Given("the Sauce Demo website is open")
+    public void the_sauce_demo_website_is_open() {
+        // opened by the sauce-demo-home setup fixture (see Fixtures), once per worker
+        String url = (String) SetupFixtures.get(Fixtures.SAUCE_DEMO_HOME);
+        System.out.println("Sauce Demo site open: " + url + " | Thread: " + Thread.currentThread().getId());
+
+        TestReportingUtils.logger("pass", "Sauce Demo website open");
+    }
+
     @Then("user prints the page title")
     public void user_prints_the_page_title() {
         WebDriver driver = BaseTest.getDriver();
@@ -56,4 +76,45 @@ public class Login extends CommonUtils {
         // 🔹 Logger with screenshot
         TestReportingUtils.logger("pass", "Login page heading printed");
     }
+
+    @Then("user checks the login form in a single read")
+    public void user_checks_the_login_form_in_a_single_read() {
+        // heading, username and password fields read with one executeScript instead of 3+ round-trips
+        SmartWait.visible("loginPageHeader");
+        PageSnapshot page = snapshot("loginPageHeader", "loginUserName", "loginPassword");
+
+        System.out.println("Login Page Heading: " + page.getText("loginPageHeader"));
+        for (String field : new String[]{"loginUserName", "loginPassword"}) {
+            PageSnapshot.ElementSnapshot input = page.get(field);
+            if (!input.isDisplayed() || !input.isEnabled()) {
+                throw new AssertionError(field + " is not usable: " + input);
+            }
+            System.out.println(field + " placeholder: " + input.getAttribute("placeholder"));
+        }
+
+        TestReportingUtils.logger("pass", "Login form checked in one snapshot");
+    }
+
+    @Given("user is logged in as {string}")
+    public void user_is_logged_in_as(String role) {
+        String username = getTestData("Login", role + ".username");
+        String password = getTestData("Login", role + ".password");
+
+        // UI login only for the first scenario of this role; later ones get the captured cookies/storage
+        boolean restored = SessionStateCache.login(
+                SessionStateCache.key(role, username, password),
+                baseUrl() + "inventory.html",
+                driver -> "inventory".equals(SmartWait.until("login-check", SmartWait.timeoutFor("inventoryList"), d ->
+                        !d.findElements(getLocator("inventoryList")).isEmpty() ? "inventory"
+                                : !d.findElements(getLocator("loginButton")).isEmpty() ? "login" : null)),
+                () -> {
+                    BaseTest.getDriver().get(baseUrl());
+                    enterText("loginUserName", username);
+                    enterText("loginPassword", password);
+                    click("loginButton");
+                    SmartWait.visible("inventoryList");
+                });
+
+        TestReportingUtils.logger("pass", "Logged in as " + role + (restored ? " (cached session)" : " (UI login)"));
+    }
 }
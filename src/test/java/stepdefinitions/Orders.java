@@ -1,4 +1,52 @@
 package stepdefinitions;
 
-public class Orders {
+import io.cucumber.java.en.Then;
+import utils.CommonUtils;
+import utils.PageSnapshot;
+import utils.SmartWait;
+import utils.TestData;
+import utils.TestReportingUtils;
+
+import java.util.List;
+import java.util.Locale;
+
+public class Orders extends CommonUtils {
+
+    /** Row of TestData/Orders/products.csv. */
+    public static class Product {
+        public String name;
+        public double price;
+        public String category;
+    }
+
+    @Then("user sees the inventory list")
+    public void user_sees_the_inventory_list() {
+        SmartWait.visible("inventoryList");
+        List<String> names = snapshot("inventoryItemName").getTexts("inventoryItemName");
+        if (names.isEmpty()) {
+            throw new AssertionError("Inventory list is empty");
+        }
+        System.out.println("Inventory items: " + names);
+        TestReportingUtils.logger("pass", "Inventory shows " + names.size() + " items");
+    }
+
+    @Then("user finds catalogue product {int} in the inventory")
+    public void user_finds_catalogue_product_in_the_inventory(int row) {
+        // fixed row per Examples line, so a rerun checks the same product as the failed attempt
+        Product product = TestData.row("Orders/products.csv", Product.class, row);
+
+        SmartWait.visible("inventoryList");
+        PageSnapshot page = PageSnapshot.builder()
+                .add("item", "inventoryItemByName", product.name)
+                .add("price", "inventoryPriceByName", product.name)
+                .capture();
+        if (!page.isPresent("item")) {
+            throw new AssertionError("Product not listed: " + product.name);
+        }
+        String expected = String.format(Locale.ROOT, "$%.2f", product.price);
+        if (!expected.equals(page.getText("price"))) {
+            throw new AssertionError(product.name + ": expected " + expected + " but was " + page.getText("price"));
+        }
+        TestReportingUtils.logger("pass", product.name + " listed at " + expected);
+    }
 }
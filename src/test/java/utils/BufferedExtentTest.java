@@ -0,0 +1,157 @@
+package utils;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.Status;
+import com.aventstack.extentreports.model.Log;
+import com.aventstack.extentreports.model.Media;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Per-scenario report node that buffers log entries instead of touching the shared ExtentReports.
+ *
+ * Only the scenario's own thread writes to it. When the scenario ends it is handed to
+ * {@link ReportMgr#completeTest}, and the flusher replays it into ExtentReports on a single thread,
+ * so parallel scenarios can never interleave nodes or race on the report model.
+ * Original timestamps are kept, so the report shows real step times.
+ */
+public class BufferedExtentTest {
+
+    private final String name;
+    private final Date startTime = new Date();
+    private final List<Entry> entries = new ArrayList<>();
+    private final List<String> categories = new ArrayList<>();
+    private Date endTime;
+
+    BufferedExtentTest(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // ---------------- LOGGING (same shape as ExtentTest) ----------------
+
+    public BufferedExtentTest log(Status status, String details) {
+        return log(status, details, null);
+    }
+
+    public BufferedExtentTest log(Status status, String details, Media media) {
+        entries.add(new Entry(status, details, media, new Date()));
+        return this;
+    }
+
+    public BufferedExtentTest info(String details) {
+        return log(Status.INFO, details);
+    }
+
+    public BufferedExtentTest info(String details, Media media) {
+        return log(Status.INFO, details, media);
+    }
+
+    public BufferedExtentTest pass(String details) {
+        return log(Status.PASS, details);
+    }
+
+    public BufferedExtentTest fail(String details) {
+        return log(Status.FAIL, details);
+    }
+
+    public BufferedExtentTest warning(String details) {
+        return log(Status.WARNING, details);
+    }
+
+    public BufferedExtentTest skip(String details) {
+        return log(Status.SKIP, details);
+    }
+
+    public BufferedExtentTest assignCategory(String... names) {
+        for (String c : names) categories.add(c);
+        return this;
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    public Date getStartTime() {
+        return startTime;
+    }
+
+    /** Set when the node is completed, null before. */
+    public Date getEndTime() {
+        return endTime;
+    }
+
+    public List<String> getCategories() {
+        return categories;
+    }
+
+    /** Turn earlier FAIL entries into warnings, e.g. before the scenario is rerun into this node. */
+    void downgradeFailures(String prefix) {
+        for (int i = 0; i < entries.size(); i++) {
+            Entry e = entries.get(i);
+            if (e.status == Status.FAIL) {
+                entries.set(i, new Entry(Status.WARNING, prefix + e.details, e.media, e.timestamp));
+            }
+        }
+    }
+
+    // ---------------- HAND-OFF ----------------
+
+    void markEnded() {
+        endTime = new Date();
+    }
+
+    /** Replay into the real report. Must only be called by the (single) flushing thread. */
+    void replayInto(ExtentReports extent) {
+        ExtentTest test = extent.createTest(name);
+        if (!categories.isEmpty()) test.assignCategory(categories.toArray(new String[0]));
+        for (Entry e : entries) {
+            if (e.media != null) {
+                test.log(e.status, e.details, e.media);
+            } else {
+                test.log(e.status, e.details);
+            }
+            List<Log> logs = test.getModel().getLogs();
+            logs.get(logs.size() - 1).setTimestamp(e.timestamp);
+        }
+        test.getModel().setStartTime(startTime);
+        test.getModel().setEndTime(endTime != null ? endTime : new Date());
+    }
+
+    /** One buffered log line. */
+    public static final class Entry {
+        private final Status status;
+        private final String details;
+        private final Media media;
+        private final Date timestamp;
+
+        Entry(Status status, String details, Media media, Date timestamp) {
+            this.status = status;
+            this.details = details;
+            this.media = media;
+            this.timestamp = timestamp;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public String getDetails() {
+            return details;
+        }
+
+        public Media getMedia() {
+            return media;
+        }
+
+        public Date getTimestamp() {
+            return timestamp;
+        }
+    }
+}
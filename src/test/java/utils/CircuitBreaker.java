@@ -0,0 +1,204 @@
+package utils;
+
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.HookTestStep;
+import io.cucumber.plugin.event.HookType;
+import io.cucumber.plugin.event.Status;
+import io.cucumber.plugin.event.TestCaseFinished;
+import io.cucumber.plugin.event.TestStepFinished;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Fail-fast switch for parallel runs: once the environment is clearly broken, the remaining
+ * scenarios are skipped with the reason instead of each one failing slowly on its own.
+ *
+ * Outcomes come from Cucumber events (registered as a plugin in TestRunner), counted across all
+ * worker threads. The circuit opens, and stays open for the rest of the run, when
+ *   - circuitBreakerInfraErrors scenarios in a row (in finishing order) failed on an
+ *     infrastructure error: a failing @Before hook (driver start), or an error whose class or
+ *     message matches circuitBreakerInfraPatterns (session not created, navigation timeout, ...)
+ *   - at least circuitBreakerMinScenarios scenarios finished and the failed share reached
+ *     circuitBreakerFailureRate
+ *   - a @canary scenario failed
+ * Only final outcomes count: a failed attempt that ScenarioRerun is about to rerun is ignored (and
+ * a rerun @canary keeps the others waiting), so failures a rerun turns into passes never open it.
+ * Hooks asks {@link #checkBeforeScenario(Collection)} first thing in @Before and skips the
+ * scenario (SkipException) while the circuit is open.
+ *
+ * Canaries: {@link ScenarioScheduler} puts @canary scenarios at the head of the parallel rows and
+ * reports how many there are; every other scenario waits until all canaries have finished
+ * (at most canaryTimeoutSeconds), so a broken build is detected by a handful of scenarios.
+ *
+ * Settings (global.properties or -D system properties):
+ *   circuitBreakerEnabled         false = never skip (default true)
+ *   circuitBreakerInfraErrors     consecutive infrastructure failures that open the circuit, 0 = off (default 3)
+ *   circuitBreakerFailureRate     failed share (0-1) that opens the circuit, 0 = off (default 0.5)
+ *   circuitBreakerMinScenarios    finished scenarios before the failure rate counts (default 10)
+ *   circuitBreakerInfraPatterns   comma-separated, matched against exception class names and messages
+ *   canaryTimeoutSeconds          max wait for canaries before the rest starts anyway (default 600)
+ */
+public class CircuitBreaker implements ConcurrentEventListener {
+
+    public static final String CANARY_TAG = "@canary";
+
+    private static final String DEFAULT_INFRA_PATTERNS = "SessionNotCreatedException,NoSuchSessionException,"
+            + "UnreachableBrowserException,ConnectException,Timed out receiving message from renderer,"
+            + "page load timeout,net::ERR_";
+
+    private static final boolean ENABLED = CommonUtils.getGlobalBooleanProperty("circuitBreakerEnabled", true);
+    private static final int INFRA_THRESHOLD = CommonUtils.getGlobalIntProperty("circuitBreakerInfraErrors", 3);
+    private static final double FAILURE_RATE = Double.parseDouble(CommonUtils.getGlobalProperty("circuitBreakerFailureRate", "0.5").trim());
+    private static final int MIN_SCENARIOS = CommonUtils.getGlobalIntProperty("circuitBreakerMinScenarios", 10);
+    private static final List<String> INFRA_PATTERNS = split(CommonUtils.getGlobalProperty("circuitBreakerInfraPatterns", DEFAULT_INFRA_PATTERNS));
+
+    private static final AtomicInteger FINISHED = new AtomicInteger();
+    private static final AtomicInteger FAILED = new AtomicInteger();
+    private static final AtomicInteger CONSECUTIVE_INFRA = new AtomicInteger();
+    private static final AtomicInteger SKIPPED = new AtomicInteger();
+    private static final AtomicReference<String> OPEN_REASON = new AtomicReference<>();
+
+    private static volatile CountDownLatch canaries = new CountDownLatch(0);
+
+    // set by a failing @Before hook, read when the scenario finishes (same thread)
+    private static final ThreadLocal<Boolean> BEFORE_HOOK_FAILED = new ThreadLocal<>();
+
+    // ---------------- HOOKS SIDE ----------------
+
+    /**
+     * Called by Hooks before anything else: waits for canaries (non-canary scenarios only), then
+     * returns the reason the circuit is open, or null when the scenario may run.
+     */
+    public static String checkBeforeScenario(Collection<String> tags) {
+        if (!ENABLED) return null;
+        if (!tags.contains(CANARY_TAG)) {
+            awaitCanaries();
+        }
+        String reason = OPEN_REASON.get();
+        if (reason != null) SKIPPED.incrementAndGet();
+        return reason;
+    }
+
+    /** Number of @canary scenarios that will run first in this JVM (set by ScenarioScheduler). */
+    public static void expectCanaries(int count) {
+        canaries = new CountDownLatch(ENABLED ? count : 0);
+    }
+
+    private static void awaitCanaries() {
+        CountDownLatch latch = canaries;
+        if (latch.getCount() == 0) return;
+        try {
+            int timeout = CommonUtils.getGlobalIntProperty("canaryTimeoutSeconds", 600);
+            if (!latch.await(timeout, TimeUnit.SECONDS)) {
+                System.err.println("Canary scenarios still running after " + timeout + "s, starting the rest of the suite");
+                canaries = new CountDownLatch(0);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static boolean isOpen() {
+        return OPEN_REASON.get() != null;
+    }
+
+    /** Reason the circuit opened, or null. */
+    public static String getOpenReason() {
+        return OPEN_REASON.get();
+    }
+
+    public static int getSkippedCount() {
+        return SKIPPED.get();
+    }
+
+    // ---------------- EVENTS ----------------
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestStepFinished.class, this::stepFinished);
+        publisher.registerHandlerFor(TestCaseFinished.class, this::caseFinished);
+    }
+
+    private void stepFinished(TestStepFinished event) {
+        if (event.getTestStep() instanceof HookTestStep
+                && ((HookTestStep) event.getTestStep()).getHookType() == HookType.BEFORE
+                && event.getResult().getStatus() == Status.FAILED) {
+            BEFORE_HOOK_FAILED.set(Boolean.TRUE);
+        }
+    }
+
+    private void caseFinished(TestCaseFinished event) {
+        boolean beforeHookFailed = Boolean.TRUE.equals(BEFORE_HOOK_FAILED.get());
+        BEFORE_HOOK_FAILED.remove();
+        boolean canary = event.getTestCase().getTags().contains(CANARY_TAG);
+        // Hooks' @After has already run: a scheduled rerun means this attempt is not the outcome
+        if (ScenarioRerun.isScheduled(ScenarioHistory.key(event.getTestCase().getUri(),
+                event.getTestCase().getLocation().getLine()))) {
+            return;
+        }
+        try {
+            if (!ENABLED) return;
+            Status status = event.getResult().getStatus();
+            if (status == Status.SKIPPED) return;   // includes scenarios skipped by the open circuit
+
+            String name = event.getTestCase().getName();
+            boolean failed = status == Status.FAILED;
+            record(name, failed, failed && (beforeHookFailed || isInfraError(event.getResult().getError())), canary);
+        } finally {
+            if (canary) canaries.countDown();
+        }
+    }
+
+    static void record(String scenario, boolean failed, boolean infraError, boolean canary) {
+        int finished = FINISHED.incrementAndGet();
+        int failedCount = failed ? FAILED.incrementAndGet() : FAILED.get();
+        int consecutive = infraError ? CONSECUTIVE_INFRA.incrementAndGet() : resetConsecutive();
+
+        if (failed && canary) {
+            open("canary scenario '" + scenario + "' failed");
+        } else if (INFRA_THRESHOLD > 0 && consecutive >= INFRA_THRESHOLD) {
+            open(consecutive + " consecutive scenarios failed on infrastructure errors (last: '" + scenario + "')");
+        } else if (FAILURE_RATE > 0 && finished >= MIN_SCENARIOS && failedCount >= FAILURE_RATE * finished) {
+            open(failedCount + " of " + finished + " scenarios failed (threshold "
+                    + Math.round(FAILURE_RATE * 100) + "%)");
+        }
+    }
+
+    private static int resetConsecutive() {
+        CONSECUTIVE_INFRA.set(0);
+        return 0;
+    }
+
+    private static void open(String reason) {
+        if (OPEN_REASON.compareAndSet(null, reason)) {
+            System.err.println("Circuit breaker opened: " + reason + " - remaining scenarios will be skipped");
+        }
+    }
+
+    static boolean isInfraError(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            String cls = t.getClass().getName();
+            String message = String.valueOf(t.getMessage()).toLowerCase(Locale.ROOT);
+            for (String pattern : INFRA_PATTERNS) {
+                if (cls.endsWith(pattern) || message.contains(pattern.toLowerCase(Locale.ROOT))) return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<String> split(String value) {
+        List<String> out = new ArrayList<>();
+        for (String s : value.split(",")) {
+            if (!s.trim().isEmpty()) out.add(s.trim());
+        }
+        return out;
+    }
+}
@@ -0,0 +1,58 @@
+package utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Named locks for scenarios tagged {@code @exclusive:<name>}.
+ *
+ * Hooks acquires the locks before the scenario starts and releases them after it ends, so two
+ * scenarios sharing a resource never overlap while the rest of the suite stays parallel.
+ * Locks are taken in sorted name order to rule out deadlocks between multi-resource scenarios.
+ */
+public final class ExclusiveResources {
+
+    public static final String TAG_PREFIX = "@exclusive:";
+
+    private static final ConcurrentMap<String, ReentrantLock> LOCKS = new ConcurrentHashMap<>();
+
+    // locks held by the current thread's scenario, released in reverse order
+    private static final ThreadLocal<Deque<ReentrantLock>> HELD = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private ExclusiveResources() {}
+
+    /** Block until every resource named by the scenario's tags is free. */
+    public static void acquire(Collection<String> tags) {
+        List<String> names = new ArrayList<>();
+        for (String tag : tags) {
+            if (tag.startsWith(TAG_PREFIX) && tag.length() > TAG_PREFIX.length()) {
+                names.add(tag.substring(TAG_PREFIX.length()));
+            }
+        }
+        if (names.isEmpty()) return;
+        Collections.sort(names);
+
+        Deque<ReentrantLock> held = HELD.get();
+        for (String name : names) {
+            ReentrantLock lock = LOCKS.computeIfAbsent(name, n -> new ReentrantLock(true));
+            lock.lock();
+            held.push(lock);
+        }
+    }
+
+    /** Release whatever the current thread acquired. Safe to call when nothing is held. */
+    public static void release() {
+        Deque<ReentrantLock> held = HELD.get();
+        while (!held.isEmpty()) {
+            held.pop().unlock();
+        }
+        HELD.remove();
+    }
+}
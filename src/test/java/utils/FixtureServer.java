@@ -0,0 +1,133 @@
+package utils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Local HTTP server for fixture pages (classpath folder fixtures/), so navigation and resource
+ * policy behaviour can be measured without depending on the public site.
+ *
+ * Paths starting with one of fixtureServerSlowPaths are answered after fixtureServerSlowMillis,
+ * simulating slow third-party images and tags; compare a run with and without
+ * -DresourceBlockPatterns=*slow* to see what blocking saves.
+ *
+ * Settings (global.properties or -D system properties):
+ *   fixtureServerPort        port to bind, 0 = any free port (default 0)
+ *   fixtureServerSlowPaths   comma-separated path prefixes to delay (default /slow/)
+ *   fixtureServerSlowMillis  delay for those paths (default 2000)
+ *
+ * Folder URLs serve their index.html. fixtures/saucedemo/ is an offline copy of the Sauce Demo
+ * pages the features use (baseUrl = fixture, and the StubWebDriver's default route).
+ *
+ * Usage:
+ *   driver.get(FixtureServer.url("/shop/index.html"));
+ */
+public final class FixtureServer {
+
+    private static final String ROOT = "fixtures";
+
+    private static HttpServer server;
+    private static String baseUrl;
+
+    private FixtureServer() {}
+
+    /** Start once per JVM (idempotent) and return the base URL, e.g. http://127.0.0.1:41234 */
+    public static synchronized String start() {
+        if (server == null) {
+            try {
+                HttpServer s = HttpServer.create(new InetSocketAddress("127.0.0.1",
+                        CommonUtils.getGlobalIntProperty("fixtureServerPort", 0)), 0);
+                List<String> slowPaths = new ArrayList<>();
+                for (String p : CommonUtils.getGlobalProperty("fixtureServerSlowPaths", "/slow/").split(",")) {
+                    if (!p.trim().isEmpty()) slowPaths.add(p.trim());
+                }
+                long slowMillis = CommonUtils.getGlobalIntProperty("fixtureServerSlowMillis", 2000);
+
+                s.createContext("/", exchange -> handle(exchange, slowPaths, slowMillis));
+                ExecutorService executor = Executors.newCachedThreadPool(r -> {
+                    Thread t = new Thread(r, "fixture-server");
+                    t.setDaemon(true);
+                    return t;
+                });
+                s.setExecutor(executor);
+                // the dispatcher thread inherits daemon status from the thread calling start()
+                Thread starter = new Thread(s::start, "fixture-server-start");
+                starter.setDaemon(true);
+                starter.start();
+                starter.join();
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> s.stop(0), "fixture-server-stop"));
+                server = s;
+                baseUrl = "http://127.0.0.1:" + s.getAddress().getPort();
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to start fixture server", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while starting fixture server", e);
+            }
+        }
+        return baseUrl;
+    }
+
+    public static String url(String path) {
+        return start() + (path.startsWith("/") ? path : "/" + path);
+    }
+
+    private static void handle(HttpExchange exchange, List<String> slowPaths, long slowMillis) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            if (path.endsWith("/")) path += "index.html";
+            for (String slow : slowPaths) {
+                if (path.startsWith(slow)) {
+                    sleep(slowMillis);
+                    break;
+                }
+            }
+
+            byte[] body = null;
+            if (!path.contains("..")) {
+                try (InputStream in = FixtureServer.class.getClassLoader().getResourceAsStream(ROOT + path)) {
+                    if (in != null) body = in.readAllBytes();
+                }
+            }
+            if (body == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            exchange.getResponseHeaders().add("Content-Type", contentType(path));
+            exchange.getResponseHeaders().add("Cache-Control", "no-store");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String contentType(String path) {
+        String p = path.toLowerCase(Locale.ROOT);
+        if (p.endsWith(".html")) return "text/html; charset=utf-8";
+        if (p.endsWith(".js")) return "application/javascript";
+        if (p.endsWith(".css")) return "text/css";
+        if (p.endsWith(".png")) return "image/png";
+        if (p.endsWith(".svg")) return "image/svg+xml";
+        if (p.endsWith(".woff2")) return "font/woff2";
+        return "application/octet-stream";
+    }
+}
@@ -0,0 +1,128 @@
+package utils;
+
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.HookTestStep;
+import io.cucumber.plugin.event.PickleStepTestStep;
+import io.cucumber.plugin.event.TestCaseFinished;
+import io.cucumber.plugin.event.TestCaseStarted;
+import io.cucumber.plugin.event.TestRunFinished;
+import io.cucumber.plugin.event.TestRunStarted;
+import io.cucumber.plugin.event.TestStep;
+import io.cucumber.plugin.event.TestStepFinished;
+import io.cucumber.plugin.event.TestStepStarted;
+
+import java.io.File;
+
+/**
+ * Cucumber plugin that turns step / hook / scenario lifecycle events into {@link Metrics} histograms.
+ *
+ * Registered in TestRunner's @CucumberOptions. Cucumber publishes these events on the thread that
+ * runs the scenario, so the per-thread {@link Metrics#current()} accumulator (fed by the WebDriver
+ * command listener, SmartWait and screenshot capture) is attributed to the step that just finished.
+ * Step boundaries are also passed to {@link CommandProfiler} for N+1 lookup detection.
+ *
+ * Settings (global.properties or -D system properties):
+ *   metricsFormat   prometheus | json | both | none (default both)
+ *   metricsDir      output folder (default target/metrics, per shard when sharded)
+ *
+ * Output: metrics.prom / metrics.json, written once at TestRunFinished.
+ */
+public class MetricsPlugin implements ConcurrentEventListener {
+
+    // command / wait / screenshot totals of the scenario running on this thread
+    private static final ThreadLocal<Metrics.Accumulator> SCENARIO = ThreadLocal.withInitial(Metrics.Accumulator::new);
+
+    private volatile long runStartNanos;
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestRunStarted.class, e -> runStartNanos = System.nanoTime());
+        publisher.registerHandlerFor(TestCaseStarted.class, this::caseStarted);
+        publisher.registerHandlerFor(TestStepStarted.class, this::stepStarted);
+        publisher.registerHandlerFor(TestStepFinished.class, this::stepFinished);
+        publisher.registerHandlerFor(TestCaseFinished.class, this::caseFinished);
+        publisher.registerHandlerFor(TestRunFinished.class, this::runFinished);
+    }
+
+    private void caseStarted(TestCaseStarted event) {
+        SCENARIO.get().reset();
+        Metrics.current().reset();
+        CommandProfiler.startScenario(event.getTestCase().getName());
+    }
+
+    private void stepStarted(TestStepStarted event) {
+        Metrics.current().reset();
+        TestStep step = event.getTestStep();
+        if (step instanceof PickleStepTestStep) {
+            PickleStepTestStep pickleStep = (PickleStepTestStep) step;
+            CommandProfiler.startStep(pickleStep.getStep().getKeyword() + pickleStep.getStep().getText());
+        } else if (step instanceof HookTestStep) {
+            CommandProfiler.startStep(((HookTestStep) step).getHookType().name().toLowerCase() + " hook");
+        }
+    }
+
+    private void stepFinished(TestStepFinished event) {
+        TestStep step = event.getTestStep();
+        String type;
+        String name;
+        if (step instanceof PickleStepTestStep) {
+            type = "step";
+            name = ((PickleStepTestStep) step).getPattern();   // step definition pattern keeps cardinality bounded
+        } else if (step instanceof HookTestStep) {
+            type = "hook_" + ((HookTestStep) step).getHookType().name().toLowerCase();
+            name = step.getCodeLocation();
+        } else {
+            type = "other";
+            name = step.getCodeLocation();
+        }
+
+        Metrics.Accumulator acc = Metrics.current();
+        Metrics.histogram("step_duration_seconds", "type", type, "name", String.valueOf(name))
+                .recordNanos(event.getResult().getDuration().toNanos());
+        Metrics.histogram("step_webdriver_commands", Metrics.COUNT_BUCKETS, "type", type).record(acc.commands);
+        Metrics.histogram("step_webdriver_seconds", "type", type).recordNanos(acc.commandNanos);
+        Metrics.histogram("step_wait_seconds", "type", type).recordNanos(acc.waitNanos);
+        Metrics.histogram("step_screenshot_seconds", "type", type).recordNanos(acc.screenshotNanos);
+
+        Metrics.Accumulator scenario = SCENARIO.get();
+        scenario.commands += acc.commands;
+        scenario.commandNanos += acc.commandNanos;
+        scenario.waitNanos += acc.waitNanos;
+        scenario.screenshotNanos += acc.screenshotNanos;
+        acc.reset();
+    }
+
+    private void caseFinished(TestCaseFinished event) {
+        String status = event.getResult().getStatus().name().toLowerCase();
+        Metrics.Accumulator scenario = SCENARIO.get();
+        Metrics.histogram("scenario_duration_seconds", "status", status)
+                .recordNanos(event.getResult().getDuration().toNanos());
+        Metrics.histogram("scenario_webdriver_commands", Metrics.COUNT_BUCKETS).record(scenario.commands);
+        Metrics.histogram("scenario_webdriver_seconds").recordNanos(scenario.commandNanos);
+        Metrics.histogram("scenario_wait_seconds").recordNanos(scenario.waitNanos);
+        Metrics.histogram("scenario_screenshot_seconds").recordNanos(scenario.screenshotNanos);
+        SCENARIO.remove();
+        Metrics.current().reset();
+    }
+
+    private void runFinished(TestRunFinished event) {
+        if (runStartNanos > 0) {
+            Metrics.histogram("run_duration_seconds").recordNanos(System.nanoTime() - runStartNanos);
+        }
+        String format = CommonUtils.getGlobalProperty("metricsFormat", "both").trim().toLowerCase();
+        if ("none".equals(format)) return;
+
+        String dir = CommonUtils.getGlobalProperty("metricsDir", "target/metrics") + "/" + ShardConfig.getOutputSubfolder();
+        try {
+            if ("prometheus".equals(format) || "both".equals(format)) {
+                Metrics.writePrometheus(new File(dir, "metrics.prom"));
+            }
+            if ("json".equals(format) || "both".equals(format)) {
+                Metrics.writeJson(new File(dir, "metrics.json"));
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to write metrics to " + dir + ": " + e.getMessage());
+        }
+    }
+}
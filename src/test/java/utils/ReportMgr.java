@@ -1,37 +1,177 @@
 package utils;
 
 import com.aventstack.extentreports.ExtentReports;
-import com.aventstack.extentreports.ExtentTest;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class ReportMgr {
 
-    // ReportMgr - manages ExtentReports instance and ThreadLocal ExtentTest for parallel execution.
+    // ReportMgr - manages ExtentReports instance and ThreadLocal test node for parallel execution.
+    //
+    // Scenario threads only write to their own BufferedExtentTest. Finished nodes go into a lock-free
+    // queue; one thread at a time (under flushLock) replays them into ExtentReports and writes the
+    // HTML. Flushes happen every reportFlushEveryScenarios completions, every
+    // reportFlushIntervalSeconds, and once at suite end - not after every scenario.
+    //
+    // reportMode=streaming replaces the Extent model: finished nodes are appended to an NDJSON
+    // event log right away and dropped, and the HTML is rendered from the log at suite end
+    // (see StreamingReport), so memory stays flat however many scenarios run.
+
+    private static final int FLUSH_EVERY = Math.max(1, CommonUtils.getGlobalIntProperty("reportFlushEveryScenarios", 25));
+    private static final int FLUSH_INTERVAL_SECONDS = CommonUtils.getGlobalIntProperty("reportFlushIntervalSeconds", 30);
+
+    private static final boolean STREAMING = "streaming".equalsIgnoreCase(CommonUtils.getGlobalProperty("reportMode", "extent").trim());
 
-    private static ExtentReports extent;
-    private static final ThreadLocal<ExtentTest> testThreadLocal = new ThreadLocal<>();
+    private static volatile ExtentReports extent;
+    private static volatile StreamingReport streaming;
+    private static final ThreadLocal<BufferedExtentTest> testThreadLocal = new ThreadLocal<>();
+
+    private static final Queue<BufferedExtentTest> completed = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger completedSinceFlush = new AtomicInteger();
+    private static final ReentrantLock flushLock = new ReentrantLock();
+    private static ScheduledExecutorService timer;
 
     private ReportMgr() {
         // prevent instantiation
     }
     /** Initialize once in @BeforeSuite or first scenario before creating tests */
-    public static void init(ExtentReports ext) {
+    public static synchronized void init(ExtentReports ext) {
         extent = ext;
+        if (timer == null && FLUSH_INTERVAL_SECONDS > 0) {
+            timer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "extent-report-flusher");
+                t.setDaemon(true);
+                return t;
+            });
+            timer.scheduleWithFixedDelay(ReportMgr::tryFlush, FLUSH_INTERVAL_SECONDS, FLUSH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+            // nodes completed after the last flush still reach the report if @AfterAll never runs
+            Runtime.getRuntime().addShutdownHook(new Thread(ReportMgr::tryFlush, "extent-report-final-flush"));
+        }
+    }
+    /** Initialize streaming mode once instead of {@link #init(ExtentReports)} */
+    public static synchronized void initStreaming(StreamingReport report) {
+        streaming = report;
+        // render whatever was logged if @AfterAll never runs
+        Runtime.getRuntime().addShutdownHook(new Thread(report::render, "streaming-report-render"));
     }
-    /** Get global ExtentReports instance */
+
+    /** True when reportMode=streaming */
+    public static boolean isStreaming() {
+        return STREAMING;
+    }
+
+    /** True once either init method ran */
+    public static boolean isInitialized() {
+        return extent != null || streaming != null;
+    }
+
+    /** Get global ExtentReports instance (mutate it only through ReportMgr once tests are running) */
     public static ExtentReports getExtent() {
         return extent;
     }
-    /** Set ExtentTest for the current thread */
-    public static void setTest(ExtentTest t) {
+    /** Create a buffered test node; nothing touches the shared report until it is completed */
+    public static BufferedExtentTest createTest(String name) {
+        return new BufferedExtentTest(name);
+    }
+    /** Set test node for the current thread */
+    public static void setTest(BufferedExtentTest t) {
         testThreadLocal.set(t);
     }
-    /** Get ExtentTest associated with current thread */
-    public static ExtentTest getTest() {
+    /**
+     * Get test node associated with current thread.
+     * Returned ExtentTest before nodes were buffered; callers declaring ExtentTest switch to
+     * BufferedExtentTest (the String logging methods and assignCategory match ExtentTest).
+     */
+    public static BufferedExtentTest getTest() {
         return testThreadLocal.get();
     }
     /** Clean up thread-local */
     public static void removeTest() {
         testThreadLocal.remove();
     }
-}
 
+    /** Queue a finished scenario for the report; flushes when enough scenarios have completed */
+    public static void completeTest(BufferedExtentTest t) {
+        if (t == null) return;
+        t.markEnded();
+        StreamingReport s = streaming;
+        if (s != null) {
+            s.append(t);   // written now, nothing retained
+            return;
+        }
+        completed.add(t);
+        if (completedSinceFlush.incrementAndGet() >= FLUSH_EVERY) {
+            tryFlush();
+        }
+    }
+
+    /** Set report-level system info without racing a background flush */
+    public static void setSystemInfo(String key, String value) {
+        StreamingReport s = streaming;
+        if (s != null) {
+            s.appendInfo(key, value);
+            return;
+        }
+        flushLock.lock();
+        try {
+            if (extent != null) extent.setSystemInfo(key, value);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /** Flush unless another thread is already doing it (that flush will pick up our nodes or the next one will) */
+    public static void tryFlush() {
+        if (flushLock.tryLock()) {
+            try {
+                drainAndFlush(false);
+            } finally {
+                flushLock.unlock();
+            }
+        }
+    }
+
+    /** Blocking flush of everything completed so far - call once at suite end */
+    public static void flush() {
+        StreamingReport s = streaming;
+        if (s != null) {
+            s.render();
+            return;
+        }
+        flushLock.lock();
+        try {
+            drainAndFlush(true);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private static void drainAndFlush(boolean force) {
+        ExtentReports ext = extent;
+        if (ext == null) return;
+        completedSinceFlush.set(0);
+        BufferedExtentTest t;
+        boolean any = false;
+        while ((t = completed.poll()) != null) {
+            try {
+                t.replayInto(ext);
+            } catch (Exception e) {
+                System.err.println("Unable to add '" + t.getName() + "' to report: " + e.getMessage());
+            }
+            any = true;
+        }
+        if (any || force) {
+            try {
+                ext.flush();
+            } catch (Exception e) {
+                System.err.println("Extent flush failed: " + e.getMessage());
+            }
+        }
+    }
+}
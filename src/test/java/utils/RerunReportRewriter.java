@@ -0,0 +1,160 @@
+package utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.File;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Drops superseded attempts of rerun scenarios from Cucumber's cucumber.json and cucumber.xml.
+ *
+ * Cucumber reports every attempt ScenarioRerun makes, so a scenario that failed and then passed
+ * on its rerun would still count as a failure for CI tools parsing these files. After Cucumber
+ * has written them (runner @AfterClass), only the last attempt of each rerun scenario is kept;
+ * in cucumber.json a flaky one also gets the @flaky tag. cucumber.html keeps every attempt.
+ */
+public final class RerunReportRewriter {
+
+    public static final String FLAKY_TAG = "@" + ScenarioRerun.FLAKY_CATEGORY;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private RerunReportRewriter() {}
+
+    /** Rewrite dir/cucumber.json and dir/cucumber.xml; nothing to do when no scenario was rerun. */
+    public static void rewrite(File dir) {
+        Set<String> rerun = ScenarioRerun.getRerunKeys();
+        if (rerun.isEmpty()) return;
+        Set<String> flaky = ScenarioRerun.getFlaky().keySet();
+
+        // feature name + scenario name of every rerun scenario, to find its JUnit test cases
+        Set<String> junitNames = new HashSet<>();
+        File json = new File(dir, "cucumber.json");
+        if (json.isFile()) {
+            try {
+                rewriteJson(json, rerun, flaky, junitNames);
+            } catch (Exception e) {
+                System.err.println("Unable to drop rerun attempts from " + json + ": " + e.getMessage());
+            }
+        }
+        File xml = new File(dir, "cucumber.xml");
+        if (xml.isFile() && !junitNames.isEmpty()) {
+            try {
+                rewriteJunit(xml, junitNames);
+            } catch (Exception e) {
+                System.err.println("Unable to drop rerun attempts from " + xml + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // ---------------- cucumber.json ----------------
+
+    private static void rewriteJson(File file, Set<String> rerun, Set<String> flaky, Set<String> junitNames) throws Exception {
+        JsonNode root = MAPPER.readTree(file);
+        boolean changed = false;
+        for (JsonNode feature : root) {
+            JsonNode elements = feature.path("elements");
+            if (!elements.isArray()) continue;
+            URI uri = URI.create(feature.path("uri").asText());
+
+            // key -> index of the last attempt (latest start)
+            Map<String, Integer> last = new HashMap<>();
+            for (int i = 0; i < elements.size(); i++) {
+                JsonNode e = elements.get(i);
+                if (!"scenario".equals(e.path("type").asText())) continue;
+                String key = ScenarioHistory.key(uri, e.path("line").asInt());
+                if (!rerun.contains(key)) continue;
+                Integer prev = last.get(key);
+                if (prev == null || !startsAfter(elements.get(prev), e)) last.put(key, i);
+            }
+            if (last.isEmpty()) continue;
+
+            ArrayNode kept = MAPPER.createArrayNode();
+            for (int i = 0; i < elements.size(); i++) {
+                JsonNode e = elements.get(i);
+                String key = "scenario".equals(e.path("type").asText()) ? ScenarioHistory.key(uri, e.path("line").asInt()) : null;
+                Integer keep = key == null ? null : last.get(key);
+                if (keep == null) {
+                    kept.add(e);
+                } else if (keep == i) {
+                    if (flaky.contains(key) && e instanceof ObjectNode) {
+                        ((ObjectNode) e).withArray("tags").addObject().put("name", FLAKY_TAG);
+                    }
+                    junitNames.add(feature.path("name").asText() + "\u0000" + e.path("name").asText());
+                    kept.add(e);
+                }
+            }
+            changed |= kept.size() != elements.size();
+            ((ObjectNode) feature).set("elements", kept);
+        }
+        if (changed) MAPPER.writerWithDefaultPrettyPrinter().writeValue(file, root);
+    }
+
+    private static boolean startsAfter(JsonNode a, JsonNode b) {
+        return a.path("start_timestamp").asText("").compareTo(b.path("start_timestamp").asText("")) > 0;
+    }
+
+    // ---------------- cucumber.xml ----------------
+
+    // keep the last test case per rerun scenario (attempts are written in finishing order)
+    private static void rewriteJunit(File file, Set<String> junitNames) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+        Document doc = factory.newDocumentBuilder().parse(file);
+        Element suite = doc.getDocumentElement();
+
+        NodeList cases = suite.getElementsByTagName("testcase");
+        Map<String, Element> lastCase = new HashMap<>();
+        List<Element> all = new ArrayList<>();
+        for (int i = 0; i < cases.getLength(); i++) {
+            Element c = (Element) cases.item(i);
+            all.add(c);
+            String name = c.getAttribute("classname") + "\u0000" + c.getAttribute("name");
+            if (junitNames.contains(name)) lastCase.put(name, c);
+        }
+        int tests = 0, failures = 0, errors = 0, skipped = 0;
+        boolean changed = false;
+        for (Element c : all) {
+            Element keep = lastCase.get(c.getAttribute("classname") + "\u0000" + c.getAttribute("name"));
+            if (keep != null && keep != c) {
+                Node before = c.getPreviousSibling();
+                if (before != null && before.getNodeType() == Node.TEXT_NODE) suite.removeChild(before);
+                suite.removeChild(c);
+                changed = true;
+                continue;
+            }
+            tests++;
+            if (c.getElementsByTagName("failure").getLength() > 0) failures++;
+            if (c.getElementsByTagName("error").getLength() > 0) errors++;
+            if (c.getElementsByTagName("skipped").getLength() > 0) skipped++;
+        }
+        if (!changed) return;
+        suite.setAttribute("tests", Integer.toString(tests));
+        suite.setAttribute("failures", Integer.toString(failures));
+        suite.setAttribute("errors", Integer.toString(errors));
+        suite.setAttribute("skipped", Integer.toString(skipped));
+
+        Transformer out = TransformerFactory.newInstance().newTransformer();
+        out.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+        out.transform(new DOMSource(doc), new StreamResult(file));
+    }
+}
@@ -0,0 +1,146 @@
+package utils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local history of scenario durations, used to schedule long scenarios first.
+ *
+ * Scenarios are keyed by feature path (relative to the project) + line, e.g.
+ * "src/test/resources/features/login.feature:7". The file survives "mvn clean". JVMs running at the
+ * same time on one machine (shards, forks) each merge their durations into it at suite end.
+ *
+ * Settings (global.properties or -D system properties):
+ *   scenarioHistoryFile   path of the history file (default .scenario-history/durations.properties)
+ */
+public final class ScenarioHistory {
+
+    // weight of the newest run when smoothing durations (exponential moving average)
+    private static final double NEW_RUN_WEIGHT = 0.5;
+
+    private static final File FILE = new File(CommonUtils.getGlobalProperty("scenarioHistoryFile",
+            System.getProperty("user.dir") + File.separator + ".scenario-history" + File.separator + "durations.properties"));
+
+    private static final Map<String, Long> PREVIOUS = read(FILE);
+    private static final Map<String, Long> CURRENT = new ConcurrentHashMap<>();
+
+    private ScenarioHistory() {}
+
+    // ---------------- KEYS ----------------
+
+    /** Stable, machine-independent key for a scenario location. */
+    public static String key(URI featureUri, int line) {
+        // file:/abs/path -> path; classpath:features/x.feature (opaque) -> scheme-specific part
+        String path = featureUri.isOpaque() ? featureUri.getSchemeSpecificPart() : featureUri.getPath();
+        path = path.replace('\\', '/');
+        String base = new File(System.getProperty("user.dir")).toURI().getPath();
+        if (path.startsWith(base)) path = path.substring(base.length());
+        return path + ":" + line;
+    }
+
+    // ---------------- READ ----------------
+
+    /** Duration from previous runs in millis, or -1 when the scenario has never run. */
+    public static long getDurationMillis(String key) {
+        Long d = PREVIOUS.get(key);
+        return d == null ? -1 : d;
+    }
+
+    /** Average of all known durations, or {@code fallback} when there is no history yet. */
+    public static long getAverageMillis(long fallback) {
+        if (PREVIOUS.isEmpty()) return fallback;
+        long sum = 0;
+        for (long d : PREVIOUS.values()) sum += d;
+        return sum / PREVIOUS.size();
+    }
+
+    // ---------------- WRITE ----------------
+
+    /** Record the duration of a finished scenario in this run. */
+    public static void record(String key, long millis) {
+        CURRENT.put(key, millis);
+    }
+
+    /** Merge this run into the history file. Called once at suite end. */
+    public static synchronized void save() {
+        if (CURRENT.isEmpty()) return;
+        if (isShardHistory()) {
+            System.err.println("Not saving scenario history: " + FILE + " is the shard.historyFile of this sharded run");
+            return;
+        }
+
+        File dir = FILE.getAbsoluteFile().getParentFile();
+        if (dir != null && !dir.exists()) dir.mkdirs();
+        // other JVMs (shards, forks) on this machine save into the same file: take turns through
+        // a lock file and merge into the history as it is now, not as it was at startup
+        File lockFile = new File(dir, FILE.getName() + ".lock");
+        try (FileChannel channel = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock ignored = channel.lock()) {
+            Map<String, Long> onDisk = read(FILE);
+            Properties out = new Properties();
+            onDisk.forEach((k, v) -> out.setProperty(k, Long.toString(v)));
+            CURRENT.forEach((k, v) -> {
+                Long old = onDisk.get(k);
+                long smoothed = old == null ? v : Math.round(NEW_RUN_WEIGHT * v + (1 - NEW_RUN_WEIGHT) * old);
+                out.setProperty(k, Long.toString(smoothed));
+            });
+
+            // write-then-rename so a killed JVM never leaves a half-written history; the temp
+            // file is per process so concurrent saves never write into each other's
+            Path tmp = Files.createTempFile(dir.toPath(), FILE.getName() + ".", ".tmp");
+            try {
+                try (OutputStream os = Files.newOutputStream(tmp)) {
+                    out.store(os, "Scenario durations in millis (smoothed across runs)");
+                }
+                Files.move(tmp, FILE.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            System.err.println("Unable to save scenario history " + FILE + ": " + e.getMessage());
+        }
+    }
+
+    // the shard split reads shard.historyFile on every shard, so a sharded run must not rewrite it
+    private static boolean isShardHistory() {
+        String shardFile = CommonUtils.getGlobalProperty("shard.historyFile", "").trim();
+        if (!ShardConfig.isSharded() || shardFile.isEmpty()) return false;
+        return new File(shardFile).getAbsoluteFile().toPath().normalize()
+                .equals(FILE.getAbsoluteFile().toPath().normalize());
+    }
+
+    /** Durations in a history file (empty when it does not exist); also used for shard.historyFile. */
+    public static Map<String, Long> read(File file) {
+        Map<String, Long> map = new ConcurrentHashMap<>();
+        if (!file.isFile()) return map;
+
+        Properties props = new Properties();
+        try (InputStream is = new FileInputStream(file)) {
+            props.load(is);
+        } catch (IOException e) {
+            System.err.println("Unable to read scenario history " + file + ": " + e.getMessage());
+            return map;
+        }
+        for (String k : props.stringPropertyNames()) {
+            try {
+                map.put(k, Long.parseLong(props.getProperty(k).trim()));
+            } catch (NumberFormatException ignored) {
+                // skip corrupt line, it is rewritten on the next save
+            }
+        }
+        return map;
+    }
+}
@@ -0,0 +1,183 @@
+package utils;
+
+import io.cucumber.testng.Pickle;
+import io.cucumber.testng.PickleWrapper;
+import org.testng.IRetryAnalyzer;
+import org.testng.ITestResult;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Reruns failed scenarios within a bounded budget and reports the ones that pass on a rerun as flaky.
+ *
+ * TestNG retry analyzer of TestRunner's scenario methods. When a scenario fails, Hooks asks
+ * {@link #afterScenario} whether it may be rerun (attempts per scenario, distinct scenarios and
+ * total rerun time are all capped, and nothing is rerun once the CircuitBreaker is open). If so,
+ * its report node is kept open and TestNG runs the same scenario again right away:
+ *   - one rerun at a time across all workers (the others keep running the main pass)
+ *   - on a newly launched browser, never a pooled one
+ *   - into the same Extent node: earlier failures become warnings tagged with their attempt
+ * TestNG marks the retried attempt as skipped, so only the last attempt decides the build result.
+ * A scenario that passes on a rerun gets the "flaky" category in Extent, a note in the Cucumber
+ * reports and a line in flaky.txt (uri:line, the Cucumber rerun file format). Cucumber reports every
+ * attempt; {@link RerunReportRewriter} then keeps only the last one in cucumber.json/cucumber.xml.
+ *
+ * Settings (global.properties or -D system properties):
+ *   rerunFailedScenarios   false = no reruns (default true)
+ *   rerunAttempts          reruns per failed scenario (default 1)
+ *   rerunMaxScenarios      distinct scenarios rerun per run (default 5)
+ *   rerunBudgetSeconds     total time spent in reruns per run (default 600)
+ */
+public class ScenarioRerun implements IRetryAnalyzer {
+
+    public static final String FLAKY_CATEGORY = "flaky";
+
+    public enum Outcome { NONE, RERUN_SCHEDULED, FLAKY, FAILED_AFTER_RERUN }
+
+    private static final boolean ENABLED = CommonUtils.getGlobalBooleanProperty("rerunFailedScenarios", true);
+    private static final int MAX_ATTEMPTS = CommonUtils.getGlobalIntProperty("rerunAttempts", 1);
+    private static final int MAX_SCENARIOS = CommonUtils.getGlobalIntProperty("rerunMaxScenarios", 5);
+    private static final long BUDGET_NANOS = CommonUtils.getGlobalIntProperty("rerunBudgetSeconds", 600) * 1_000_000_000L;
+
+    // scenario key -> report node of the failed attempt, waiting for TestNG to start the rerun
+    private static final ConcurrentMap<String, BufferedExtentTest> PENDING = new ConcurrentHashMap<>();
+    // scenario key -> reruns started so far
+    private static final ConcurrentMap<String, Integer> ATTEMPTS = new ConcurrentHashMap<>();
+    private static final Map<String, String> FLAKY = Collections.synchronizedMap(new LinkedHashMap<>());
+    private static final AtomicLong SPENT_NANOS = new AtomicLong();
+    private static final ReentrantLock SERIAL = new ReentrantLock(true);
+
+    // start time of the rerun running on this thread
+    private static final ThreadLocal<long[]> CURRENT = new ThreadLocal<>();
+
+    // ---------------- TESTNG ----------------
+
+    @Override
+    public boolean retry(ITestResult result) {
+        Object[] params = result.getParameters();
+        if (params.length == 0 || !(params[0] instanceof PickleWrapper)) return false;
+        Pickle pickle = ((PickleWrapper) params[0]).getPickle();
+        return PENDING.containsKey(ScenarioHistory.key(pickle.getUri(), pickle.getLine()));
+    }
+
+    // ---------------- HOOKS SIDE ----------------
+
+    /**
+     * Called in @Before. When this scenario is a scheduled rerun: waits for any other rerun to
+     * finish and returns the failed attempt's report node to continue; otherwise null.
+     */
+    public static BufferedExtentTest beginRerun(String key) {
+        BufferedExtentTest node = PENDING.remove(key);
+        if (node == null) return null;
+
+        SERIAL.lock();
+        CURRENT.set(new long[] {System.nanoTime()});
+        int attempt = ATTEMPTS.merge(key, 1, Integer::sum);
+        node.downgradeFailures("[attempt " + attempt + "] ");
+        node.info("Rerun " + attempt + " of " + MAX_ATTEMPTS + " (serial, fresh browser)");
+        return node;
+    }
+
+    /** True while a rerun started by {@link #beginRerun} runs on this thread. */
+    public static boolean isRerun() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * Called in @After with the final result. Ends a running rerun and decides whether a failed
+     * scenario gets (another) rerun; with RERUN_SCHEDULED the caller must not complete the node.
+     */
+    public static Outcome afterScenario(String key, String name, boolean failed, BufferedExtentTest node) {
+        boolean wasRerun = endRerun();
+        if (!failed) {
+            if (!wasRerun) return Outcome.NONE;
+            FLAKY.put(key, name);
+            if (node != null) {
+                node.assignCategory(FLAKY_CATEGORY);
+                node.warning("Flaky: failed, then passed on rerun " + ATTEMPTS.get(key));
+            }
+            return Outcome.FLAKY;
+        }
+        if (node != null && canRerun(key)) {
+            PENDING.put(key, node);
+            return Outcome.RERUN_SCHEDULED;
+        }
+        if (wasRerun && node != null) node.assignCategory("rerun-failed");
+        return wasRerun ? Outcome.FAILED_AFTER_RERUN : Outcome.NONE;
+    }
+
+    /** True when a rerun of this scenario is scheduled and has not started yet. */
+    public static boolean isScheduled(String key) {
+        return PENDING.containsKey(key);
+    }
+
+    /** Scheduled rerun that will not run after all; returns its node to complete, or null. */
+    public static BufferedExtentTest abandon(String key) {
+        return PENDING.remove(key);
+    }
+
+    private static boolean endRerun() {
+        long[] started = CURRENT.get();
+        if (started == null) return false;
+        CURRENT.remove();
+        SPENT_NANOS.addAndGet(System.nanoTime() - started[0]);
+        SERIAL.unlock();
+        return true;
+    }
+
+    private static boolean canRerun(String key) {
+        if (!ENABLED || CircuitBreaker.isOpen()) return false;
+        Integer done = ATTEMPTS.get(key);
+        if (done == null) {
+            if (ATTEMPTS.size() + PENDING.size() >= MAX_SCENARIOS) return false;
+        } else if (done >= MAX_ATTEMPTS) {
+            return false;
+        }
+        return SPENT_NANOS.get() < BUDGET_NANOS;
+    }
+
+    // ---------------- RESULTS ----------------
+
+    public static int getRerunCount() {
+        return ATTEMPTS.size();
+    }
+
+    /** Keys (uri:line) of the scenarios rerun at least once. */
+    public static Set<String> getRerunKeys() {
+        return new HashSet<>(ATTEMPTS.keySet());
+    }
+
+    /** Scenarios that passed on a rerun: key (uri:line) -> name. */
+    public static Map<String, String> getFlaky() {
+        synchronized (FLAKY) {
+            return new LinkedHashMap<>(FLAKY);
+        }
+    }
+
+    /** Write flaky scenario locations, one per line; no file when nothing was flaky. */
+    public static void writeFlakyList(File file) {
+        List<String> lines = new ArrayList<>(getFlaky().keySet());
+        if (lines.isEmpty()) return;
+        try {
+            File parent = file.getParentFile();
+            if (parent != null) parent.mkdirs();
+            Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            System.err.println("Failed to write flaky scenario list " + file + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package utils;
+
+import io.cucumber.testng.Pickle;
+import io.cucumber.testng.PickleWrapper;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+
+/**
+ * Orders the rows of TestRunner's scenario DataProvider.
+ *
+ * TestNG hands DataProvider rows to free worker threads in row order, so putting the longest
+ * scenarios (by {@link ScenarioHistory}) first gives longest-processing-time-first packing across
+ * the workers: short scenarios fill the gaps at the end instead of one long scenario running alone.
+ *
+ * Tags:
+ *   @serial               run after the parallel pass, one scenario at a time
+ *   @canary               run first, before every other scenario (see {@link CircuitBreaker});
+ *                         a canary is never deferred to the serial pass
+ *   @exclusive:<name>     never run concurrently with another scenario holding <name>
+ *                         (enforced by {@link ExclusiveResources} in Hooks)
+ *   @fixture:<name>       needs a setup fixture ({@link SetupFixtures}); parallel scenarios with the
+ *                         same fixture tags become one {@link FixtureGroup} row, run back to back by
+ *                         one worker so the setup is reused. A group is split in several rows rather
+ *                         than run longer than the busiest worker would without grouping (this
+ *                         shard's rows packed longest-first onto driverPoolSize workers).
+ *                         Serial scenarios with the same fixtures are ordered next to each other.
+ *
+ * Sharding: with -Dshard.count=N this JVM keeps only the scenarios of shard -Dshard.index. Every
+ * shard must compute the same split, so it depends on nothing local (not the local history file,
+ * which a finished shard rewrites, and no per-agent setting such as driverPoolSize):
+ *   - by default scenarios are sorted by key (uri:line) and dealt round-robin onto the shards
+ *   - with -Dshard.historyFile=<file> (committed, or handed to every agent) they are bin-packed
+ *     longest-first by that file's durations; the file is read only and never written
+ * Each shard computes every shard's rows and fails fast unless together they are the full suite,
+ * each scenario exactly once. Grouping and ordering then happen within the shard.
+ *
+ * Settings (global.properties or -D system properties):
+ *   defaultScenarioMillis  assumed duration of scenarios with no history (default: history average, else 10000)
+ *   shard.historyFile      durations used for the shard split (default none = round-robin by key)
+ */
+public final class ScenarioScheduler {
+
+    public static final String SERIAL_TAG = "@serial";
+
+    private ScenarioScheduler() {}
+
+    /** Split DataProvider rows into parallel and serial sets, each ordered longest-first. */
+    public static Plan plan(Object[][] rows) {
+        long unknown = CommonUtils.getGlobalIntProperty("defaultScenarioMillis",
+                (int) ScenarioHistory.getAverageMillis(10_000));
+
+        List<Row> all = new ArrayList<>();
+        for (Object[] row : rows) {
+            Pickle pickle = ((PickleWrapper) row[0]).getPickle();
+            String key = ScenarioHistory.key(pickle.getUri(), pickle.getLine());
+            long known = ScenarioHistory.getDurationMillis(key);
+            all.add(new Row(row, key, known < 0 ? unknown : known, pickle.getTags().contains(SERIAL_TAG),
+                    pickle.getTags().contains(CircuitBreaker.CANARY_TAG), String.join(",", SetupFixtures.names(pickle.getTags()))));
+        }
+
+        if (ShardConfig.isSharded()) {
+            List<List<Row>> shards = splitShards(all, ShardConfig.getCount());
+            verifyShards(all, shards);
+            all = shards.get(ShardConfig.getIndex());
+        }
+
+        all = groupByFixtures(all, Math.max(1, CommonUtils.getGlobalIntProperty("driverPoolSize", 4)));
+        // longest first; ties broken by key so the order is stable from run to run
+        all.sort(LONGEST_FIRST);
+
+        // canaries head the parallel rows, so they are handed out before anything that waits for them
+        List<Row> canaries = new ArrayList<>();
+        List<Row> parallel = new ArrayList<>();
+        List<Row> serial = new ArrayList<>();
+        for (Row r : all) {
+            (r.canary ? canaries : r.serial ? serial : parallel).add(r);
+        }
+        // serial rows run one at a time, so only adjacency matters: same fixtures back to back (stable sort)
+        serial.sort(Comparator.comparing((Row r) -> r.fixtures));
+        CircuitBreaker.expectCanaries(canaries.size());
+        int canaryCount = canaries.size();
+        canaries.addAll(parallel);
+        return new Plan(canaries, canaryCount, serial);
+    }
+
+    private static final Comparator<Row> LONGEST_FIRST =
+            Comparator.comparingLong((Row r) -> r.estimateMillis).reversed().thenComparing(r -> r.key);
+
+    // feature file order: by uri, then by line as a number (login.feature:5 before login.feature:12)
+    private static final Comparator<Row> FEATURE_ORDER =
+            Comparator.comparing((Row r) -> r.key.substring(0, r.key.lastIndexOf(':')))
+                    .thenComparingInt(r -> Integer.parseInt(r.key.substring(r.key.lastIndexOf(':') + 1)));
+
+    /**
+     * Replaces the parallel rows that share fixture tags with group rows (members in feature file
+     * order). A group is at most as long as the busiest of {@code workers} when the ungrouped rows
+     * are packed longest-first, so grouping does not stretch the critical path. Canary and serial
+     * rows are left alone.
+     */
+    static List<Row> groupByFixtures(List<Row> rows, int workers) {
+        List<Row> sorted = new ArrayList<>(rows);
+        sorted.sort(LONGEST_FIRST);
+        long share = 1;
+        for (List<Row> worker : pack(sorted, workers, r -> r.estimateMillis)) {
+            long load = 0;
+            for (Row r : worker) load += r.estimateMillis;
+            share = Math.max(share, load);
+        }
+
+        Map<String, List<Row>> byFixtures = new LinkedHashMap<>();
+        List<Row> out = new ArrayList<>();
+        for (Row r : rows) {
+            if (r.fixtures.isEmpty() || r.canary || r.serial) {
+                out.add(r);
+            } else {
+                byFixtures.computeIfAbsent(r.fixtures, f -> new ArrayList<>()).add(r);
+            }
+        }
+        for (List<Row> members : byFixtures.values()) {
+            members.sort(FEATURE_ORDER);
+            List<Row> chunk = new ArrayList<>();
+            long chunkMillis = 0;
+            for (Row r : members) {
+                if (!chunk.isEmpty() && chunkMillis + r.estimateMillis > share) {
+                    out.add(group(chunk));
+                    chunk = new ArrayList<>();
+                    chunkMillis = 0;
+                }
+                chunk.add(r);
+                chunkMillis += r.estimateMillis;
+            }
+            out.add(group(chunk));
+        }
+        return out;
+    }
+
+    private static Row group(List<Row> members) {
+        if (members.size() == 1) return members.get(0);
+        List<Object[]> data = new ArrayList<>(members.size());
+        long estimate = 0;
+        for (Row r : members) {
+            data.add(r.data);
+            estimate += r.estimateMillis;
+        }
+        Row first = members.get(0);
+        return new Row(new Object[] {new FixtureGroup(first.fixtures, data), first.data[1]},
+                first.key + "+" + (members.size() - 1), estimate, false, false, first.fixtures);
+    }
+
+    /**
+     * The same split on every shard: round-robin over the rows sorted by key, or, with
+     * shard.historyFile, longest-first bin packing by that file's durations.
+     */
+    static List<List<Row>> splitShards(List<Row> rows, int shardCount) {
+        String historyFile = CommonUtils.getGlobalProperty("shard.historyFile", "").trim();
+        List<Row> byKey = new ArrayList<>(rows);
+        byKey.sort(Comparator.comparing((Row r) -> r.key));
+        if (historyFile.isEmpty()) {
+            List<List<Row>> shards = new ArrayList<>(shardCount);
+            for (int i = 0; i < shardCount; i++) shards.add(new ArrayList<>());
+            for (int i = 0; i < byKey.size(); i++) shards.get(i % shardCount).add(byKey.get(i));
+            return shards;
+        }
+
+        Map<String, Long> durations = ScenarioHistory.read(new File(historyFile));
+        if (durations.isEmpty()) {
+            throw new IllegalStateException("shard.historyFile " + historyFile + " is missing or empty");
+        }
+        long unknown = 0;
+        for (long d : durations.values()) unknown += d;
+        unknown /= durations.size();
+
+        // estimates from the shared file only; the Rows keep their local estimates for ordering
+        Map<Row, Long> estimates = new HashMap<>();
+        for (Row r : byKey) estimates.put(r, durations.getOrDefault(r.key, unknown));
+        byKey.sort(Comparator.comparingLong((Row r) -> estimates.get(r)).reversed().thenComparing(r -> r.key));
+        return pack(byKey, shardCount, estimates::get);
+    }
+
+    // the shards together must be the full suite, each scenario exactly once
+    static void verifyShards(List<Row> all, List<List<Row>> shards) {
+        Set<String> seen = new HashSet<>();
+        for (List<Row> shard : shards) {
+            for (Row r : shard) {
+                if (!seen.add(r.key)) throw new IllegalStateException("Scenario " + r.key + " assigned to more than one shard");
+            }
+        }
+        for (Row r : all) {
+            if (!seen.remove(r.key)) throw new IllegalStateException("Scenario " + r.key + " assigned to no shard");
+        }
+        if (!seen.isEmpty()) throw new IllegalStateException("Shards contain unknown scenarios: " + seen);
+    }
+
+    /**
+     * Longest-processing-time-first bin packing: each row (already sorted longest-first by
+     * {@code estimate}) goes to the bin with the least estimated work so far; ties go to the
+     * lowest bin index.
+     */
+    static List<List<Row>> pack(List<Row> sortedRows, int binCount, ToLongFunction<Row> estimate) {
+        List<List<Row>> bins = new ArrayList<>(binCount);
+        long[] load = new long[binCount];
+        for (int i = 0; i < binCount; i++) bins.add(new ArrayList<>());
+
+        for (Row r : sortedRows) {
+            int target = 0;
+            for (int i = 1; i < binCount; i++) {
+                if (load[i] < load[target]) target = i;
+            }
+            bins.get(target).add(r);
+            load[target] += estimate.applyAsLong(r);
+        }
+        return bins;
+    }
+
+    // ---------------- MODEL ----------------
+
+    /** One DataProvider row plus its scheduling data. */
+    public static final class Row {
+        final Object[] data;
+        final String key;
+        final long estimateMillis;
+        final boolean serial;
+        final boolean canary;
+        final String fixtures;   // sorted @fixture names, comma separated ("" = none)
+
+        Row(Object[] data, String key, long estimateMillis, boolean serial, boolean canary, String fixtures) {
+            this.data = data;
+            this.key = key;
+            this.estimateMillis = estimateMillis;
+            this.serial = serial;
+            this.canary = canary;
+            this.fixtures = fixtures;
+        }
+
+        public Object[] getData() {
+            return data;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public long getEstimateMillis() {
+            return estimateMillis;
+        }
+    }
+
+    /**
+     * DataProvider row standing for several scenarios that share setup fixtures; the runners run
+     * its rows one after another on the same thread. {@link #getPickle()} is the first scenario.
+     */
+    public static final class FixtureGroup implements PickleWrapper {
+        private final String fixtures;
+        private final List<Object[]> rows;
+
+        FixtureGroup(String fixtures, List<Object[]> rows) {
+            this.fixtures = fixtures;
+            this.rows = Collections.unmodifiableList(rows);
+        }
+
+        @Override
+        public Pickle getPickle() {
+            return ((PickleWrapper) rows.get(0)[0]).getPickle();
+        }
+
+        /** The scenarios' own DataProvider rows, in run order. */
+        public List<Object[]> getRows() {
+            return rows;
+        }
+
+        @Override
+        public String toString() {
+            return "\"" + rows.size() + " scenarios sharing fixtures " + fixtures + "\"";
+        }
+    }
+
+    public static final class Plan {
+        private final List<Row> parallel;
+        private final int canaryCount;
+        private final List<Row> serial;
+
+        Plan(List<Row> parallel, int canaryCount, List<Row> serial) {
+            this.parallel = parallel;
+            this.canaryCount = canaryCount;
+            this.serial = serial;
+        }
+
+        /** Parallel rows, @canary rows first. */
+        public Object[][] getParallelRows() {
+            return toRows(parallel);
+        }
+
+        /** Number of @canary rows at the head of {@link #getParallelRows()}. */
+        public int getCanaryCount() {
+            return canaryCount;
+        }
+
+        public Object[][] getSerialRows() {
+            return toRows(serial);
+        }
+
+        private static Object[][] toRows(List<Row> rows) {
+            Object[][] out = new Object[rows.size()][];
+            for (int i = 0; i < out.length; i++) out[i] = rows.get(i).data;
+            return out;
+        }
+    }
+}
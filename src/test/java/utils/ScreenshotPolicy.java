@@ -0,0 +1,205 @@
+package utils;
+
+import com.aventstack.extentreports.Status;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides which {@link TestReportingUtils#logger} calls get a screenshot.
+ *
+ * Settings (global.properties or -D system properties):
+ *   screenshotPolicy   always | on-fail-only | first-and-last | every-nth | dedup   (default always)
+ *                      (first-and-last-per-scenario is accepted for first-and-last)
+ *   screenshotEveryN   capture interval for every-nth (default 5)
+ *
+ * FAIL steps are always captured, whatever the mode. Skipped captures and duplicate frames are
+ * counted per scenario and per run so the report shows what the policy saved.
+ */
+public final class ScreenshotPolicy {
+
+    public enum Mode {
+        ALWAYS("always"),
+        ON_FAIL_ONLY("on-fail-only"),
+        FIRST_AND_LAST("first-and-last", "first-and-last-per-scenario"),
+        EVERY_NTH("every-nth"),
+        DEDUP("dedup");
+
+        private final String configName;
+        private final String alias;
+
+        Mode(String configName) {
+            this(configName, null);
+        }
+
+        Mode(String configName, String alias) {
+            this.configName = configName;
+            this.alias = alias;
+        }
+
+        public String getConfigName() {
+            return configName;
+        }
+
+        static Mode fromConfig(String value) {
+            String v = value.trim().toLowerCase(Locale.ROOT);
+            for (Mode m : values()) {
+                if (m.configName.equals(v) || v.equals(m.alias) || m.name().equalsIgnoreCase(v)) return m;
+            }
+            throw new IllegalArgumentException("Unknown screenshotPolicy: " + value
+                    + " (expected always, on-fail-only, first-and-last, every-nth or dedup)");
+        }
+    }
+
+    private static final Mode MODE = Mode.fromConfig(CommonUtils.getGlobalProperty("screenshotPolicy", "always"));
+    private static final int EVERY_N = Math.max(1, CommonUtils.getGlobalIntProperty("screenshotEveryN", 5));
+
+    // run-wide totals (all threads)
+    private static final AtomicLong CAPTURED = new AtomicLong();
+    private static final AtomicLong SKIPPED = new AtomicLong();
+    private static final AtomicLong DUPLICATES = new AtomicLong();
+    private static final AtomicLong DUPLICATE_BYTES = new AtomicLong();
+    private static final AtomicLong CAPTURE_NANOS = new AtomicLong();
+
+    // per-scenario state, one per thread
+    private static final ThreadLocal<ScenarioState> STATE = ThreadLocal.withInitial(ScenarioState::new);
+
+    private ScreenshotPolicy() {}
+
+    public static Mode getMode() {
+        return MODE;
+    }
+
+    // ---------------- SCENARIO LIFECYCLE ----------------
+
+    public static void startScenario() {
+        STATE.set(new ScenarioState());
+    }
+
+    /** Summary line for the scenario's report node, or null when nothing was skipped. */
+    public static String scenarioSummary() {
+        ScenarioState st = STATE.get();
+        if (st.skipped == 0 && st.duplicates == 0) return null;
+        return "Screenshot policy '" + MODE.getConfigName() + "': " + st.skipped + " capture(s) skipped, "
+                + st.duplicates + " duplicate frame(s) not written (" + (st.duplicateBytes / 1024) + " KB)";
+    }
+
+    public static void endScenario() {
+        STATE.remove();
+    }
+
+    // ---------------- DECISIONS ----------------
+
+    /** Called before capturing. Returns false (and counts the skip) when this step needs no screenshot. */
+    public static boolean shouldCapture(Status status) {
+        ScenarioState st = STATE.get();
+        int call = ++st.calls;
+
+        boolean capture;
+        if (status == Status.FAIL) {
+            capture = true;
+        } else {
+            switch (MODE) {
+                case ON_FAIL_ONLY:
+                    capture = false;
+                    break;
+                case FIRST_AND_LAST:
+                    // the "last" frame is taken by Hooks at scenario end
+                    capture = call == 1;
+                    break;
+                case EVERY_NTH:
+                    capture = (call - 1) % EVERY_N == 0;
+                    break;
+                default:
+                    capture = true;
+            }
+        }
+        if (!capture) {
+            st.skipped++;
+            SKIPPED.incrementAndGet();
+        }
+        return capture;
+    }
+
+    /** True when Hooks should take a closing screenshot at scenario end. */
+    public static boolean wantsFinalCapture() {
+        return MODE == Mode.FIRST_AND_LAST && STATE.get().calls > 1;
+    }
+
+    /**
+     * Called after capturing, before saving. In dedup mode returns the path of the previous saved
+     * frame when the new one is identical (the caller links to it instead of writing a new file);
+     * otherwise returns null and the caller saves the frame, then calls {@link #recordCapture}.
+     */
+    public static String findDuplicate(byte[] png) {
+        if (MODE != Mode.DEDUP || png == null) return null;
+        ScenarioState st = STATE.get();
+        byte[] hash = sha256(png);
+        st.pendingHash = null;
+        if (st.lastPath != null && Arrays.equals(hash, st.lastHash)) {
+            st.duplicates++;
+            st.duplicateBytes += png.length;
+            DUPLICATES.incrementAndGet();
+            DUPLICATE_BYTES.addAndGet(png.length);
+            return st.lastPath;
+        }
+        // becomes the comparison frame only once it has been saved (recordCapture)
+        st.pendingHash = hash;
+        return null;
+    }
+
+    /** Record a frame that was actually captured and saved. */
+    public static void recordCapture(String path, long captureNanos) {
+        ScenarioState st = STATE.get();
+        // hash and path always describe the same saved frame; a failed save leaves the old pair
+        st.lastHash = st.pendingHash;
+        st.lastPath = st.pendingHash == null ? null : path;
+        st.pendingHash = null;
+        CAPTURED.incrementAndGet();
+        CAPTURE_NANOS.addAndGet(captureNanos);
+    }
+
+    // ---------------- RUN TOTALS ----------------
+
+    public static long getSkippedCount() {
+        return SKIPPED.get();
+    }
+
+    public static long getDuplicateCount() {
+        return DUPLICATES.get();
+    }
+
+    /** Estimated capture time saved by skipped captures, based on the average measured capture. */
+    public static long getEstimatedSavedMillis() {
+        long captured = CAPTURED.get();
+        if (captured == 0) return 0;
+        return (CAPTURE_NANOS.get() / captured) * SKIPPED.get() / 1_000_000L;
+    }
+
+    public static long getDuplicateBytes() {
+        return DUPLICATE_BYTES.get();
+    }
+
+    // ---------------- HELPERS ----------------
+
+    private static byte[] sha256(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class ScenarioState {
+        int calls;
+        int skipped;
+        int duplicates;
+        long duplicateBytes;
+        byte[] lastHash;       // last saved frame and where it went; set together
+        String lastPath;
+        byte[] pendingHash;    // frame being saved, not yet comparable
+    }
+}
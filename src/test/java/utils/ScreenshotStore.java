@@ -0,0 +1,269 @@
+package utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.cucumber.java.Scenario;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Content-addressed screenshot store.
+ *
+ * Every WebDriver frame is named by the SHA-256 of its PNG bytes and stored once under
+ * {@code <screenshotStorePath>/AutomationReportScreenshots/blobs/<2 hex>/<hash>.<ext>}, no matter how
+ * many steps, scenarios or runs capture it. Report entries link to the blob. The hash is taken on
+ * the test thread (the link is needed right away); optional downscaling and re-encoding run on the
+ * {@link ScreenshotWriter} threads.
+ *
+ * Each run also writes {@code index/<timestamp>[-shard-N].jsonl}: one line per capture with the
+ * scenario, step, capture number within the scenario and the blob it points to. Lines are appended
+ * as frames are captured (nothing is held in memory, and a JVM that dies keeps its index up to
+ * the last capture); a line may name a blob that the writer threads have not finished yet.
+ * When a blob write fails, the next identical frame submits it again, which also repairs the
+ * links of captures taken while the failed write was queued (same path).
+ *
+ * Settings (global.properties or -D system properties):
+ *   screenshotStore          content = this store | folders = one timestamped folder per capture (default content)
+ *   screenshotFormat         png | jpeg | webp (default png); webp needs an ImageIO WebP plugin, else png is kept
+ *   screenshotJpegQuality    0.0 - 1.0 (default 0.8)
+ *   screenshotMaxWidth       downscale wider frames to this width, 0 = keep size (default 0)
+ */
+public final class ScreenshotStore {
+
+    private static final boolean ENABLED = !"folders".equalsIgnoreCase(CommonUtils.getGlobalProperty("screenshotStore", "content").trim());
+    private static final String FORMAT = resolveFormat(CommonUtils.getGlobalProperty("screenshotFormat", "png").trim().toLowerCase(Locale.ROOT));
+    private static final float JPEG_QUALITY = Float.parseFloat(CommonUtils.getGlobalProperty("screenshotJpegQuality", "0.8").trim());
+    private static final int MAX_WIDTH = CommonUtils.getGlobalIntProperty("screenshotMaxWidth", 0);
+
+    private static final ScreenshotWriter.Transcoder TRANSCODER =
+            "png".equals(FORMAT) && MAX_WIDTH <= 0 ? null : ScreenshotStore::transcode;
+
+    // blobs submitted in this JVM; a hit means the frame is already stored (or on its way).
+    // A failed write removes its hash again, so the next identical frame writes the blob.
+    private static final Set<String> KNOWN = ConcurrentHashMap.newKeySet();
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    // capture index, opened on the first capture; appends are serialized so lines never interleave
+    private static final ReentrantLock INDEX_LOCK = new ReentrantLock();
+    private static FileChannel indexChannel;   // guarded by INDEX_LOCK
+    private static boolean indexFailed;        // guarded by INDEX_LOCK
+    private static final AtomicLong FRAMES = new AtomicLong();
+    private static final AtomicLong DEDUPED_BYTES = new AtomicLong();
+
+    // capture counter of the scenario running on this thread
+    private static final ThreadLocal<ScenarioCaptures> CAPTURES = new ThreadLocal<>();
+
+    private static final String RUN_ID = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss", Locale.ENGLISH));
+
+    private ScreenshotStore() {}
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    // ---------------- STORE ----------------
+
+    /** Store a PNG frame (once per distinct content) and return the path reports should link to. */
+    public static String put(byte[] png) {
+        String hash = sha256Hex(png);
+        File blob = new File(ScreenshotUtils.resolveBaseFolder(), "blobs" + File.separator + hash.substring(0, 2) + File.separator + hash + "." + FORMAT);
+        FRAMES.incrementAndGet();
+        if (KNOWN.add(hash)) {
+            ScreenshotWriter.submitIfAbsent(blob, png, TRANSCODER, () -> KNOWN.remove(hash));
+        } else {
+            DEDUPED_BYTES.addAndGet(png.length);
+        }
+        index(hash, blob, png.length);
+        return blob.getAbsolutePath();
+    }
+
+    private static void index(String hash, File blob, int pngBytes) {
+        Scenario scenario = TestReportingUtils.scenarioThreadLocal.get();
+        String scenarioId = scenario == null ? null : scenario.getId();
+        ScenarioCaptures captures = CAPTURES.get();
+        if (captures == null || !String.valueOf(scenarioId).equals(captures.scenarioId)) {
+            captures = new ScenarioCaptures(String.valueOf(scenarioId));
+            CAPTURES.set(captures);
+        }
+
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("scenario", scenario == null ? null : scenario.getName());
+        entry.put("location", scenario == null ? null : ScenarioHistory.key(scenario.getUri(), scenario.getLine()));
+        entry.put("step", CommandProfiler.currentStep());
+        entry.put("capture", ++captures.count);
+        entry.put("thread", Thread.currentThread().getName());
+        entry.put("time", System.currentTimeMillis());
+        entry.put("blob", hash + "." + FORMAT);
+        entry.put("path", blob.getAbsolutePath());
+        entry.put("pngBytes", pngBytes);
+        appendIndex(entry);
+    }
+
+    private static void appendIndex(Map<String, Object> entry) {
+        File file = new File(ScreenshotUtils.resolveBaseFolder(), "index" + File.separator + RUN_ID
+                + (ShardConfig.isSharded() ? "-shard-" + ShardConfig.getIndex() : "") + ".jsonl");
+        INDEX_LOCK.lock();
+        try {
+            if (indexFailed) return;
+            if (indexChannel == null) {
+                file.getParentFile().mkdirs();
+                indexChannel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.APPEND);
+            }
+            ByteBuffer buf = ByteBuffer.wrap((MAPPER.writeValueAsString(entry) + "\n").getBytes(StandardCharsets.UTF_8));
+            while (buf.hasRemaining()) indexChannel.write(buf);
+        } catch (IOException e) {
+            indexFailed = true;   // report once, keep capturing
+            System.err.println("Failed to write screenshot index " + file + ": " + e.getMessage());
+        } finally {
+            INDEX_LOCK.unlock();
+        }
+    }
+
+    /** Close this run's capture index (call after ScreenshotWriter.drain); later captures reopen it. */
+    public static void closeIndex() {
+        INDEX_LOCK.lock();
+        try {
+            if (indexChannel != null) indexChannel.close();
+        } catch (IOException e) {
+            System.err.println("Failed to close screenshot index: " + e.getMessage());
+        } finally {
+            indexChannel = null;
+            INDEX_LOCK.unlock();
+        }
+    }
+
+    // ---------------- STATS ----------------
+
+    public static long getFrameCount() {
+        return FRAMES.get();
+    }
+
+    /** Distinct frames stored by this JVM. */
+    public static long getBlobCount() {
+        return KNOWN.size();
+    }
+
+    /** PNG bytes not written because the frame was already stored. */
+    public static long getDedupedBytes() {
+        return DEDUPED_BYTES.get();
+    }
+
+    // ---------------- ENCODING (writer threads) ----------------
+
+    private static byte[] transcode(byte[] png) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        if (image == null) throw new IOException("Not a readable image");
+        if (MAX_WIDTH > 0 && image.getWidth() > MAX_WIDTH) {
+            image = scale(image, MAX_WIDTH, Math.max(1, Math.round(image.getHeight() * (MAX_WIDTH / (float) image.getWidth()))));
+        }
+        if ("jpg".equals(FORMAT)) {
+            return jpeg(image);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(png.length);
+        if (!ImageIO.write(image, FORMAT, out)) throw new IOException("No ImageIO writer for " + FORMAT);
+        return out.toByteArray();
+    }
+
+    private static BufferedImage scale(BufferedImage src, int width, int height) {
+        BufferedImage dst = new BufferedImage(width, height, src.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = dst.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(src, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return dst;
+    }
+
+    private static byte[] jpeg(BufferedImage image) throws IOException {
+        // JPEG has no alpha channel
+        BufferedImage rgb = image;
+        if (image.getType() != BufferedImage.TYPE_INT_RGB) {
+            rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = rgb.createGraphics();
+            try {
+                g.drawImage(image, 0, 0, Color.WHITE, null);
+            } finally {
+                g.dispose();
+            }
+        }
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.write(null, new IIOImage(rgb, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    // file extension of the stored blobs
+    private static String resolveFormat(String configured) {
+        switch (configured) {
+            case "png":
+                return "png";
+            case "jpg":
+            case "jpeg":
+                return "jpg";
+            case "webp":
+                Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("webp");
+                if (writers.hasNext()) return "webp";
+                System.err.println("screenshotFormat=webp: no ImageIO WebP writer on the classpath, storing PNG");
+                return "png";
+            default:
+                throw new IllegalArgumentException("Unknown screenshotFormat '" + configured + "' (expected png, jpeg or webp)");
+        }
+    }
+
+    private static String sha256Hex(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            StringBuilder sb = new StringBuilder(64);
+            for (byte b : digest) sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class ScenarioCaptures {
+        final String scenarioId;
+        int count;
+
+        ScenarioCaptures(String scenarioId) {
+            this.scenarioId = scenarioId;
+        }
+    }
+}
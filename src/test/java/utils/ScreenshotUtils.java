@@ -4,30 +4,46 @@ import org.openqa.selenium.OutputType;
 import org.openqa.selenium.TakesScreenshot;
 import org.openqa.selenium.WebDriver;
 
-import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.File;
-import java.io.FileOutputStream;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Screenshot utilities (WebDriver + Desktop).
  * Storage path comes from global.properties -> screenshotStorePath.
+ *
+ * Capture happens on the calling thread; folder creation and file I/O are handed to
+ * {@link ScreenshotWriter}, so the returned path may be written a moment later.
+ * WebDriver frames go to the content-addressed {@link ScreenshotStore} unless screenshotStore=folders;
+ * desktop captures always use a timestamped folder.
  */
 public final class ScreenshotUtils {
 
     private ScreenshotUtils(){}
 
+    // DateTimeFormatter is immutable/thread-safe, so one instance serves every thread
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("dd_MMM_yyyy_HH_mm_ss", Locale.ENGLISH);
+
+    // screenshotStorePath never changes during a run - resolve it once
+    private static volatile String baseFolder;
+
+    // keeps file names unique when one thread captures twice within the same second
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
     // ------------ Generate timestamp ------------
-    private static String timestamp() {
-        return new SimpleDateFormat("dd_MMM_yyyy_HH_mm_ss").format(new Date());
+    static String timestamp() {   // package-private for the JMH benchmarks
+        return LocalDateTime.now().format(TIMESTAMP);
     }
 
     // ------------ Build screenshot folder using global.properties ------------
 
-    private static File buildScreenshotFolder() {
+    static String resolveBaseFolder() {
+        String base = baseFolder;
+        if (base != null) return base;
 
         // Read from global.properties
         String basePath = CommonUtils.readPropertyFromFile("global", "screenshotStorePath");
@@ -42,14 +58,14 @@ public final class ScreenshotUtils {
             basePath = System.getProperty("user.dir");
         }
 
-        // Build final folder path
-        String folder = basePath + File.separator + "AutomationReportScreenshots" + File.separator + timestamp() + "_" + Thread.currentThread().getId();
-
-        // Create folders if missing
-        File dir = new File(folder);
-        if (!dir.exists()) dir.mkdirs();
+        base = basePath + File.separator + "AutomationReportScreenshots";
+        baseFolder = base;
+        return base;
+    }
 
-        return dir;
+    // Folder is only named here; ScreenshotWriter creates it off the test thread
+    private static File buildScreenshotFolder() {
+        return new File(resolveBaseFolder() + File.separator + timestamp() + "_" + Thread.currentThread().getId());
     }
 
     // ============================================================
@@ -62,21 +78,28 @@ public final class ScreenshotUtils {
             return null;   // logger() will automatically try desktop screenshot
         }
 
-        // Build the folder first
-        File dir = buildScreenshotFolder();
+        return saveWebDriverScreenshot(captureWebDriverBytes(driver));
+    }
 
-        // Create filename
-        String fileName = "WebDriver_" + timestamp() + ".png";
-        File out = new File(dir, fileName);
+    // Direct screenshot capture (NO VALIDATION) - split out so callers can inspect the frame before saving
+    public static byte[] captureWebDriverBytes(WebDriver driver) {
+        return ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+    }
 
-        // Direct screenshot capture (NO VALIDATION)
-        byte[] bytes = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+    public static String saveWebDriverScreenshot(byte[] bytes) {
 
-        // Save screenshot file
-        try (FileOutputStream fos = new FileOutputStream(out)) {
-            fos.write(bytes);
+        // Content-addressed: identical frames share one blob
+        if (ScreenshotStore.isEnabled()) {
+            return ScreenshotStore.put(bytes);
         }
 
+        // Create filename
+        String fileName = "WebDriver_" + timestamp() + "_" + SEQUENCE.incrementAndGet() + ".png";
+        File out = new File(buildScreenshotFolder(), fileName);
+
+        // Save screenshot file in the background
+        ScreenshotWriter.submit(out, bytes);
+
         return out.getAbsolutePath();
     }
 
@@ -85,18 +108,17 @@ public final class ScreenshotUtils {
     // ============================================================
     public static String captureDesktopScreenshot() throws Exception {
 
-        File dir = buildScreenshotFolder();
-
-        String fileName = "Desktop_" + timestamp() + ".png";
-        File out = new File(dir, fileName);
-
         Robot r = new Robot();
 
         Rectangle rect = new Rectangle(Toolkit.getDefaultToolkit().getScreenSize());
 
         BufferedImage img = r.createScreenCapture(rect);
 
-        ImageIO.write(img, "png", out);
+        String fileName = "Desktop_" + timestamp() + "_" + SEQUENCE.incrementAndGet() + ".png";
+        File out = new File(buildScreenshotFolder(), fileName);
+
+        // PNG encoding + write happen on the writer thread
+        ScreenshotWriter.submit(out, img);
 
         return out.getAbsolutePath();
     }
@@ -0,0 +1,217 @@
+package utils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background writer stage for screenshots.
+ *
+ * The test thread only captures the raw image and calls {@link #submit}; writer threads create the
+ * folder, encode and persist the file. The queue is bounded, so a slow disk blocks producers
+ * (backpressure) instead of growing the heap. Call {@link #drain} at suite end.
+ *
+ * Content-addressed blobs ({@link #submitIfAbsent}) are transcoded on the writer thread, written to
+ * a temporary file and moved into place, so a blob is either complete or absent and two writers of
+ * the same content never corrupt each other.
+ *
+ * Settings (global.properties or -D system properties):
+ *   screenshotWriterThreads    number of writer threads (default 2)
+ *   screenshotQueueCapacity    max pending screenshots before submit() blocks (default 64)
+ */
+public final class ScreenshotWriter {
+
+    private static final BlockingQueue<Job> QUEUE =
+            new ArrayBlockingQueue<>(CommonUtils.getGlobalIntProperty("screenshotQueueCapacity", 64));
+
+    // submitted but not yet written (queued + in flight)
+    private static final AtomicInteger PENDING = new AtomicInteger();
+    private static final AtomicLong FAILED = new AtomicLong();
+    private static final AtomicLong ALREADY_STORED = new AtomicLong();
+    private static final Object DRAIN_LOCK = new Object();
+
+    static {
+        int threads = CommonUtils.getGlobalIntProperty("screenshotWriterThreads", 2);
+        for (int i = 0; i < Math.max(1, threads); i++) {
+            Thread t = new Thread(ScreenshotWriter::writeLoop, "screenshot-writer-" + i);
+            t.setDaemon(true);
+            t.start();
+        }
+        // last resort if the suite never reached drain()
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> drain(30), "screenshot-writer-drain"));
+    }
+
+    private ScreenshotWriter() {}
+
+    // ---------------- PRODUCER SIDE ----------------
+
+    /** Queue already-encoded PNG bytes to be written to {@code target}. Blocks while the queue is full. */
+    public static void submit(File target, byte[] pngBytes) {
+        enqueue(new Job(target, pngBytes, null, null, false, null));
+    }
+
+    /** Queue an image to be PNG-encoded and written to {@code target}. Blocks while the queue is full. */
+    public static void submit(File target, BufferedImage image) {
+        enqueue(new Job(target, null, image, null, false, null));
+    }
+
+    /**
+     * Queue PNG bytes for an immutable blob: passed through {@code transcoder} (may be null) and
+     * written unless {@code target} already exists. {@code onFailure} (may be null) runs on the
+     * writer thread when the blob could not be written. Blocks while the queue is full.
+     */
+    public static void submitIfAbsent(File target, byte[] pngBytes, Transcoder transcoder, Runnable onFailure) {
+        enqueue(new Job(target, pngBytes, null, transcoder, true, onFailure));
+    }
+
+    /** Re-encoding step run on the writer thread (e.g. PNG -> JPEG, downscale). */
+    public interface Transcoder {
+        byte[] transcode(byte[] png) throws IOException;
+    }
+
+    private static void enqueue(Job job) {
+        PENDING.incrementAndGet();
+        try {
+            QUEUE.put(job);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            completed();
+            throw new IllegalStateException("Interrupted while queueing screenshot: " + job.target, e);
+        }
+    }
+
+    /**
+     * Wait until every submitted screenshot is on disk (or the timeout expires).
+     * Returns true when the queue drained completely.
+     */
+    public static boolean drain(long timeoutSeconds) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        synchronized (DRAIN_LOCK) {
+            while (PENDING.get() > 0) {
+                long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMs <= 0) {
+                    System.err.println("Screenshot writer drain timed out with " + PENDING.get() + " pending");
+                    return false;
+                }
+                try {
+                    DRAIN_LOCK.wait(remainingMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    public static int getPendingCount() {
+        return PENDING.get();
+    }
+
+    public static long getFailedCount() {
+        return FAILED.get();
+    }
+
+    /** Blob jobs skipped because the blob was already on disk. */
+    public static long getAlreadyStoredCount() {
+        return ALREADY_STORED.get();
+    }
+
+    // ---------------- WRITER SIDE ----------------
+
+    private static void writeLoop() {
+        while (true) {
+            Job job;
+            try {
+                job = QUEUE.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            long start = System.nanoTime();
+            try {
+                write(job);
+                Metrics.histogram("screenshot_write_seconds").recordNanos(System.nanoTime() - start);
+            } catch (Exception e) {
+                FAILED.incrementAndGet();
+                System.err.println("Failed to write screenshot " + job.target + ": " + e.getMessage());
+                if (job.onFailure != null) job.onFailure.run();
+            } finally {
+                completed();
+            }
+        }
+    }
+
+    private static void write(Job job) throws IOException {
+        File dir = job.target.getParentFile();
+        if (dir != null && !dir.exists()) dir.mkdirs();
+
+        if (job.ifAbsent) {
+            writeBlob(job);
+        } else if (job.bytes != null) {
+            Files.write(job.target.toPath(), job.bytes);
+        } else {
+            ImageIO.write(job.image, "png", job.target);
+        }
+    }
+
+    private static void writeBlob(Job job) throws IOException {
+        Path target = job.target.toPath();
+        if (Files.exists(target)) {
+            ALREADY_STORED.incrementAndGet();
+            return;
+        }
+        byte[] data = job.transcoder != null ? job.transcoder.transcode(job.bytes) : job.bytes;
+        // unique per process and writer thread (shards may share the store); plain umask permissions
+        Path tmp = target.resolveSibling(target.getFileName() + "." + ProcessHandle.current().pid()
+                + "-" + Thread.currentThread().getId() + ".tmp");
+        try {
+            Files.write(tmp, data);
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, target);
+            }
+        } catch (FileAlreadyExistsException e) {
+            ALREADY_STORED.incrementAndGet();   // same content written by another thread
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static void completed() {
+        if (PENDING.decrementAndGet() == 0) {
+            synchronized (DRAIN_LOCK) {
+                DRAIN_LOCK.notifyAll();
+            }
+        }
+    }
+
+    private static final class Job {
+        final File target;
+        final byte[] bytes;
+        final BufferedImage image;
+        final Transcoder transcoder;
+        final boolean ifAbsent;
+        final Runnable onFailure;
+
+        Job(File target, byte[] bytes, BufferedImage image, Transcoder transcoder, boolean ifAbsent, Runnable onFailure) {
+            this.target = target;
+            this.bytes = bytes;
+            this.image = image;
+            this.transcoder = transcoder;
+            this.ifAbsent = ifAbsent;
+            this.onFailure = onFailure;
+        }
+    }
+}
@@ -0,0 +1,448 @@
+package utils;
+
+import org.openqa.selenium.WebDriver;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Setup shared between scenarios: a starting state (an opened page, seeded data, ...) that is
+ * set up once per scope and reused, instead of being repeated by a Given/Background step in
+ * every scenario.
+ *
+ * A fixture is defined once ({@link #define}, see stepdefinitions.Fixtures) and requested with the
+ * tag {@code @fixture:<name>} on a scenario or feature. Scopes:
+ *   WORKER    set up once on a worker's browser; the worker's next scenarios needing the same
+ *             fixtures get that browser back as it was left (no pool reset) and skip the setup
+ *   FEATURE   like WORKER, but set up again for every feature file
+ *   SUITE     set up once per run by whichever scenario gets there first; the result must not
+ *             depend on that scenario's browser (test data, accounts, ...)
+ * An optional check runs before a kept WORKER/FEATURE result is reused (e.g. "still on the login
+ * page"); when it fails the fixture is set up again on the same browser.
+ *
+ * Teardown: WORKER and FEATURE fixtures are torn down on their browser, which then goes back to
+ * the pool, when the worker next runs a scenario needing other fixtures (or another feature),
+ * when a scenario fails or is rerun, after driverMaxUses scenarios, and at the end of the suite.
+ * SUITE fixtures are torn down at the end of the suite, without a browser.
+ *
+ * ScenarioScheduler hands scenarios with the same fixture tags to one worker back to back, so a
+ * setup is paid once per group instead of once per scenario. A kept browser still counts against
+ * the pool, so it is not kept while another thread waits for a session, and a borrower that finds
+ * the pool exhausted takes the longest-kept browser of an idle worker (teardown, back to the pool)
+ * from within the pool's wait (DriverPool reclaimer) instead of waiting for one that may never be
+ * released. Borrowers never wait longer than driverBorrowTimeoutSeconds.
+ *
+ * Settings (global.properties or -D system properties):
+ *   setupFixtures   false = set up and tear down fixtures within every scenario (default true)
+ */
+public final class SetupFixtures {
+
+    public static final String TAG_PREFIX = "@fixture:";
+
+    public enum Scope { WORKER, FEATURE, SUITE }
+
+    /** Brings the browser (or the environment) into the fixture's state; the result is shared. */
+    @FunctionalInterface
+    public interface Setup {
+        Object setUp(WebDriver driver) throws Exception;
+    }
+
+    /** True when a kept result can still be used on this browser. */
+    @FunctionalInterface
+    public interface Check {
+        boolean isValid(WebDriver driver, Object result);
+    }
+
+    /** Undoes the setup; the driver is null for SUITE fixtures. */
+    @FunctionalInterface
+    public interface Teardown {
+        void tearDown(WebDriver driver, Object result) throws Exception;
+    }
+
+    private static final boolean ENABLED = CommonUtils.getGlobalBooleanProperty("setupFixtures", true);
+    private static final int MAX_USES = CommonUtils.getGlobalIntProperty("driverMaxUses", 20);
+
+    private static final ConcurrentMap<String, Definition> DEFINITIONS = new ConcurrentHashMap<>();
+    // worker (thread name) -> fixtures set up on its browser, plus the browser between scenarios
+    private static final ConcurrentMap<String, Worker> WORKERS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, Active> SUITE_RESULTS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, ReentrantLock> SUITE_LOCKS = new ConcurrentHashMap<>();
+
+    // fixture results of the scenario running on this thread
+    private static final ThreadLocal<Map<String, Object>> CURRENT = new ThreadLocal<>();
+
+    private static final AtomicInteger SETUPS = new AtomicInteger();
+    private static final AtomicInteger REUSES = new AtomicInteger();
+    private static final AtomicInteger TEARDOWNS = new AtomicInteger();
+    private static final AtomicInteger EVICTIONS = new AtomicInteger();
+    // browsers currently kept between scenarios; the pool's reclaimer does nothing while 0
+    private static final AtomicInteger KEPT = new AtomicInteger();
+    private static final AtomicBoolean RECLAIMER_SET = new AtomicBoolean();
+
+    private SetupFixtures() {}
+
+    // ---------------- DEFINITIONS ----------------
+
+    public static void define(String name, Scope scope, Setup setup) {
+        define(name, scope, setup, null, null);
+    }
+
+    /** Define (or redefine) a fixture; check and teardown may be null. */
+    public static void define(String name, Scope scope, Setup setup, Check check, Teardown teardown) {
+        if (name == null || name.trim().isEmpty()) throw new IllegalArgumentException("fixture name must not be empty");
+        if (scope == null || setup == null) throw new IllegalArgumentException("fixture " + name + " needs a scope and a setup");
+        DEFINITIONS.put(name, new Definition(name, scope, setup, check, teardown));
+    }
+
+    /** Fixture names requested by these tags, sorted. */
+    public static List<String> names(Collection<String> tags) {
+        TreeSet<String> names = new TreeSet<>();
+        for (String tag : tags) {
+            if (tag.startsWith(TAG_PREFIX) && tag.length() > TAG_PREFIX.length()) {
+                names.add(tag.substring(TAG_PREFIX.length()));
+            }
+        }
+        return new ArrayList<>(names);
+    }
+
+    /** Result of a fixture of the scenario running on this thread. */
+    public static Object get(String name) {
+        Map<String, Object> results = CURRENT.get();
+        if (results == null || !results.containsKey(name)) {
+            throw new IllegalStateException("Fixture " + name + " is not set up for this scenario (tag it " + TAG_PREFIX + name + ")");
+        }
+        return results.get(name);
+    }
+
+    // ---------------- HOOKS SIDE ----------------
+
+    /**
+     * Called in @Before, before a driver is borrowed. Attaches the worker's kept browser to this
+     * thread when the scenario needs exactly the WORKER/FEATURE fixtures set up on it; otherwise
+     * tears those down and returns the browser to the pool. {@code fresh} = the scenario must get
+     * a newly launched browser (rerun). Returns true when a kept browser was attached.
+     */
+    public static boolean beforeDriver(Collection<String> tags, String featureUri, boolean fresh) {
+        Worker worker = WORKERS.get(workerName());
+        if (worker != null) {
+            worker.lock.lock();
+            try {
+                DriverPool.PooledSession kept = worker.kept;
+                if (kept != null) {
+                    worker.kept = null;
+                    KEPT.decrementAndGet();
+                    if (!fresh && worker.uses < MAX_USES && worker.keys().equals(browserKeys(names(tags), featureUri))) {
+                        BaseTest.attachSession(kept);
+                        return true;
+                    }
+                    end(worker, kept);
+                }
+            } finally {
+                worker.lock.unlock();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Called in @Before once the driver is attached: sets up the scenario's fixtures, or reuses
+     * the ones this worker already has. Returns a line for the report, or null without fixtures.
+     */
+    public static String setUp(Collection<String> tags, String featureUri) {
+        List<String> names = names(tags);
+        if (names.isEmpty()) return null;
+        WebDriver driver = BaseTest.getDriver();
+        Map<String, Object> results = new HashMap<>();
+        CURRENT.set(results);
+
+        List<String> report = new ArrayList<>();
+        List<Definition> browserBound = new ArrayList<>();
+        for (String name : names) {
+            Definition def = DEFINITIONS.get(name);
+            if (def == null) {
+                throw new IllegalStateException("Unknown setup fixture " + TAG_PREFIX + name + " (defined: " + DEFINITIONS.keySet() + ")");
+            }
+            if (def.scope == Scope.SUITE) {
+                report.add(setUpSuite(def, driver, results));
+            } else {
+                browserBound.add(def);
+            }
+        }
+        if (browserBound.isEmpty()) return "Fixtures: " + String.join(", ", report);
+
+        Worker worker = WORKERS.computeIfAbsent(workerName(), Worker::new);
+        worker.lock.lock();
+        try {
+            for (Definition def : browserBound) {
+                String key = def.key(featureUri);
+                Active active = worker.active.get(def.name);
+                if (ENABLED && active != null && active.key.equals(key) && def.isValid(driver, active.result)) {
+                    REUSES.incrementAndGet();
+                    results.put(def.name, active.result);
+                    report.add(def.name + " reused");
+                    continue;
+                }
+                if (active != null) {
+                    worker.active.remove(def.name);
+                    tearDown(def, driver, active.result);
+                }
+                long start = System.nanoTime();
+                Object result = def.run(driver);
+                worker.active.put(def.name, new Active(key, result));
+                results.put(def.name, result);
+                report.add(def.name + " set up in " + (System.nanoTime() - start) / 1_000_000L + " ms");
+            }
+        } finally {
+            worker.lock.unlock();
+        }
+        return "Fixtures: " + String.join(", ", report);
+    }
+
+    /**
+     * Called in @After while the driver is still attached. Returns true when the browser was
+     * detached and kept for this worker's next scenario, so the caller must not release it;
+     * false when the caller releases it as usual (no fixtures, failed scenario, used up).
+     */
+    public static boolean afterScenario(boolean failed) {
+        CURRENT.remove();
+        Worker worker = WORKERS.get(workerName());
+        if (worker == null) return false;
+        worker.lock.lock();
+        try {
+            if (worker.active.isEmpty()) return false;
+            worker.uses++;
+            if (failed || !ENABLED || worker.uses >= MAX_USES || !BaseTest.isDriverInitialized()
+                    || BaseTest.hasWaitingDriverBorrowers()) {
+                tearDownAll(worker, BaseTest.getDriver());
+                return false;
+            }
+            if (RECLAIMER_SET.compareAndSet(false, true)) {
+                BaseTest.setSessionReclaimer(() -> KEPT.get() > 0 && evictIdleWorker());
+            }
+            worker.kept = BaseTest.detachSession();
+            worker.keptSinceNanos = System.nanoTime();
+            KEPT.incrementAndGet();
+            return true;
+        } finally {
+            worker.lock.unlock();
+        }
+    }
+
+    /** Called in @AfterAll: tears down every fixture and returns the kept browsers to the pool. */
+    public static void endSuite() {
+        for (Worker worker : WORKERS.values()) {
+            worker.lock.lock();
+            try {
+                if (worker.kept != null) {
+                    DriverPool.PooledSession kept = worker.kept;
+                    worker.kept = null;
+                    KEPT.decrementAndGet();
+                    end(worker, kept);
+                }
+            } finally {
+                worker.lock.unlock();
+            }
+        }
+        for (Map.Entry<String, Active> e : SUITE_RESULTS.entrySet()) {
+            Definition def = DEFINITIONS.get(e.getKey());
+            if (def != null) tearDown(def, null, e.getValue().result);
+        }
+        SUITE_RESULTS.clear();
+    }
+
+    // ---------------- INTERNALS ----------------
+
+    private static String setUpSuite(Definition def, WebDriver driver, Map<String, Object> results) {
+        ReentrantLock lock = SUITE_LOCKS.computeIfAbsent(def.name, n -> new ReentrantLock());
+        lock.lock();   // first scenario sets up, the others wait and reuse its result
+        try {
+            Active active = SUITE_RESULTS.get(def.name);
+            if (active != null) {
+                REUSES.incrementAndGet();
+                results.put(def.name, active.result);
+                return def.name + " reused";
+            }
+            long start = System.nanoTime();
+            Object result = def.run(driver);
+            SUITE_RESULTS.put(def.name, new Active("", result));
+            results.put(def.name, result);
+            return def.name + " set up in " + (System.nanoTime() - start) / 1_000_000L + " ms";
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // name -> scope key of the WORKER/FEATURE fixtures among these names (unknown names left out)
+    private static Map<String, String> browserKeys(List<String> names, String featureUri) {
+        Map<String, String> keys = new HashMap<>();
+        for (String name : names) {
+            Definition def = DEFINITIONS.get(name);
+            if (def != null && def.scope != Scope.SUITE) keys.put(name, def.key(featureUri));
+        }
+        return keys;
+    }
+
+    // hand back the browser kept longest by a worker that is between scenarios; false if none is kept
+    private static boolean evictIdleWorker() {
+        String self = workerName();
+        while (true) {
+            Worker oldest = null;
+            for (Worker w : WORKERS.values()) {
+                if (w.name.equals(self)) continue;
+                if (!w.lock.tryLock()) continue;   // busy starting or ending a scenario: not idle
+                try {
+                    if (w.kept != null && (oldest == null || w.keptSinceNanos < oldest.keptSinceNanos)) oldest = w;
+                } finally {
+                    w.lock.unlock();
+                }
+            }
+            if (oldest == null) return false;
+            if (!oldest.lock.tryLock()) continue;   // became busy meanwhile; look again
+            try {
+                if (oldest.kept == null) continue;   // its worker took it back meanwhile; look again
+                DriverPool.PooledSession kept = oldest.kept;
+                oldest.kept = null;
+                KEPT.decrementAndGet();
+                end(oldest, kept);
+                EVICTIONS.incrementAndGet();
+                return true;
+            } finally {
+                oldest.lock.unlock();
+            }
+        }
+    }
+
+    // caller holds the worker's lock; the session is no longer attached to any thread
+    private static void end(Worker worker, DriverPool.PooledSession session) {
+        try {
+            tearDownAll(worker, session.getDriver());
+        } finally {
+            BaseTest.releaseSession(session);
+        }
+    }
+
+    // teardown in reverse setup order; caller holds the worker's lock
+    private static void tearDownAll(Worker worker, WebDriver driver) {
+        List<Map.Entry<String, Active>> active = new ArrayList<>(worker.active.entrySet());
+        worker.active.clear();
+        worker.uses = 0;
+        for (int i = active.size() - 1; i >= 0; i--) {
+            Definition def = DEFINITIONS.get(active.get(i).getKey());
+            if (def != null) tearDown(def, driver, active.get(i).getValue().result);
+        }
+    }
+
+    // a failing teardown must not keep the browser from going back to the pool
+    private static void tearDown(Definition def, WebDriver driver, Object result) {
+        TEARDOWNS.incrementAndGet();
+        if (def.teardown == null) return;
+        try {
+            def.teardown.tearDown(driver, result);
+        } catch (Exception e) {
+            System.err.println("Teardown of fixture " + def.name + " failed: " + e);
+        }
+    }
+
+    private static String workerName() {
+        return Thread.currentThread().getName();
+    }
+
+    // ---------------- STATS ----------------
+
+    public static int getSetupCount() {
+        return SETUPS.get();
+    }
+
+    public static int getReuseCount() {
+        return REUSES.get();
+    }
+
+    /** One line for the report, e.g. "2 set up, 7 reused, 2 torn down, 0 browsers evicted". */
+    public static String summary() {
+        return SETUPS.get() + " set up, " + REUSES.get() + " reused, " + TEARDOWNS.get() + " torn down, "
+                + EVICTIONS.get() + " browsers evicted" + (ENABLED ? "" : " (setupFixtures=false)");
+    }
+
+    // ---------------- MODEL ----------------
+
+    private static final class Definition {
+        final String name;
+        final Scope scope;
+        final Setup setup;
+        final Check check;
+        final Teardown teardown;
+
+        Definition(String name, Scope scope, Setup setup, Check check, Teardown teardown) {
+            this.name = name;
+            this.scope = scope;
+            this.setup = setup;
+            this.check = check;
+            this.teardown = teardown;
+        }
+
+        // results are reused only while this key stays the same
+        String key(String featureUri) {
+            return scope == Scope.FEATURE ? featureUri : "";
+        }
+
+        boolean isValid(WebDriver driver, Object result) {
+            try {
+                return check == null || check.isValid(driver, result);
+            } catch (RuntimeException e) {
+                return false;
+            }
+        }
+
+        Object run(WebDriver driver) {
+            SETUPS.incrementAndGet();
+            try {
+                return setup.setUp(driver);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException("Setup of fixture " + name + " failed", e);
+            }
+        }
+    }
+
+    private static final class Active {
+        final String key;
+        final Object result;
+
+        Active(String key, Object result) {
+            this.key = key;
+            this.result = result;
+        }
+    }
+
+    // state of one worker, guarded by its lock (a ReentrantLock, not a monitor: setup and teardown
+    // run WebDriver calls while holding it, which would pin a virtual thread's carrier)
+    private static final class Worker {
+        final String name;
+        final ReentrantLock lock = new ReentrantLock();
+        final Map<String, Active> active = new LinkedHashMap<>();   // set-up order
+        DriverPool.PooledSession kept;   // between scenarios only, null while one runs
+        long keptSinceNanos;
+        int uses;
+
+        Worker(String name) {
+            this.name = name;
+        }
+
+        Map<String, String> keys() {
+            Map<String, String> keys = new HashMap<>();
+            for (Map.Entry<String, Active> e : active.entrySet()) keys.put(e.getKey(), e.getValue().key);
+            return keys;
+        }
+    }
+}
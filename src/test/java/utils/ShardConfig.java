@@ -0,0 +1,43 @@
+package utils;
+
+/**
+ * Shard settings for splitting one suite across several JVMs / CI agents.
+ *
+ *   mvn test -Dshard.index=0 -Dshard.count=3
+ *   mvn test -Dshard.index=1 -Dshard.count=3
+ *   mvn test -Dshard.index=2 -Dshard.count=3
+ *
+ * The partition only depends on the feature files (and on -Dshard.historyFile when given), never
+ * on local state, so it is identical on every agent; see ScenarioScheduler. Reports go to a shard-<index> sub-folder and are combined by {@link ShardReportMerger}.
+ */
+public final class ShardConfig {
+
+    private static final int COUNT = CommonUtils.getGlobalIntProperty("shard.count", 1);
+    private static final int INDEX = CommonUtils.getGlobalIntProperty("shard.index", 0);
+
+    static {
+        if (COUNT < 1 || INDEX < 0 || INDEX >= COUNT) {
+            throw new IllegalArgumentException("Invalid shard settings: shard.index=" + INDEX
+                    + ", shard.count=" + COUNT + " (expected 0 <= index < count)");
+        }
+    }
+
+    private ShardConfig() {}
+
+    public static boolean isSharded() {
+        return COUNT > 1;
+    }
+
+    public static int getIndex() {
+        return INDEX;
+    }
+
+    public static int getCount() {
+        return COUNT;
+    }
+
+    /** "shard-<index>/" when sharded, otherwise "" - appended to report folders. */
+    public static String getOutputSubfolder() {
+        return isSharded() ? "shard-" + INDEX + "/" : "";
+    }
+}
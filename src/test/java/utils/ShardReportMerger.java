@@ -0,0 +1,103 @@
+package utils;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.reporter.ExtentSparkReporter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Combines the per-shard outputs of a sharded run (see {@link ShardConfig}) into one report:
+ *
+ *   Reports/extents-reports/shard-N/extent.json      -> Reports/extents-reports/merged/AutomationReport_merged.html
+ *   Reports/extents-reports/shard-N/events.ndjson    -> Reports/extents-reports/merged/AutomationReport_streaming_merged.html
+ *                                                      (reportMode=streaming, see StreamingReport)
+ *   target/cucumber-reports/shard-N/cucumber.json    -> target/cucumber-reports/cucumber.json
+ *
+ * Shards are merged in shard-index order (shard-2 before shard-10). Copy the shard folders from
+ * every agent into one workspace, then run:
+ *   mvn -Pmerge-reports test-compile exec:java
+ */
+public final class ShardReportMerger {
+
+    public static final String EXTENT_JSON = "extent.json";
+    static final String MERGED_EXTENT = "merged/AutomationReport_merged.html";
+    static final String MERGED_STREAMING = "merged/AutomationReport_streaming_merged.html";
+
+    private ShardReportMerger() {}
+
+    public static void main(String[] args) throws IOException {
+        String root = System.getProperty("user.dir");
+        int extent = mergeExtent(new File(root, "Reports/extents-reports"))
+                + mergeStreaming(new File(root, "Reports/extents-reports"));
+        int cucumber = mergeCucumberJson(new File(root, "target/cucumber-reports"));
+        System.out.println("Merged " + extent + " Extent shard(s) and " + cucumber + " Cucumber JSON shard(s)");
+    }
+
+    // ---------------- EXTENT ----------------
+
+    static int mergeExtent(File reportsDir) throws IOException {
+        List<File> archives = shardFiles(reportsDir, EXTENT_JSON);
+        if (archives.isEmpty()) return 0;
+
+        File out = new File(reportsDir, MERGED_EXTENT);
+        out.getParentFile().mkdirs();
+        ExtentSparkReporter spark = new ExtentSparkReporter(out);
+        spark.config().setReportName("Automation Report (" + archives.size() + " shards)");
+
+        ExtentReports ext = new ExtentReports();
+        for (File archive : archives) {
+            ext.createDomainFromJsonArchive(archive);
+        }
+        ext.attachReporter(spark);
+        ext.flush();
+        return archives.size();
+    }
+
+    /** Streaming shards: the event logs are rendered into one page, one log after the other. */
+    static int mergeStreaming(File reportsDir) throws IOException {
+        List<File> logs = shardFiles(reportsDir, StreamingReport.EVENT_LOG);
+        if (logs.isEmpty()) return 0;
+        StreamingReport.render(logs, new File(reportsDir, MERGED_STREAMING),
+                "Automation Report (" + logs.size() + " shards)");
+        return logs.size();
+    }
+
+    // ---------------- CUCUMBER JSON ----------------
+
+    /** Cucumber JSON is an array of features, so merging is a concatenation of the shard arrays. */
+    static int mergeCucumberJson(File reportsDir) throws IOException {
+        List<File> shards = shardFiles(reportsDir, "cucumber.json");
+        if (shards.isEmpty()) return 0;
+
+        ObjectMapper mapper = new ObjectMapper();
+        ArrayNode merged = mapper.createArrayNode();
+        for (File shard : shards) {
+            JsonNode features = mapper.readTree(shard);
+            if (features != null && features.isArray()) merged.addAll((ArrayNode) features);
+        }
+        mapper.writerWithDefaultPrettyPrinter().writeValue(new File(reportsDir, "cucumber.json"), merged);
+        return shards.size();
+    }
+
+    private static List<File> shardFiles(File dir, String fileName) {
+        List<File> files = new ArrayList<>();
+        File[] shardDirs = dir.listFiles(f -> f.isDirectory() && f.getName().matches("shard-\\d+"));
+        if (shardDirs == null) return files;
+
+        // numeric order: a string sort would put shard-10 before shard-2
+        Arrays.sort(shardDirs, Comparator.comparingInt(f -> Integer.parseInt(f.getName().substring("shard-".length()))));
+        for (File shardDir : shardDirs) {
+            File f = new File(shardDir, fileName);
+            if (f.isFile()) files.add(f);
+        }
+        return files;
+    }
+}
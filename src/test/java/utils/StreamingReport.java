@@ -0,0 +1,253 @@
+package utils;
+
+import com.aventstack.extentreports.Status;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Report mode for very large suites (reportMode=streaming): heap use does not grow with the suite.
+ *
+ * Each finished scenario is serialized to one line of an append-only NDJSON event log through a
+ * FileChannel as soon as it completes, and its buffered node is dropped. Nothing report-related
+ * accumulates in memory. At suite end the HTML report is rendered by streaming over the log twice:
+ * once for the totals, once to write the scenarios. Screenshots are linked, never embedded.
+ *
+ * Log lines:
+ *   {"type":"test","name":...,"status":"fail","start":ms,"end":ms,"categories":[...],
+ *    "logs":[{"status":"info","time":ms,"details":...,"media":path}, ...]}
+ *   {"type":"info","key":...,"value":...}       report-level system info
+ *
+ * Sharded runs write one log per shard folder; ShardReportMerger renders them into one page.
+ */
+public final class StreamingReport {
+
+    public static final String EVENT_LOG = "events.ndjson";
+
+    // worst first; a scenario's status is the worst status among its log entries
+    private static final List<String> SEVERITY = List.of("fail", "warning", "skip", "pass", "info");
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final File log;
+    private final File html;
+    private final String title;
+    private final FileChannel channel;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile boolean rendered;
+
+    /** Start a new event log (truncating an old one) that {@link #render()} turns into {@code html}. */
+    public StreamingReport(File log, File html, String title) throws IOException {
+        File dir = log.getParentFile();
+        if (dir != null) dir.mkdirs();
+        this.log = log;
+        this.html = html;
+        this.title = title;
+        this.channel = FileChannel.open(log.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    // ---------------- APPEND ----------------
+
+    /** Serialize one finished scenario to the log. Called on the scenario's own thread. */
+    public void append(BufferedExtentTest t) {
+        ObjectNode node = MAPPER.createObjectNode();
+        node.put("type", "test");
+        node.put("name", t.getName());
+        node.put("start", t.getStartTime().getTime());
+        node.put("end", (t.getEndTime() != null ? t.getEndTime() : new Date()).getTime());
+        ArrayNode categories = node.putArray("categories");
+        t.getCategories().forEach(categories::add);
+
+        String worst = "info";
+        ArrayNode logs = node.putArray("logs");
+        for (BufferedExtentTest.Entry e : t.getEntries()) {
+            String status = statusName(e.getStatus());
+            if (SEVERITY.indexOf(status) < SEVERITY.indexOf(worst)) worst = status;
+            ObjectNode entry = logs.addObject();
+            entry.put("status", status);
+            entry.put("time", e.getTimestamp().getTime());
+            entry.put("details", e.getDetails());
+            if (e.getMedia() != null && e.getMedia().getPath() != null) entry.put("media", e.getMedia().getPath());
+        }
+        node.put("status", "info".equals(worst) ? "pass" : worst);
+        write(node);
+    }
+
+    public void appendInfo(String key, String value) {
+        ObjectNode node = MAPPER.createObjectNode();
+        node.put("type", "info");
+        node.put("key", key);
+        node.put("value", value);
+        write(node);
+    }
+
+    private void write(ObjectNode node) {
+        try {
+            byte[] line = (MAPPER.writeValueAsString(node) + "\n").getBytes(StandardCharsets.UTF_8);
+            ByteBuffer buf = ByteBuffer.wrap(line);
+            writeLock.lock();
+            try {
+                while (buf.hasRemaining()) channel.write(buf);
+            } finally {
+                writeLock.unlock();
+            }
+        } catch (IOException e) {
+            System.err.println("Unable to append to report log " + log + ": " + e.getMessage());
+        }
+    }
+
+    // ---------------- RENDER ----------------
+
+    /** Close the log and render the HTML report (once; later calls do nothing). */
+    public void render() {
+        writeLock.lock();
+        try {
+            if (rendered) return;
+            rendered = true;
+            channel.force(false);
+            channel.close();
+            render(List.of(log), html, title);
+        } catch (IOException e) {
+            System.err.println("Unable to render streaming report " + html + ": " + e.getMessage());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /** Render one page from one or more event logs (e.g. one per shard). Returns the scenario count. */
+    public static int render(List<File> logs, File html, String title) throws IOException {
+        // pass 1: totals and system info only
+        Map<String, Integer> totals = new LinkedHashMap<>();
+        for (String s : SEVERITY) totals.put(s, 0);
+        Map<String, String> info = new LinkedHashMap<>();
+        int tests = 0;
+        long start = Long.MAX_VALUE;
+        long end = 0;
+        for (File f : logs) {
+            try (BufferedReader in = Files.newBufferedReader(f.toPath(), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (line.isBlank()) continue;
+                    JsonNode node = MAPPER.readTree(line);
+                    if ("info".equals(node.path("type").asText())) {
+                        info.put(node.path("key").asText(), node.path("value").asText());
+                    } else {
+                        tests++;
+                        totals.merge(node.path("status").asText("pass"), 1, Integer::sum);
+                        start = Math.min(start, node.path("start").asLong());
+                        end = Math.max(end, node.path("end").asLong());
+                    }
+                }
+            }
+        }
+
+        // pass 2: one <details> block per scenario, written as it is read
+        File dir = html.getParentFile();
+        if (dir != null) dir.mkdirs();
+        SimpleDateFormat time = new SimpleDateFormat("HH:mm:ss.SSS");
+        try (Writer out = Files.newBufferedWriter(html.toPath(), StandardCharsets.UTF_8)) {
+            out.write("<!DOCTYPE html><html><head><meta charset=\"utf-8\"><title>" + esc(title) + "</title><style>"
+                    + "body{font-family:sans-serif;margin:20px}table{border-collapse:collapse}td,th{padding:3px 8px;text-align:left}"
+                    + "details{border:1px solid #ddd;margin:4px 0;padding:4px 8px}summary{cursor:pointer}"
+                    + ".fail{color:#c62828}.warning{color:#ef6c00}.skip{color:#757575}.pass{color:#2e7d32}.info{color:#1565c0}"
+                    + "img{max-width:480px;display:block}</style></head><body>\n");
+            out.write("<h1>" + esc(title) + "</h1>\n<table>");
+            out.write("<tr><th>Scenarios</th><td>" + tests + "</td></tr>");
+            for (Map.Entry<String, Integer> t : totals.entrySet()) {
+                if (t.getValue() > 0) out.write("<tr><th class=\"" + t.getKey() + "\">" + t.getKey() + "</th><td>" + t.getValue() + "</td></tr>");
+            }
+            if (tests > 0) out.write("<tr><th>Started</th><td>" + esc(new Date(start).toString()) + "</td></tr>"
+                    + "<tr><th>Duration</th><td>" + (end - start) / 1000 + " s</td></tr>");
+            for (Map.Entry<String, String> i : info.entrySet()) {
+                out.write("<tr><th>" + esc(i.getKey()) + "</th><td>" + esc(i.getValue()) + "</td></tr>");
+            }
+            out.write("</table>\n<h2>Scenarios</h2>\n");
+
+            for (File f : logs) {
+                try (BufferedReader in = Files.newBufferedReader(f.toPath(), StandardCharsets.UTF_8)) {
+                    String line;
+                    while ((line = in.readLine()) != null) {
+                        if (line.isBlank()) continue;
+                        JsonNode node = MAPPER.readTree(line);
+                        if (!"test".equals(node.path("type").asText())) continue;
+                        writeTest(out, node, time);
+                    }
+                }
+            }
+            out.write("</body></html>\n");
+        }
+        return tests;
+    }
+
+    private static void writeTest(Writer out, JsonNode node, SimpleDateFormat time) throws IOException {
+        String status = node.path("status").asText("pass");
+        List<String> categories = new ArrayList<>();
+        node.path("categories").forEach(c -> categories.add(c.asText()));
+        long millis = node.path("end").asLong() - node.path("start").asLong();
+
+        out.write("<details" + ("fail".equals(status) ? " open" : "") + "><summary><b class=\"" + status + "\">"
+                + status.toUpperCase() + "</b> " + esc(node.path("name").asText()) + " <small>(" + millis + " ms"
+                + (categories.isEmpty() ? "" : ", " + esc(String.join(", ", categories))) + ")</small></summary><table>");
+        for (JsonNode e : node.path("logs")) {
+            String s = e.path("status").asText();
+            out.write("<tr><td>" + time.format(new Date(e.path("time").asLong())) + "</td><td class=\"" + s + "\">" + s
+                    + "</td><td>" + esc(e.path("details").asText()));
+            if (e.hasNonNull("media")) {
+                String uri = new File(e.path("media").asText()).toURI().toString();
+                out.write("<a href=\"" + esc(uri) + "\"><img loading=\"lazy\" src=\"" + esc(uri) + "\"></a>");
+            }
+            out.write("</td></tr>");
+        }
+        out.write("</table></details>\n");
+    }
+
+    private static String statusName(Status status) {
+        switch (status) {
+            case FAIL:
+                return "fail";
+            case WARNING:
+                return "warning";
+            case SKIP:
+                return "skip";
+            case PASS:
+                return "pass";
+            default:
+                return "info";
+        }
+    }
+
+    private static String esc(String s) {
+        if (s == null) return "";
+        StringBuilder sb = new StringBuilder(s.length() + 16);
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '<': sb.append("&lt;"); break;
+                case '>': sb.append("&gt;"); break;
+                case '&': sb.append("&amp;"); break;
+                case '"': sb.append("&quot;"); break;
+                default: sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
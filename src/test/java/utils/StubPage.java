@@ -0,0 +1,674 @@
+package utils;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.DOMException;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One page loaded in a {@link StubWebDriver} window: fixture HTML parsed leniently into a DOM, plus
+ * the element lookups and reads a browser would answer (no CSS engine, no JavaScript).
+ *
+ * Locators are evaluated as XPath 1.0 over the DOM; CSS selectors (which Selenium also uses for
+ * By.id / By.className / By.name) are translated to XPath for the subset fixtures need: type, #id,
+ * .class and [attr] selectors with descendant and child combinators, comma-separated.
+ * Visibility: an element is hidden by a hidden attribute, an inline display:none or
+ * visibility:hidden, type="hidden", or by being inside head/script/style/template.
+ */
+final class StubPage {
+
+    private static final Set<String> VOID_TAGS = Set.of("area", "base", "br", "col", "embed", "hr", "img", "input",
+            "link", "meta", "param", "source", "track", "wbr");
+    private static final Set<String> RAW_TEXT_TAGS = Set.of("script", "style", "textarea", "title");
+    private static final Set<String> HIDDEN_TAGS = Set.of("head", "script", "style", "template", "noscript");
+    private static final Set<String> BLOCK_TAGS = Set.of("address", "article", "aside", "blockquote", "br", "dd",
+            "div", "dl", "dt", "fieldset", "figure", "footer", "form", "h1", "h2", "h3", "h4", "h5", "h6", "header",
+            "hr", "li", "main", "nav", "ol", "p", "pre", "section", "table", "tr", "ul");
+    private static final Set<String> BOOLEAN_ATTRIBUTES = Set.of("checked", "disabled", "hidden", "multiple",
+            "readonly", "required", "selected", "autofocus");
+
+    private static final DocumentBuilderFactory DOCUMENTS = DocumentBuilderFactory.newInstance();
+    // DocumentBuilder and XPath are not thread-safe
+    private static final ThreadLocal<DocumentBuilder> BUILDER = ThreadLocal.withInitial(StubPage::newBuilder);
+    private static final ThreadLocal<XPath> XPATH = ThreadLocal.withInitial(() -> XPathFactory.newInstance().newXPath());
+
+    private final String url;
+    private final Document document;
+
+    private StubPage(String url, Document document) {
+        this.url = url;
+        this.document = document;
+    }
+
+    static StubPage blank(String url) {
+        return parse(url, "<html><head></head><body></body></html>");
+    }
+
+    static StubPage parse(String url, String html) {
+        return new StubPage(url, new Parser(html, BUILDER.get().newDocument()).parse());
+    }
+
+    String getUrl() {
+        return url;
+    }
+
+    Document getDocument() {
+        return document;
+    }
+
+    /** True when {@code element} belongs to this page (not a page navigated away from). */
+    boolean owns(Element element) {
+        return element.getOwnerDocument() == document;
+    }
+
+    String getTitle() {
+        List<Element> titles = find("tag name", "title", null);
+        return titles.isEmpty() ? "" : titles.get(0).getTextContent().trim();
+    }
+
+    // ---------------- LOOKUP ----------------
+
+    /**
+     * Elements matching a W3C locator strategy (css selector, xpath, tag name, link text, partial
+     * link text), searched below {@code root} or in the whole document when root is null.
+     */
+    List<Element> find(String using, String value, Element root) {
+        String scope = root == null ? "//" : ".//";
+        String xpath;
+        switch (using) {
+            case "xpath":
+                xpath = value;
+                break;
+            case "css selector":
+                xpath = cssToXPath(value, scope);
+                break;
+            case "tag name":
+                xpath = scope + value.toLowerCase(Locale.ROOT);
+                break;
+            case "link text":
+                xpath = scope + "a[normalize-space(.)=" + literal(value.trim()) + "]";
+                break;
+            case "partial link text":
+                xpath = scope + "a[contains(normalize-space(.)," + literal(value.trim()) + ")]";
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported locator strategy: " + using);
+        }
+        return evaluate(xpath, root == null ? document : root);
+    }
+
+    /** Same lookup with an object.properties locator type (id, name, classname, css, xpath, ...). */
+    List<Element> findByRepositoryType(String type, String value) {
+        switch (type.toLowerCase(Locale.ROOT)) {
+            case "id":
+                return evaluate("//*[@id=" + literal(value) + "]", document);
+            case "name":
+                return evaluate("//*[@name=" + literal(value) + "]", document);
+            case "classname":
+                return evaluate("//*[" + hasClass(value) + "]", document);
+            case "tagname":
+                return find("tag name", value, null);
+            case "css":
+                return find("css selector", value, null);
+            case "linktext":
+                return find("link text", value, null);
+            case "partiallinktext":
+                return find("partial link text", value, null);
+            case "xpath":
+                return find("xpath", value, null);
+            default:
+                throw new IllegalArgumentException("Unsupported locator type: " + type);
+        }
+    }
+
+    private static List<Element> evaluate(String xpath, Node context) {
+        try {
+            NodeList nodes = (NodeList) XPATH.get().evaluate(xpath, context, XPathConstants.NODESET);
+            List<Element> out = new ArrayList<>(nodes.getLength());
+            for (int i = 0; i < nodes.getLength(); i++) {
+                if (nodes.item(i) instanceof Element) out.add((Element) nodes.item(i));
+            }
+            return out;
+        } catch (XPathExpressionException e) {
+            throw new IllegalArgumentException("Invalid XPath '" + xpath + "': " + e.getMessage(), e);
+        }
+    }
+
+    // ---------------- READ ----------------
+
+    static boolean isDisplayed(Element element) {
+        for (Node n = element; n instanceof Element; n = n.getParentNode()) {
+            Element e = (Element) n;
+            if (HIDDEN_TAGS.contains(e.getTagName()) || e.hasAttribute("hidden")) return false;
+            if ("input".equals(e.getTagName()) && "hidden".equalsIgnoreCase(e.getAttribute("type"))) return false;
+            String style = e.getAttribute("style").replace(" ", "").toLowerCase(Locale.ROOT);
+            if (style.contains("display:none") || style.contains("visibility:hidden")) return false;
+        }
+        return true;
+    }
+
+    static boolean isEnabled(Element element) {
+        return !element.hasAttribute("disabled");
+    }
+
+    static boolean isSelected(Element element) {
+        return element.hasAttribute("checked") || element.hasAttribute("selected");
+    }
+
+    /** Rendered text like WebElement.getText: visible descendants only, one line per block. */
+    static String getText(Element element) {
+        if (!isDisplayed(element)) return "";
+        StringBuilder sb = new StringBuilder();
+        appendText(element, sb);
+        StringBuilder out = new StringBuilder();
+        for (String line : sb.toString().split("\n")) {
+            String trimmed = line.replaceAll("[ \\t\\r\\f\\u00a0]+", " ").trim();
+            if (trimmed.isEmpty()) continue;
+            if (out.length() > 0) out.append('\n');
+            out.append(trimmed);
+        }
+        return out.toString();
+    }
+
+    private static void appendText(Node node, StringBuilder sb) {
+        for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() == Node.TEXT_NODE) {
+                sb.append(child.getNodeValue().replace('\n', ' '));
+            } else if (child instanceof Element) {
+                Element e = (Element) child;
+                if (!isDisplayed(e)) continue;
+                boolean block = BLOCK_TAGS.contains(e.getTagName());
+                if (block) sb.append('\n');
+                if ("input".equals(e.getTagName()) && isButton(e)) sb.append(e.getAttribute("value"));
+                appendText(e, sb);
+                if (block) sb.append('\n');
+            }
+        }
+    }
+
+    /** Attribute as WebElement.getAttribute reports it (boolean attributes as "true" / null). */
+    static String getAttribute(Element element, String name) {
+        String n = name.toLowerCase(Locale.ROOT);
+        if ("classname".equals(n)) n = "class";
+        if (BOOLEAN_ATTRIBUTES.contains(n)) return element.hasAttribute(n) ? "true" : null;
+        if ("value".equals(n) && "textarea".equals(element.getTagName())) return element.getTextContent();
+        return element.hasAttribute(n) ? element.getAttribute(n) : null;
+    }
+
+    static Map<String, String> getAttributes(Element element) {
+        Map<String, String> out = new LinkedHashMap<>();
+        NamedNodeMap attrs = element.getAttributes();
+        for (int i = 0; i < attrs.getLength(); i++) {
+            Attr a = (Attr) attrs.item(i);
+            out.put(a.getName(), a.getValue());
+        }
+        return out;
+    }
+
+    /** Value of an input/textarea/select as the DOM value property, or null for other elements. */
+    static String getValue(Element element) {
+        switch (element.getTagName()) {
+            case "textarea":
+                return element.getTextContent();
+            case "input":
+            case "select":
+            case "option":
+            case "button":
+                return element.getAttribute("value");
+            default:
+                return null;
+        }
+    }
+
+    static void setValue(Element element, String value) {
+        if ("textarea".equals(element.getTagName())) {
+            element.setTextContent(value);
+        } else {
+            element.setAttribute("value", value);
+        }
+    }
+
+    static boolean isButton(Element element) {
+        String type = element.getAttribute("type").toLowerCase(Locale.ROOT);
+        return "button".equals(element.getTagName()) || "input".equals(element.getTagName())
+                && ("submit".equals(type) || "button".equals(type) || "reset".equals(type) || "image".equals(type));
+    }
+
+    /** Submit button: a button without type (or type=submit) or an input of type submit/image. */
+    static boolean isSubmit(Element element) {
+        String type = element.getAttribute("type").toLowerCase(Locale.ROOT);
+        if ("button".equals(element.getTagName())) return type.isEmpty() || "submit".equals(type);
+        return "input".equals(element.getTagName()) && ("submit".equals(type) || "image".equals(type));
+    }
+
+    static Element closest(Element element, String tag) {
+        for (Node n = element; n instanceof Element; n = n.getParentNode()) {
+            if (tag.equals(((Element) n).getTagName())) return (Element) n;
+        }
+        return null;
+    }
+
+    /** Page source, re-serialized from the DOM. */
+    String getSource() {
+        StringBuilder sb = new StringBuilder("<!DOCTYPE html>");
+        if (document.getDocumentElement() != null) serialize(document.getDocumentElement(), sb);
+        return sb.toString();
+    }
+
+    private static void serialize(Node node, StringBuilder sb) {
+        if (node.getNodeType() == Node.TEXT_NODE) {
+            sb.append(node.getNodeValue().replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;"));
+            return;
+        }
+        if (!(node instanceof Element)) return;
+        Element e = (Element) node;
+        sb.append('<').append(e.getTagName());
+        getAttributes(e).forEach((k, v) -> sb.append(' ').append(k).append("=\"").append(v.replace("&", "&amp;").replace("\"", "&quot;")).append('"'));
+        sb.append('>');
+        if (VOID_TAGS.contains(e.getTagName())) return;
+        for (Node child = e.getFirstChild(); child != null; child = child.getNextSibling()) serialize(child, sb);
+        sb.append("</").append(e.getTagName()).append('>');
+    }
+
+    // ---------------- CSS -> XPATH ----------------
+
+    /** Translate a CSS selector group to an XPath union; scope is "//" (document) or ".//" (element). */
+    static String cssToXPath(String selector, String scope) {
+        return new CssTranslator(selector, scope).translate();
+    }
+
+    private static final class CssTranslator {
+        private final String s;
+        private final String scope;
+        private int i;
+
+        CssTranslator(String selector, String scope) {
+            this.s = selector;
+            this.scope = scope;
+        }
+
+        String translate() {
+            List<String> alternatives = new ArrayList<>();
+            StringBuilder path = new StringBuilder(scope);
+            boolean expectCompound = true;
+            while (true) {
+                skipSpaces();
+                if (i >= s.length()) break;
+                char c = s.charAt(i);
+                if (c == ',') {
+                    if (expectCompound) throw invalid("empty selector");
+                    alternatives.add(path.toString());
+                    path = new StringBuilder(scope);
+                    i++;
+                    expectCompound = true;
+                    continue;
+                }
+                if (c == '>') {
+                    if (expectCompound) throw invalid("combinator without a selector");
+                    path.append('/');
+                    i++;
+                    expectCompound = true;
+                    continue;
+                }
+                if (!expectCompound) {
+                    path.append("//");   // descendant combinator (whitespace)
+                }
+                path.append(compound());
+                expectCompound = false;
+            }
+            if (expectCompound) throw invalid("incomplete selector");
+            alternatives.add(path.toString());
+            return String.join(" | ", alternatives);
+        }
+
+        private String compound() {
+            int start = i;
+            String tag = "*";
+            StringBuilder predicates = new StringBuilder();
+            if (i < s.length() && s.charAt(i) == '*') {
+                i++;
+            } else if (i < s.length() && isIdentStart(s.charAt(i))) {
+                tag = ident().toLowerCase(Locale.ROOT);
+            }
+            while (i < s.length()) {
+                char c = s.charAt(i);
+                if (c == '#') {
+                    i++;
+                    predicates.append("[@id=").append(literal(ident())).append(']');
+                } else if (c == '.') {
+                    i++;
+                    predicates.append('[').append(hasClass(ident())).append(']');
+                } else if (c == '[') {
+                    i++;
+                    predicates.append('[').append(attribute()).append(']');
+                } else if (c == ':' || c == '+' || c == '~') {
+                    throw invalid("'" + c + "' is not supported by the stub");
+                } else {
+                    break;
+                }
+            }
+            if (i == start) throw invalid("unexpected '" + s.charAt(i) + "'");
+            return tag + predicates;
+        }
+
+        private String attribute() {
+            skipSpaces();
+            String name = ident().toLowerCase(Locale.ROOT);
+            skipSpaces();
+            if (i < s.length() && s.charAt(i) == ']') {
+                i++;
+                return "@" + name;
+            }
+            String op = "";
+            while (i < s.length() && "~|^$*=".indexOf(s.charAt(i)) >= 0) op += s.charAt(i++);
+            skipSpaces();
+            String value;
+            if (i < s.length() && (s.charAt(i) == '"' || s.charAt(i) == '\'')) {
+                char quote = s.charAt(i++);
+                StringBuilder sb = new StringBuilder();
+                while (i < s.length() && s.charAt(i) != quote) {
+                    if (s.charAt(i) == '\\' && i + 1 < s.length()) i++;
+                    sb.append(s.charAt(i++));
+                }
+                if (i >= s.length()) throw invalid("unterminated string");
+                i++;
+                value = sb.toString();
+            } else {
+                value = ident();
+            }
+            skipSpaces();
+            if (i >= s.length() || s.charAt(i) != ']') throw invalid("missing ']'");
+            i++;
+            String a = "@" + name;
+            String v = literal(value);
+            switch (op) {
+                case "=":
+                    return a + "=" + v;
+                case "~=":
+                    return "contains(concat(' ',normalize-space(" + a + "),' '),concat(' '," + v + ",' '))";
+                case "|=":
+                    return "(" + a + "=" + v + " or starts-with(" + a + ",concat(" + v + ",'-')))";
+                case "^=":
+                    return "starts-with(" + a + "," + v + ")";
+                case "$=":
+                    return "substring(" + a + ",string-length(" + a + ")-string-length(" + v + ")+1)=" + v;
+                case "*=":
+                    return "contains(" + a + "," + v + ")";
+                default:
+                    throw invalid("unknown attribute operator '" + op + "'");
+            }
+        }
+
+        // identifier with CSS escapes (\- , \31 ...) resolved
+        private String ident() {
+            StringBuilder sb = new StringBuilder();
+            while (i < s.length()) {
+                char c = s.charAt(i);
+                if (c == '\\' && i + 1 < s.length()) {
+                    i++;
+                    int start = i;
+                    while (i < s.length() && i - start < 6 && Character.digit(s.charAt(i), 16) >= 0) i++;
+                    if (i > start) {
+                        sb.appendCodePoint(Integer.parseInt(s.substring(start, i), 16));
+                        if (i < s.length() && s.charAt(i) == ' ') i++;
+                    } else {
+                        sb.append(s.charAt(i++));
+                    }
+                } else if (Character.isLetterOrDigit(c) || c == '-' || c == '_' || c > 0x7f) {
+                    sb.append(c);
+                    i++;
+                } else {
+                    break;
+                }
+            }
+            if (sb.length() == 0) throw invalid("identifier expected");
+            return sb.toString();
+        }
+
+        private boolean isIdentStart(char c) {
+            return Character.isLetter(c) || c == '_' || c == '-' || c == '\\' || c > 0x7f;
+        }
+
+        private void skipSpaces() {
+            while (i < s.length() && Character.isWhitespace(s.charAt(i))) i++;
+        }
+
+        private IllegalArgumentException invalid(String reason) {
+            return new IllegalArgumentException("Invalid CSS selector '" + s + "' at " + i + ": " + reason);
+        }
+    }
+
+    private static String hasClass(String name) {
+        return "contains(concat(' ',normalize-space(@class),' ')," + literal(" " + name + " ") + ")";
+    }
+
+    // XPath 1.0 string literal (no escape syntax: quotes are joined with concat)
+    private static String literal(String value) {
+        if (value.indexOf('\'') < 0) return "'" + value + "'";
+        if (value.indexOf('"') < 0) return "\"" + value + "\"";
+        StringBuilder sb = new StringBuilder("concat(");
+        String[] parts = value.split("'", -1);
+        for (int p = 0; p < parts.length; p++) {
+            if (p > 0) sb.append(",\"'\",");
+            sb.append('\'').append(parts[p]).append('\'');
+        }
+        return sb.append(')').toString();
+    }
+
+    // ---------------- HTML PARSER ----------------
+
+    private static DocumentBuilder newBuilder() {
+        try {
+            return DOCUMENTS.newDocumentBuilder();
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("No DOM implementation", e);
+        }
+    }
+
+    /**
+     * Lenient HTML tokenizer building a DOM: void and self-closed elements, raw-text elements,
+     * comments and doctype skipped, unmatched end tags ignored, unclosed elements closed at the end.
+     */
+    private static final class Parser {
+        private final String html;
+        private final Document doc;
+        private final Deque<Element> open = new ArrayDeque<>();
+        private int i;
+
+        Parser(String html, Document doc) {
+            this.html = html;
+            this.doc = doc;
+        }
+
+        Document parse() {
+            while (i < html.length()) {
+                int lt = html.indexOf('<', i);
+                if (lt < 0) {
+                    text(html.substring(i));
+                    break;
+                }
+                if (lt > i) text(html.substring(i, lt));
+                i = lt;
+                if (html.startsWith("<!--", i)) {
+                    int end = html.indexOf("-->", i + 4);
+                    i = end < 0 ? html.length() : end + 3;
+                } else if (html.startsWith("<!", i) || html.startsWith("<?", i)) {
+                    int end = html.indexOf('>', i);
+                    i = end < 0 ? html.length() : end + 1;
+                } else if (html.startsWith("</", i)) {
+                    endTag();
+                } else if (i + 1 < html.length() && Character.isLetter(html.charAt(i + 1))) {
+                    startTag();
+                } else {
+                    text("<");
+                    i++;
+                }
+            }
+            if (doc.getDocumentElement() == null) doc.appendChild(doc.createElement("html"));
+            return doc;
+        }
+
+        private void startTag() {
+            i++;
+            String name = name().toLowerCase(Locale.ROOT);
+            Element element = doc.createElement(name);
+            boolean selfClosed = false;
+            while (i < html.length()) {
+                skipSpaces();
+                if (i >= html.length()) break;
+                char c = html.charAt(i);
+                if (c == '>') {
+                    i++;
+                    break;
+                }
+                if (c == '/') {
+                    selfClosed = true;
+                    i++;
+                    continue;
+                }
+                String attr = name().toLowerCase(Locale.ROOT);
+                if (attr.isEmpty()) {
+                    i++;   // stray character
+                    continue;
+                }
+                String value = "";
+                skipSpaces();
+                if (i < html.length() && html.charAt(i) == '=') {
+                    i++;
+                    skipSpaces();
+                    value = attributeValue();
+                }
+                try {
+                    element.setAttribute(attr, decode(value));
+                } catch (DOMException ignored) {
+                    // not a valid XML name (e.g. @click): irrelevant for locating elements
+                }
+            }
+            append(element);
+            if (RAW_TEXT_TAGS.contains(name) && !selfClosed) {
+                int end = html.toLowerCase(Locale.ROOT).indexOf("</" + name, i);
+                String raw = html.substring(i, end < 0 ? html.length() : end);
+                element.appendChild(doc.createTextNode("script".equals(name) || "style".equals(name) ? raw : decode(raw)));
+                int close = end < 0 ? -1 : html.indexOf('>', end);
+                i = close < 0 ? html.length() : close + 1;
+            } else if (!selfClosed && !VOID_TAGS.contains(name)) {
+                open.push(element);
+            }
+        }
+
+        private void endTag() {
+            i += 2;
+            String name = name().toLowerCase(Locale.ROOT);
+            int close = html.indexOf('>', i);
+            i = close < 0 ? html.length() : close + 1;
+            boolean isOpen = open.stream().anyMatch(e -> e.getTagName().equals(name));
+            if (!isOpen) return;
+            while (!open.isEmpty() && !open.pop().getTagName().equals(name)) {
+                // implicitly closed (e.g. <p> or <li> without an end tag)
+            }
+        }
+
+        private void append(Element element) {
+            if (!open.isEmpty()) {
+                open.peek().appendChild(element);
+            } else if (doc.getDocumentElement() == null) {
+                doc.appendChild(element);
+            } else {
+                doc.getDocumentElement().appendChild(element);
+            }
+        }
+
+        private void text(String raw) {
+            if (open.isEmpty()) return;
+            open.peek().appendChild(doc.createTextNode(decode(raw)));
+        }
+
+        private String name() {
+            int start = i;
+            while (i < html.length()) {
+                char c = html.charAt(i);
+                if (Character.isWhitespace(c) || c == '>' || c == '/' || c == '=') break;
+                i++;
+            }
+            return html.substring(start, i);
+        }
+
+        private String attributeValue() {
+            if (i >= html.length()) return "";
+            char quote = html.charAt(i);
+            if (quote == '"' || quote == '\'') {
+                int end = html.indexOf(quote, i + 1);
+                String value = html.substring(i + 1, end < 0 ? html.length() : end);
+                i = end < 0 ? html.length() : end + 1;
+                return value;
+            }
+            int start = i;
+            while (i < html.length() && !Character.isWhitespace(html.charAt(i)) && html.charAt(i) != '>') i++;
+            return html.substring(start, i);
+        }
+
+        private void skipSpaces() {
+            while (i < html.length() && Character.isWhitespace(html.charAt(i))) i++;
+        }
+    }
+
+    private static String decode(String s) {
+        if (s.indexOf('&') < 0) return s;
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            int semi = c == '&' ? s.indexOf(';', i) : -1;
+            if (semi < 0 || semi - i > 10) {
+                sb.append(c);
+                continue;
+            }
+            String entity = s.substring(i + 1, semi);
+            String decoded = entity(entity);
+            if (decoded == null) {
+                sb.append(c);
+                continue;
+            }
+            sb.append(decoded);
+            i = semi;
+        }
+        return sb.toString();
+    }
+
+    private static String entity(String name) {
+        switch (name) {
+            case "amp": return "&";
+            case "lt": return "<";
+            case "gt": return ">";
+            case "quot": return "\"";
+            case "apos": return "'";
+            case "nbsp": return "\u00a0";
+            default:
+                try {
+                    if (name.startsWith("#x") || name.startsWith("#X")) return new String(Character.toChars(Integer.parseInt(name.substring(2), 16)));
+                    if (name.startsWith("#")) return new String(Character.toChars(Integer.parseInt(name.substring(1))));
+                } catch (IllegalArgumentException ignored) {
+                    // not a character reference
+                }
+                return null;
+        }
+    }
+}
@@ -0,0 +1,780 @@
+package utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.w3c.dom.Element;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-process stand-in for a browser + driver that speaks the W3C WebDriver protocol, so the
+ * framework itself (scheduling, pooling, reporting, screenshots, waits) can be run and load-tested
+ * with thousands of scenarios on an offline box, without Chrome.
+ *
+ * BaseTest connects to it like to any remote end (webDriverRemoteUrl); Hooks starts it and sets
+ * that URL when stubWebDriver=true. Each session has windows, cookies and storage; pages are real
+ * HTTP fetches, parsed into a DOM ({@link StubPage}) that element commands work on. URLs matching
+ * stubWebDriverRoutes are served from the FixtureServer instead (by default the live Sauce Demo
+ * site maps to fixtures/saucedemo/), so the existing features run unchanged. Typing sets values,
+ * clicking a link or submit button navigates (form action), and screenshots are generated PNGs
+ * that differ per page and page state.
+ *
+ * No JavaScript is run. The scripts the framework sends itself (Selenium's isDisplayed and
+ * getAttribute atoms, PageSnapshot, SessionStateCache storage, DriverPool reset, navigation
+ * timing) are recognised and answered from the DOM; any other script returns null.
+ *
+ * Latency is added to every command, navigations also pay the fixture fetch; failure injection
+ * answers a share of commands with "unknown error" and refuses a share of new sessions with
+ * "session not created" (counted by CircuitBreaker as infrastructure errors).
+ *
+ * Settings (global.properties or -D system properties):
+ *   stubWebDriver                    true = drive this stub instead of Chrome (default false)
+ *   stubWebDriverPort                port to bind, 0 = any free port (default 0)
+ *   stubWebDriverLatencyMillis       added to every command (default 0)
+ *   stubWebDriverJitterMillis        random extra latency 0..N per command (default 0)
+ *   stubWebDriverSessionMillis       extra time to create a session, i.e. browser launch (default 0)
+ *   stubWebDriverFailureRate         share (0-1) of commands failing with "unknown error" (default 0)
+ *   stubWebDriverSessionFailureRate  share (0-1) of new sessions refused (default 0)
+ *   stubWebDriverRoutes              comma-separated urlPrefix=>fixture path (or full URL) rewrites
+ *                                    (default https://www.saucedemo.com/=>/saucedemo/)
+ *   stubWebDriverScreenshotSize      WIDTHxHEIGHT of generated screenshots (default 1280x720)
+ */
+public final class StubWebDriver {
+
+    private static final String ELEMENT_KEY = "element-6066-11e4-a52e-4f735466cecf";
+    private static final String DEFAULT_ROUTES = "https://www.saucedemo.com/=>/saucedemo/";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final HttpClient FETCH = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+
+    private static final Pattern SET_ITEM = Pattern.compile(
+            "window\\.(localStorage|sessionStorage)\\.setItem\\((\"(?:[^\"\\\\]|\\\\.)*\"),(\"(?:[^\"\\\\]|\\\\.)*\")\\)");
+
+    private static final ConcurrentMap<String, Session> SESSIONS = new ConcurrentHashMap<>();
+    // generated PNGs by page + state; bounded by clearing, frames are cheap to regenerate
+    private static final ConcurrentMap<String, byte[]> FRAMES = new ConcurrentHashMap<>();
+
+    private static final AtomicLong COMMANDS = new AtomicLong();
+    private static final AtomicLong SESSIONS_CREATED = new AtomicLong();
+    private static final AtomicLong INJECTED_FAILURES = new AtomicLong();
+
+    private static HttpServer server;
+    private static volatile String url;
+
+    private StubWebDriver() {}
+
+    // ---------------- LIFECYCLE ----------------
+
+    public static boolean isEnabled() {
+        return CommonUtils.getGlobalBooleanProperty("stubWebDriver", false);
+    }
+
+    /**
+     * When stubWebDriver=true: start the stub (once per JVM) and point webDriverRemoteUrl at it.
+     * Call before the first driver is created.
+     */
+    public static void startIfEnabled() {
+        if (url == null && isEnabled()) {
+            System.setProperty("webDriverRemoteUrl", start());
+        }
+    }
+
+    /** Start once per JVM (idempotent) and return the remote end URL, e.g. http://127.0.0.1:41235 */
+    public static synchronized String start() {
+        if (server == null) {
+            // without TCP_NODELAY the JDK server adds ~40 ms to small responses (read once per JVM)
+            System.getProperties().putIfAbsent("sun.net.httpserver.nodelay", "true");
+            try {
+                HttpServer s = HttpServer.create(new InetSocketAddress("127.0.0.1",
+                        CommonUtils.getGlobalIntProperty("stubWebDriverPort", 0)), 0);
+                s.createContext("/", StubWebDriver::handle);
+                ExecutorService executor = Executors.newCachedThreadPool(r -> {
+                    Thread t = new Thread(r, "stub-webdriver");
+                    t.setDaemon(true);
+                    return t;
+                });
+                s.setExecutor(executor);
+                // the dispatcher thread inherits daemon status from the thread calling start()
+                Thread starter = new Thread(s::start, "stub-webdriver-start");
+                starter.setDaemon(true);
+                starter.start();
+                starter.join();
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> s.stop(0), "stub-webdriver-stop"));
+                server = s;
+                url = "http://127.0.0.1:" + s.getAddress().getPort();
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to start stub WebDriver", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while starting stub WebDriver", e);
+            }
+        }
+        return url;
+    }
+
+    public static boolean isStarted() {
+        return url != null;
+    }
+
+    /** One-line summary for the report's system info. */
+    public static String summary() {
+        return COMMANDS.get() + " commands, " + SESSIONS_CREATED.get() + " sessions, "
+                + INJECTED_FAILURES.get() + " injected failures";
+    }
+
+    // ---------------- HTTP ----------------
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            int status = 200;
+            Object value;
+            try {
+                JsonNode body = readBody(exchange);
+                List<String> path = segments(exchange.getRequestURI().getPath());
+                value = dispatch(exchange.getRequestMethod(), path, body);
+            } catch (W3CException e) {
+                status = e.status;
+                value = error(e.error, e.getMessage());
+            } catch (IllegalArgumentException e) {
+                status = 400;
+                value = error(e.getMessage() != null && e.getMessage().startsWith("Invalid") ? "invalid selector" : "invalid argument",
+                        e.getMessage());
+            } catch (RuntimeException e) {
+                status = 500;
+                value = error("unknown error", String.valueOf(e));
+            }
+            Map<String, Object> envelope = new LinkedHashMap<>();
+            envelope.put("value", value);
+            byte[] out = MAPPER.writeValueAsBytes(envelope);
+            exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+            exchange.getResponseHeaders().add("Cache-Control", "no-cache");
+            exchange.sendResponseHeaders(status, out.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(out);
+            }
+        }
+    }
+
+    private static JsonNode readBody(HttpExchange exchange) throws IOException {
+        byte[] raw = exchange.getRequestBody().readAllBytes();
+        if (raw.length == 0) return MAPPER.createObjectNode();
+        return MAPPER.readTree(raw);
+    }
+
+    private static List<String> segments(String path) {
+        List<String> out = new ArrayList<>();
+        for (String s : path.split("/")) {
+            if (!s.isEmpty()) out.add(s);
+        }
+        return out;
+    }
+
+    private static Map<String, Object> error(String error, String message) {
+        Map<String, Object> value = new LinkedHashMap<>();
+        value.put("error", error);
+        value.put("message", message);
+        value.put("stacktrace", "");
+        return value;
+    }
+
+    // ---------------- COMMANDS ----------------
+
+    private static Object dispatch(String method, List<String> path, JsonNode body) {
+        COMMANDS.incrementAndGet();
+        if (path.size() == 1 && "status".equals(path.get(0))) {
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("ready", true);
+            status.put("message", "stub WebDriver ready");
+            return status;
+        }
+        if (path.isEmpty() || !"session".equals(path.get(0))) throw unknownCommand(method, path);
+        if (path.size() == 1 && "POST".equals(method)) return newSession();
+
+        Session session = SESSIONS.get(path.get(1));
+        if (session == null) throw new W3CException(404, "invalid session id", "No active session " + path.get(1));
+        if (path.size() == 2 && "DELETE".equals(method)) {
+            SESSIONS.remove(session.id);
+            return null;
+        }
+
+        delay(0);
+        if (inject("stubWebDriverFailureRate")) {
+            throw new W3CException(500, "unknown error", "Injected failure (stubWebDriverFailureRate)");
+        }
+        String command = path.get(2);
+        List<String> rest = path.subList(3, path.size());
+        // one command at a time per session, like a real driver
+        synchronized (session) {
+            switch (command) {
+                case "url":
+                    if ("POST".equals(method)) {
+                        session.navigate(text(body, "url"), true);
+                        return null;
+                    }
+                    return session.window().page.getUrl();
+                case "title":
+                    return session.window().page.getTitle();
+                case "source":
+                    return session.window().page.getSource();
+                case "back":
+                    session.window().back();
+                    return null;
+                case "forward":
+                    session.window().forward();
+                    return null;
+                case "refresh":
+                    session.navigate(session.window().page.getUrl(), false);
+                    return null;
+                case "timeouts":
+                    if ("POST".equals(method)) {
+                        body.fields().forEachRemaining(f -> session.timeouts.put(f.getKey(), f.getValue().asLong()));
+                        return null;
+                    }
+                    return session.timeouts;
+                case "window":
+                    return window(session, method, rest, body);
+                case "frame":
+                    if (!rest.isEmpty() || body.path("id").isNull() || body.path("id").isMissingNode()) return null;
+                    throw new W3CException(404, "no such frame", "The stub has no frames");
+                case "alert":
+                    throw new W3CException(404, "no such alert", "The stub never shows alerts");
+                case "cookie":
+                    return cookies(session, method, rest, body);
+                case "element":
+                case "elements":
+                    return element(session, method, command, rest, body);
+                case "execute":
+                    return session.execute(text(body, "script"), body.path("args"));
+                case "actions":
+                    return null;
+                case "screenshot":
+                    return session.screenshot();
+                default:
+                    throw unknownCommand(method, path);
+            }
+        }
+    }
+
+    private static Object newSession() {
+        delay(CommonUtils.getGlobalIntProperty("stubWebDriverSessionMillis", 0));
+        if (inject("stubWebDriverSessionFailureRate")) {
+            throw new W3CException(500, "session not created", "Injected failure (stubWebDriverSessionFailureRate)");
+        }
+        Session session = new Session(UUID.randomUUID().toString().replace("-", ""));
+        SESSIONS.put(session.id, session);
+        SESSIONS_CREATED.incrementAndGet();
+
+        Map<String, Object> capabilities = new LinkedHashMap<>();
+        capabilities.put("browserName", "chrome");
+        capabilities.put("browserVersion", "stub");
+        capabilities.put("platformName", "linux");
+        capabilities.put("acceptInsecureCerts", false);
+        capabilities.put("pageLoadStrategy", "normal");
+        capabilities.put("setWindowRect", true);
+        capabilities.put("timeouts", session.timeouts);
+        Map<String, Object> value = new LinkedHashMap<>();
+        value.put("sessionId", session.id);
+        value.put("capabilities", capabilities);
+        return value;
+    }
+
+    private static Object window(Session session, String method, List<String> rest, JsonNode body) {
+        String sub = rest.isEmpty() ? "" : rest.get(0);
+        switch (sub) {
+            case "":
+                if ("GET".equals(method)) return session.current;
+                if ("POST".equals(method)) {
+                    String handle = text(body, "handle");
+                    if (!session.windows.containsKey(handle)) throw new W3CException(404, "no such window", handle);
+                    session.current = handle;
+                    return null;
+                }
+                session.windows.remove(session.current);
+                if (!session.windows.isEmpty()) session.current = session.windows.keySet().iterator().next();
+                return new ArrayList<>(session.windows.keySet());
+            case "handles":
+                return new ArrayList<>(session.windows.keySet());
+            case "new":
+                String handle = session.openWindow();
+                Map<String, Object> created = new LinkedHashMap<>();
+                created.put("handle", handle);
+                created.put("type", body.path("type").asText("tab"));
+                return created;
+            case "rect":
+            case "maximize":
+            case "minimize":
+            case "fullscreen":
+                Map<String, Object> rect = new LinkedHashMap<>();
+                rect.put("x", 0);
+                rect.put("y", 0);
+                rect.put("width", session.width);
+                rect.put("height", session.height);
+                return rect;
+            default:
+                throw unknownCommand(method, rest);
+        }
+    }
+
+    private static Object cookies(Session session, String method, List<String> rest, JsonNode body) {
+        if ("POST".equals(method)) {
+            Map<String, Object> cookie = MAPPER.convertValue(body.path("cookie"), MAPPER.getTypeFactory()
+                    .constructMapType(LinkedHashMap.class, String.class, Object.class));
+            if (!cookie.containsKey("name")) throw new IllegalArgumentException("cookie without a name");
+            cookie.putIfAbsent("path", "/");
+            session.cookies.put(String.valueOf(cookie.get("name")), cookie);
+            return null;
+        }
+        if ("DELETE".equals(method)) {
+            if (rest.isEmpty()) session.cookies.clear();
+            else session.cookies.remove(rest.get(0));
+            return null;
+        }
+        if (rest.isEmpty()) return new ArrayList<>(session.cookies.values());
+        Object cookie = session.cookies.get(rest.get(0));
+        if (cookie == null) throw new W3CException(404, "no such cookie", rest.get(0));
+        return cookie;
+    }
+
+    private static Object element(Session session, String method, String command, List<String> rest, JsonNode body) {
+        StubPage page = session.window().page;
+        if (rest.isEmpty()) {
+            List<Element> found = page.find(text(body, "using"), text(body, "value"), null);
+            return "elements".equals(command) ? session.refs(found) : session.first(found, body);
+        }
+        if ("active".equals(rest.get(0))) {
+            List<Element> bodies = page.find("tag name", "body", null);
+            return session.first(bodies, body);
+        }
+        Element el = session.resolve(rest.get(0));
+        String sub = rest.size() > 1 ? rest.get(1) : "";
+        switch (sub) {
+            case "element":
+                return session.first(page.find(text(body, "using"), text(body, "value"), el), body);
+            case "elements":
+                return session.refs(page.find(text(body, "using"), text(body, "value"), el));
+            case "text":
+                return StubPage.getText(el);
+            case "name":
+                return el.getTagName();
+            case "attribute":
+                return el.hasAttribute(rest.get(2)) ? el.getAttribute(rest.get(2)) : null;
+            case "property":
+                return "value".equals(rest.get(2)) ? StubPage.getValue(el) : StubPage.getAttribute(el, rest.get(2));
+            case "css":
+                return "";
+            case "displayed":
+                return StubPage.isDisplayed(el);
+            case "enabled":
+                return StubPage.isEnabled(el);
+            case "selected":
+                return StubPage.isSelected(el);
+            case "rect":
+                Map<String, Object> rect = new LinkedHashMap<>();
+                rect.put("x", 0);
+                rect.put("y", 0);
+                rect.put("width", StubPage.isDisplayed(el) ? 100 : 0);
+                rect.put("height", StubPage.isDisplayed(el) ? 20 : 0);
+                return rect;
+            case "computedrole":
+            case "computedlabel":
+                return "";
+            case "screenshot":
+                return session.screenshot();
+            case "clear":
+                session.interactable(el);
+                StubPage.setValue(el, "");
+                session.mutations++;
+                return null;
+            case "value":
+                session.interactable(el);
+                String typed = body.has("text") ? body.path("text").asText() : joinChars(body.path("value"));
+                StubPage.setValue(el, (StubPage.getValue(el) == null ? "" : StubPage.getValue(el)) + typed);
+                session.mutations++;
+                return null;
+            case "click":
+                session.interactable(el);
+                session.click(el);
+                return null;
+            default:
+                throw unknownCommand(method, rest);
+        }
+    }
+
+    private static String joinChars(JsonNode value) {
+        StringBuilder sb = new StringBuilder();
+        value.forEach(v -> sb.append(v.asText()));
+        return sb.toString();
+    }
+
+    private static String text(JsonNode body, String field) {
+        JsonNode node = body.path(field);
+        if (!node.isTextual()) throw new IllegalArgumentException("'" + field + "' must be a string");
+        return node.asText();
+    }
+
+    private static W3CException unknownCommand(String method, List<String> path) {
+        return new W3CException(404, "unknown command", method + " /" + String.join("/", path));
+    }
+
+    // ---------------- LATENCY / FAILURES ----------------
+
+    private static void delay(long extraMillis) {
+        long millis = extraMillis + CommonUtils.getGlobalIntProperty("stubWebDriverLatencyMillis", 0);
+        int jitter = CommonUtils.getGlobalIntProperty("stubWebDriverJitterMillis", 0);
+        if (jitter > 0) millis += ThreadLocalRandom.current().nextInt(jitter + 1);
+        if (millis <= 0) return;
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static boolean inject(String rateKey) {
+        double rate = Double.parseDouble(CommonUtils.getGlobalProperty(rateKey, "0").trim());
+        if (rate <= 0 || ThreadLocalRandom.current().nextDouble() >= rate) return false;
+        INJECTED_FAILURES.incrementAndGet();
+        return true;
+    }
+
+    // ---------------- PAGES ----------------
+
+    // page for a URL: about:/data: are blank, routed URLs come from the FixtureServer
+    private static StubPage load(String target) {
+        if (!target.startsWith("http://") && !target.startsWith("https://")) return StubPage.blank(target);
+        String fetchUrl = route(target);
+        try {
+            HttpResponse<String> response = FETCH.send(HttpRequest.newBuilder(URI.create(fetchUrl)).GET().build(),
+                    HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+            return StubPage.parse(target, response.body());
+        } catch (IOException e) {
+            throw new W3CException(500, "unknown error", "net::ERR_CONNECTION_REFUSED loading " + fetchUrl + ": " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new W3CException(500, "unknown error", "Interrupted loading " + fetchUrl);
+        }
+    }
+
+    // like a browser: https://host -> https://host/
+    private static String normalize(String target) {
+        try {
+            URI uri = URI.create(target);
+            if (uri.getScheme() != null && uri.getScheme().startsWith("http") && uri.getRawPath() != null && uri.getRawPath().isEmpty()) {
+                return uri.getScheme() + "://" + uri.getRawAuthority() + "/"
+                        + (uri.getRawQuery() == null ? "" : "?" + uri.getRawQuery())
+                        + (uri.getRawFragment() == null ? "" : "#" + uri.getRawFragment());
+            }
+            return target;
+        } catch (IllegalArgumentException e) {
+            throw new W3CException(400, "invalid argument", "Malformed URL: " + target);
+        }
+    }
+
+    private static String route(String target) {
+        for (String rule : CommonUtils.getGlobalProperty("stubWebDriverRoutes", DEFAULT_ROUTES).split(",")) {
+            int arrow = rule.indexOf("=>");
+            if (arrow < 0) continue;
+            String prefix = rule.substring(0, arrow).trim();
+            String to = rule.substring(arrow + 2).trim();
+            if (prefix.isEmpty() || !target.startsWith(prefix)) continue;
+            String rest = target.substring(prefix.length());
+            return to.startsWith("http://") || to.startsWith("https://") ? to + rest : FixtureServer.url(to + rest);
+        }
+        return target;
+    }
+
+    private static final class Window {
+        StubPage page = StubPage.blank("about:blank");
+        final List<String> history = new ArrayList<>(Collections.singletonList("about:blank"));
+        int position;
+
+        void back() {
+            if (position > 0) page = load(history.get(--position));
+        }
+
+        void forward() {
+            if (position < history.size() - 1) page = load(history.get(++position));
+        }
+    }
+
+    // ---------------- SESSIONS ----------------
+
+    private static final class Session {
+        final String id;
+        final Map<String, Window> windows = new LinkedHashMap<>();
+        final Map<String, Object> cookies = new LinkedHashMap<>();
+        final Map<String, String> localStorage = new LinkedHashMap<>();
+        final Map<String, String> sessionStorage = new LinkedHashMap<>();
+        final Map<String, Object> timeouts = new LinkedHashMap<>();
+        // element references into the current pages; ids below nextElement that are gone are stale
+        final Map<String, Element> elements = new HashMap<>();
+        final Map<Element, String> elementIds = new IdentityHashMap<>();
+        final int width;
+        final int height;
+        String current;
+        long nextElement;
+        long nextWindow;
+        // typing / clicks on the current page, so screenshots change with the page state
+        long mutations;
+
+        Session(String id) {
+            this.id = id;
+            String[] size = CommonUtils.getGlobalProperty("stubWebDriverScreenshotSize", "1280x720").toLowerCase(Locale.ROOT).split("x");
+            this.width = Integer.parseInt(size[0].trim());
+            this.height = Integer.parseInt(size[1].trim());
+            timeouts.put("implicit", 0L);
+            timeouts.put("pageLoad", 300_000L);
+            timeouts.put("script", 30_000L);
+            current = openWindow();
+        }
+
+        String openWindow() {
+            String handle = "W" + id.substring(0, 8) + "-" + (++nextWindow);
+            windows.put(handle, new Window());
+            return handle;
+        }
+
+        Window window() {
+            Window w = windows.get(current);
+            if (w == null) throw new W3CException(404, "no such window", "Current window was closed");
+            return w;
+        }
+
+        void navigate(String target, boolean addToHistory) {
+            target = normalize(target);
+            Window w = window();
+            w.page = load(target);
+            if (addToHistory) {
+                w.history.subList(w.position + 1, w.history.size()).clear();
+                w.history.add(target);
+                w.position = w.history.size() - 1;
+            }
+            elements.clear();
+            elementIds.clear();
+            mutations = 0;
+        }
+
+        void click(Element el) {
+            mutations++;
+            Element link = StubPage.closest(el, "a");
+            if (link != null && !link.getAttribute("href").isEmpty() && !link.getAttribute("href").startsWith("#")
+                    && !link.getAttribute("href").startsWith("javascript:")) {
+                navigate(resolveUrl(link.getAttribute("href")), true);
+                return;
+            }
+            Element form = StubPage.closest(el, "form");
+            if (form != null && StubPage.isSubmit(el)) {
+                String action = form.getAttribute("action");
+                navigate(resolveUrl(action.isEmpty() ? window().page.getUrl() : action), true);
+            }
+        }
+
+        private String resolveUrl(String href) {
+            String base = window().page.getUrl();
+            if (!base.startsWith("http://") && !base.startsWith("https://")) return href;
+            return URI.create(base).resolve(href.replace(" ", "%20")).toString();
+        }
+
+        // ---- element references ----
+
+        Map<String, Object> ref(Element el) {
+            String key = elementIds.get(el);
+            if (key == null) {
+                key = "E" + (++nextElement);
+                elements.put(key, el);
+                elementIds.put(el, key);
+            }
+            Map<String, Object> ref = new LinkedHashMap<>();
+            ref.put(ELEMENT_KEY, key);
+            return ref;
+        }
+
+        List<Object> refs(List<Element> found) {
+            List<Object> out = new ArrayList<>(found.size());
+            for (Element el : found) out.add(ref(el));
+            return out;
+        }
+
+        Object first(List<Element> found, JsonNode locator) {
+            if (found.isEmpty()) {
+                throw new W3CException(404, "no such element", "Unable to locate element: {\"method\":\""
+                        + locator.path("using").asText() + "\",\"selector\":\"" + locator.path("value").asText() + "\"}");
+            }
+            return ref(found.get(0));
+        }
+
+        Element resolve(String ref) {
+            Element el = elements.get(ref);
+            if (el != null && window().page.owns(el)) return el;
+            long n;
+            try {
+                n = Long.parseLong(ref.substring(1));
+            } catch (RuntimeException e) {
+                n = Long.MAX_VALUE;
+            }
+            if (n <= nextElement) {
+                throw new W3CException(404, "stale element reference", "Element " + ref + " is no longer attached to the DOM");
+            }
+            throw new W3CException(404, "no such element", "Unknown element reference " + ref);
+        }
+
+        Element resolve(JsonNode arg) {
+            return arg.isObject() && arg.has(ELEMENT_KEY) ? resolve(arg.path(ELEMENT_KEY).asText()) : null;
+        }
+
+        void interactable(Element el) {
+            if (!StubPage.isDisplayed(el) || !StubPage.isEnabled(el)) {
+                throw new W3CException(400, "element not interactable", "Element <" + el.getTagName() + "> is not reachable");
+            }
+        }
+
+        // ---- scripts ----
+
+        Object execute(String script, JsonNode args) {
+            if (script.contains("/* isDisplayed */")) {
+                return StubPage.isDisplayed(resolve(args.path(0)));
+            }
+            if (script.contains("/* getAttribute */")) {
+                Element el = resolve(args.path(0));
+                String name = args.path(1).asText();
+                return "value".equalsIgnoreCase(name) && StubPage.getValue(el) != null ? StubPage.getValue(el) : StubPage.getAttribute(el, name);
+            }
+            if (script.contains("specs.forEach")) {
+                return snapshot(args.path(0));
+            }
+            if (script.contains("dump(window.localStorage)")) {
+                return Arrays.asList(new LinkedHashMap<>(localStorage), new LinkedHashMap<>(sessionStorage));
+            }
+            if (script.contains("performance.getEntriesByType('navigation')")) {
+                double latency = CommonUtils.getGlobalIntProperty("stubWebDriverLatencyMillis", 0);
+                return Arrays.asList(latency, latency, latency, 0);
+            }
+            if (script.contains("localStorage.clear()")) localStorage.clear();
+            if (script.contains("sessionStorage.clear()")) sessionStorage.clear();
+            Matcher m = SET_ITEM.matcher(script);
+            while (m.find()) {
+                try {
+                    String key = MAPPER.readValue(m.group(2), String.class);
+                    String value = MAPPER.readValue(m.group(3), String.class);
+                    ("localStorage".equals(m.group(1)) ? localStorage : sessionStorage).put(key, value);
+                } catch (IOException e) {
+                    throw new W3CException(500, "javascript error", "Unreadable storage literal: " + e.getMessage());
+                }
+            }
+            return null;
+        }
+
+        // PageSnapshot's script: [[name, type, value], ...] -> { name: [element data, ...] | { error } }
+        private Map<String, Object> snapshot(JsonNode specs) {
+            StubPage page = window().page;
+            Map<String, Object> out = new LinkedHashMap<>();
+            for (JsonNode spec : specs) {
+                String name = spec.path(0).asText();
+                try {
+                    List<Object> read = new ArrayList<>();
+                    for (Element el : page.findByRepositoryType(spec.path(1).asText(), spec.path(2).asText())) {
+                        boolean displayed = StubPage.isDisplayed(el);
+                        Map<String, Object> data = new LinkedHashMap<>();
+                        data.put("tag", el.getTagName());
+                        data.put("text", StubPage.getText(el));
+                        data.put("textContent", el.getTextContent().trim());
+                        data.put("displayed", displayed);
+                        data.put("enabled", StubPage.isEnabled(el));
+                        data.put("selected", StubPage.isSelected(el));
+                        data.put("value", StubPage.getValue(el));
+                        data.put("attributes", StubPage.getAttributes(el));
+                        read.add(data);
+                    }
+                    out.put(name, read);
+                } catch (IllegalArgumentException e) {
+                    out.put(name, Collections.singletonMap("error", e.getMessage()));
+                }
+            }
+            return out;
+        }
+
+        // ---- screenshots ----
+
+        String screenshot() {
+            String key = window().page.getUrl() + "#" + mutations + "@" + width + "x" + height;
+            byte[] png = FRAMES.get(key);
+            if (png == null) {
+                if (FRAMES.size() > 256) FRAMES.clear();
+                png = render(key);
+                FRAMES.put(key, png);
+            }
+            return Base64.getEncoder().encodeToString(png);
+        }
+
+        private byte[] render(String key) {
+            int hash = key.hashCode();
+            BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = image.createGraphics();
+            try {
+                g.setColor(Color.WHITE);
+                g.fillRect(0, 0, width, height);
+                g.setColor(new Color(hash & 0xFFFFFF));
+                g.fillRect(0, 0, width, Math.max(1, height / 10));
+                g.fillRect(width / 10, height / 5, (int) (width * 0.3 + (mutations % 10) * width / 20), height / 12);
+            } finally {
+                g.dispose();
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try {
+                ImageIO.write(image, "png", out);
+            } catch (IOException e) {
+                throw new W3CException(500, "unable to capture screen", e.getMessage());
+            }
+            return out.toByteArray();
+        }
+    }
+
+    private static final class W3CException extends RuntimeException {
+        final int status;
+        final String error;
+
+        W3CException(int status, String error, String message) {
+            super(message);
+            this.status = status;
+            this.error = error;
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package utils;
 
-import com.aventstack.extentreports.ExtentTest;
 import com.aventstack.extentreports.MediaEntityBuilder;
 import com.aventstack.extentreports.Status;
 import io.cucumber.java.Scenario;
@@ -18,32 +17,18 @@ public class TestReportingUtils {
     public static final ThreadLocal<Scenario> scenarioThreadLocal = new ThreadLocal<>();
     public static final ThreadLocal<SoftAssert> softAssertThreadLocal = ThreadLocal.withInitial(SoftAssert::new);
 
+    // Robot capture of the whole desktop when WebDriver capture fails (useless on headless CI)
+    private static final boolean DESKTOP_FALLBACK = CommonUtils.getGlobalBooleanProperty("screenshotDesktopFallback", true);
+
     public static void logger(String status, String description) {
 
         try {
 
             Status statusLog = getStatusLog(status);
-            ExtentTest exTest = ReportMgr.getTest();
-            String screenshotPath = null;
-
-            // ---- 1. TRY WEBDRIVER SCREENSHOT ----
-            try {
-                screenshotPath = ScreenshotUtils.captureWebDriverScreenshot(getDriver());
-            } catch (Exception e) {
-                if (exTest != null) exTest.warning("WebDriver screenshot failed: " + e.getMessage());
-                screenshotPath = null;
-            }
+            BufferedExtentTest exTest = ReportMgr.getTest();
 
-            // ---- 2. FALLBACK: TRY DESKTOP/ROBOT SCREENSHOT ----
-
-            if (screenshotPath == null) {
-                try {
-                    screenshotPath = ScreenshotUtils.captureDesktopScreenshot();
-                } catch (Exception e) {
-                    if (exTest != null) exTest.warning("Desktop screenshot failed: " + e.getMessage());
-                    screenshotPath = null;
-                }
-            }
+            // ---- 1-2. SCREENSHOT (subject to screenshotPolicy) ----
+            String screenshotPath = ScreenshotPolicy.shouldCapture(statusLog) ? captureScreenshot(exTest) : null;
 
             // ---- 3. LOGGING TO EXTENT REPORT ----
             if (exTest != null) {
@@ -70,7 +55,7 @@ public class TestReportingUtils {
             }
 
         } catch (Exception e) {
-            ExtentTest exTest = ReportMgr.getTest();
+            BufferedExtentTest exTest = ReportMgr.getTest();
             if (exTest != null) {
                 exTest.warning("Logger failed: " + e.getMessage());
             }
@@ -99,15 +84,69 @@ public class TestReportingUtils {
             }
 
         } catch (Exception e) {
-            ExtentTest exTest = ReportMgr.getTest();
+            BufferedExtentTest exTest = ReportMgr.getTest();
             if (exTest != null) {
                 exTest.warning("Logger failed: " + e.getMessage());
             }
         }
     }
 
+    /**
+     * Take a closing screenshot for the scenario when the policy asks for one (first-and-last mode).
+     * Called by Hooks before the scenario result is logged.
+     */
+    public static void logFinalScreenshot(String description) {
+        if (!ScreenshotPolicy.wantsFinalCapture()) return;
+        BufferedExtentTest exTest = ReportMgr.getTest();
+        String screenshotPath = captureScreenshot(exTest);
+        if (exTest != null && screenshotPath != null) {
+            exTest.info(description, MediaEntityBuilder.createScreenCaptureFromPath(screenshotPath).build());
+        }
+    }
+
     // ================= HELPERS =================
 
+    /**
+     * Capture via WebDriver, falling back to a desktop (Robot) capture when
+     * screenshotDesktopFallback is enabled. Returns null when nothing could be captured.
+     */
+    private static String captureScreenshot(BufferedExtentTest exTest) {
+        String screenshotPath = null;
+
+        // ---- 1. TRY WEBDRIVER SCREENSHOT ----
+        try {
+            if (getDriver() != null) {
+                long start = System.nanoTime();
+                byte[] png = ScreenshotUtils.captureWebDriverBytes(getDriver());
+                long captureNanos = System.nanoTime() - start;
+                Metrics.histogram("screenshot_capture_seconds").recordNanos(captureNanos);
+                Metrics.current().screenshotNanos += captureNanos;
+
+                // identical to the previous frame? link to it instead of writing a copy
+                screenshotPath = ScreenshotPolicy.findDuplicate(png);
+                if (screenshotPath == null) {
+                    screenshotPath = ScreenshotUtils.saveWebDriverScreenshot(png);
+                    ScreenshotPolicy.recordCapture(screenshotPath, captureNanos);
+                }
+            }
+        } catch (Exception e) {
+            if (exTest != null) exTest.warning("WebDriver screenshot failed: " + e.getMessage());
+            screenshotPath = null;
+        }
+
+        // ---- 2. FALLBACK: TRY DESKTOP/ROBOT SCREENSHOT ----
+
+        if (screenshotPath == null && DESKTOP_FALLBACK) {
+            try {
+                screenshotPath = ScreenshotUtils.captureDesktopScreenshot();
+            } catch (Exception e) {
+                if (exTest != null) exTest.warning("Desktop screenshot failed: " + e.getMessage());
+                screenshotPath = null;
+            }
+        }
+        return screenshotPath;
+    }
+
     /** Treat only FAIL as a failing status (FATAL doesn’t exist in your Extent version). */
     private static boolean isFail(Status s) {
         return s == Status.FAIL;
@@ -117,7 +156,7 @@ public class TestReportingUtils {
      * Map a string like "pass", "fail", "fatal", "warn" to ExtentReports Status.
      * Note: there is no Status.FATAL in your version, so we map "fatal" -> FAIL.
      */
-    private static Status getStatusLog(String status) {
+    static Status getStatusLog(String status) {   // package-private for the JMH benchmarks
         String statusText = (status == null) ? "info" : status.trim().toLowerCase();
         Status statusLog;
 
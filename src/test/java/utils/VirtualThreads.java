@@ -0,0 +1,71 @@
+package utils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors for running one scenario per thread.
+ *
+ * The project still compiles for Java 11, so virtual threads (Java 21+) are looked up reflectively:
+ * on a 21+ JVM {@link #newScenarioExecutor} starts a new virtual thread per task; on older JVMs it
+ * falls back to a fixed pool of platform threads. Either way concurrency is meant to be capped by
+ * the caller (browser slots), not by the executor.
+ */
+public final class VirtualThreads {
+
+    private static final ThreadFactory VIRTUAL_FACTORY = lookupVirtualFactory();
+
+    private VirtualThreads() {}
+
+    /** True when this JVM can create virtual threads. */
+    public static boolean isSupported() {
+        return VIRTUAL_FACTORY != null;
+    }
+
+    /**
+     * Thread-per-task executor on virtual threads named {@code <prefix>N}, or a fixed pool of
+     * {@code fallbackThreads} platform daemon threads when virtual threads are unavailable.
+     */
+    public static ExecutorService newScenarioExecutor(String prefix, int fallbackThreads) {
+        if (VIRTUAL_FACTORY != null) {
+            AtomicInteger seq = new AtomicInteger();
+            ThreadFactory named = r -> {
+                Thread t = VIRTUAL_FACTORY.newThread(r);
+                t.setName(prefix + seq.incrementAndGet());
+                return t;
+            };
+            try {
+                Method perTask = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+                return (ExecutorService) perTask.invoke(null, named);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Virtual threads available but newThreadPerTaskExecutor is not", e);
+            }
+        }
+        return newPlatformExecutor(prefix, fallbackThreads);
+    }
+
+    /** Fixed pool of platform daemon threads, the model TestNG's data-provider pool uses. */
+    public static ExecutorService newPlatformExecutor(String prefix, int threads) {
+        AtomicInteger seq = new AtomicInteger();
+        return Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, prefix + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // Thread.ofVirtual().factory(), or null before Java 21
+    private static ThreadFactory lookupVirtualFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+            return (ThreadFactory) factory.invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // before Java 21, or the preview API of 19/20 without --enable-preview
+            return null;
+        }
+    }
+}
@@ -1,9 +1,15 @@
+# The site is opened by the sauce-demo-home setup fixture: once per worker, not once per scenario
+@fixture:sauce-demo-home
 Feature: Validate Sauce Demo Website Launch
 
   Scenario: Verify page title after navigating to Sauce Demo site
-    Given user launches the Sauce Demo website
+    Given the Sauce Demo website is open
     Then user prints the page title
 
   Scenario: Verify login page heading
-    Given user launches the Sauce Demo website
-    Then user prints the login page heading
\ No newline at end of file
+    Given the Sauce Demo website is open
+    Then user prints the login page heading
+
+  Scenario: Verify login form elements
+    Given the Sauce Demo website is open
+    Then user checks the login form in a single read
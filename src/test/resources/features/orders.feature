@@ -0,0 +1,20 @@
+Feature: Orders
+
+  # Only the first scenario per role goes through the login form; see SessionStateCache
+  Scenario: Logged-in user sees the inventory
+    Given user is logged in as "standard"
+    Then user sees the inventory list
+
+  # One scenario per row of TestData/Orders/products.csv; a rerun checks the same row again
+  Scenario Outline: Catalogue product <row> is listed with its price
+    Given user is logged in as "standard"
+    Then user finds catalogue product <row> in the inventory
+
+    Examples:
+      | row |
+      | 1   |
+      | 2   |
+      | 3   |
+      | 4   |
+      | 5   |
+      | 6   |
@@ -0,0 +1,8 @@
+Feature: Page load under the network resource policy
+
+  # Served by the in-process FixtureServer; /slow/ resources simulate third-party tags.
+  # Compare: mvn test -Dcucumber.filter.tags=@resource-policy -DresourceBlockPatterns=*slow*
+  @resource-policy
+  Scenario: Measure fixture page load timing
+    Given user opens the local fixture shop
+    Then user logs the page load timing
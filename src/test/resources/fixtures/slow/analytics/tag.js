@@ -0,0 +1 @@
+window.__fixtureAnalyticsLoaded = true;
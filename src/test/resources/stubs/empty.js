@@ -0,0 +1 @@
+// stub served by ResourcePolicy in place of third-party tags